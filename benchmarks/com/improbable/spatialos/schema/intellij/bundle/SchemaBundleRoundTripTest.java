@@ -0,0 +1,116 @@
+package com.improbable.spatialos.schema.intellij.bundle;
+
+import com.improbable.spatialos.schema.intellij.fuzz.SchemaCorpusGenerator;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.lsp.SchemaWorkspace;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes generated schema to a bundle and reads it back, checking every definition in order and every component ID.
+ */
+public class SchemaBundleRoundTripTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final String OTHER_FILE =
+        "package other.bundle;\n" +
+        "import \"fuzz/anything.schema\";\n" +
+        "type Outer {\n" +
+        "  type Inner {\n" +
+        "    enum Colour { RED = 0; GREEN = 1; }\n" +
+        "    Colour colour = 1;\n" +
+        "  }\n" +
+        "  Inner inner = 1;\n" +
+        "  list<Inner> inners = 2;\n" +
+        "  map<string, Outer.Inner> named = 3;\n" +
+        "  option<Unknown> unknown = 4;\n" +
+        "}\n" +
+        "component Holder {\n" +
+        "  id = 7;\n" +
+        "  data Outer;\n" +
+        "  event Outer.Inner changed;\n" +
+        "}\n";
+
+    public void testRoundTrip() throws IOException {
+        SchemaCorpusGenerator generator = new SchemaCorpusGenerator(42);
+        List<SchemaFileSummary> files = Arrays.asList(summarise(generator.generateValid(500)),
+                                                      summarise(OTHER_FILE));
+        SchemaBundleReader reader = writeAndRead(files);
+
+        SchemaTypeResolver resolver = new SchemaTypeResolver(files);
+        List<String> qualifiedNames = new ArrayList<>(new TreeSet<>(resolver.getQualifiedNames()));
+        assertEquals(qualifiedNames.size(), reader.getDefinitionCount());
+        Set<Integer> componentIds = new HashSet<>();
+        for (int i = 0; i < qualifiedNames.size(); ++i) {
+            SchemaTypeResolver.Entry expected = resolver.get(qualifiedNames.get(i));
+            SchemaBundleReader.Entry actual = reader.getDefinition(i);
+            assertEquals(qualifiedNames.get(i), actual.getQualifiedName());
+            assertEquals(expected.file.packageName, actual.packageName);
+            assertEquals(qualifiedNames.get(i), qualify(resolver, expected.file, expected.definition),
+                         actual.definition);
+            int componentId = expected.definition.componentId;
+            if (expected.definition.kind == SchemaDefinition.Kind.COMPONENT &&
+                componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                componentIds.add(componentId);
+                SchemaBundleReader.Entry component = reader.findComponent(componentId);
+                assertNotNull("component " + componentId, component);
+                assertEquals(qualifiedNames.get(i), component.getQualifiedName());
+            }
+        }
+        assertTrue(componentIds.contains(7));
+        assertNull(reader.findComponent(Integer.MAX_VALUE));
+        assertNull(reader.findComponent(0));
+    }
+
+    public void testDuplicateComponentIdFailsExport() {
+        List<SchemaFileSummary> files = Arrays.asList(summarise("package a;\ncomponent First { id = 100; }\n"),
+                                                      summarise("package b;\ncomponent Second { id = 100; }\n"));
+        try {
+            SchemaBundleWriter.write(files, new ByteArrayOutputStream());
+            fail("Duplicate component IDs were written.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("a.First") && e.getMessage().contains("b.Second"));
+        }
+    }
+
+    private static @NotNull SchemaFileSummary summarise(@NotNull String text) {
+        return SchemaSummaryBuilder.build(SchemaWorkspace.parse(text));
+    }
+
+    private static @NotNull SchemaBundleReader writeAndRead(@NotNull List<SchemaFileSummary> files)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SchemaBundleWriter.write(files, output);
+        return new SchemaBundleReader(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    /**
+     * The bundle keeps type names fully qualified and does not keep source offsets.
+     */
+    private static @NotNull SchemaDefinition qualify(@NotNull SchemaTypeResolver resolver,
+                                                     @NotNull SchemaFileSummary file,
+                                                     @NotNull SchemaDefinition definition) {
+        List<SchemaField> fields = new ArrayList<>(definition.fields.size());
+        for (SchemaField field : definition.fields) {
+            List<String> typeParameters = new ArrayList<>(field.typeParameters.size());
+            for (String typeParameter : field.typeParameters) {
+                typeParameters.add(resolver.qualify(file, definition, typeParameter));
+            }
+            fields.add(new SchemaField(field.kind, field.name, field.number,
+                                       resolver.qualify(file, definition, field.typeName), typeParameters));
+        }
+        return new SchemaDefinition(definition.kind, definition.name, definition.componentId, 0, fields);
+    }
+}
@@ -0,0 +1,78 @@
+package com.improbable.spatialos.schema.intellij.codegen;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares a full code generation run against an incremental run after editing a single component.
+ * Usage: SchemaCodeGenerationBenchmark [files] [iterations]
+ */
+public class SchemaCodeGenerationBenchmark {
+    private static class CountingSink implements SchemaCodeGenerator.OutputSink {
+        private long bytes = 0;
+
+        @Override
+        public void write(@NotNull String path, @NotNull String content) {
+            bytes += content.length();
+        }
+
+        @Override
+        public void delete(@NotNull String path) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<SchemaFileSummary> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; ++i) {
+            files.add(createFile(i, 0));
+        }
+
+        long fullNanos = 0;
+        long incrementalNanos = 0;
+        int incrementalGenerated = 0;
+        for (int iteration = 0; iteration < iterations; ++iteration) {
+            SchemaCodeGenerator generator = new SchemaCodeGenerator();
+            long start = System.nanoTime();
+            generator.generate(files, new CountingSink());
+            fullNanos += System.nanoTime() - start;
+
+            int edited = iteration % fileCount;
+            files.set(edited, createFile(edited, iteration + 1));
+            start = System.nanoTime();
+            incrementalGenerated += generator.generate(files, new CountingSink()).generated;
+            incrementalNanos += System.nanoTime() - start;
+        }
+        System.out.printf("files=%d iterations=%d%n", fileCount, iterations);
+        System.out.printf("full regeneration:   %8.2f ms%n", fullNanos / 1e6 / iterations);
+        System.out.printf("one-component edit:  %8.2f ms (%d outputs regenerated per edit)%n",
+                          incrementalNanos / 1e6 / iterations, incrementalGenerated / iterations);
+    }
+
+    private static @NotNull SchemaFileSummary createFile(int index, int revision) {
+        String packageName = "benchmark.p" + (index % 50);
+        List<SchemaDefinition> definitions = new ArrayList<>();
+        List<SchemaField> dataFields = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            dataFields.add(new SchemaField(SchemaField.Kind.FIELD, "field" + i, i + 1, i % 2 == 0 ? "int32" : "list",
+                                           i % 2 == 0 ? Collections.emptyList() :
+                                               Collections.singletonList("string")));
+        }
+        definitions.add(new SchemaDefinition(SchemaDefinition.Kind.TYPE, "Data" + index, -1, 0, dataFields));
+        List<SchemaField> componentFields = new ArrayList<>();
+        componentFields.add(new SchemaField(SchemaField.Kind.DATA, "", -1, "Data" + index,
+                                            Collections.emptyList()));
+        componentFields.add(new SchemaField(SchemaField.Kind.EVENT, "changed" + revision, -1, "Data" + index,
+                                            Collections.emptyList()));
+        definitions.add(new SchemaDefinition(SchemaDefinition.Kind.COMPONENT, "Component" + index, 1000 + index, 0,
+                                             componentFields));
+        return new SchemaFileSummary(packageName, Collections.emptyList(), definitions);
+    }
+}
@@ -0,0 +1,183 @@
+package com.improbable.spatialos.schema.intellij.editor;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Types into generated schema files of increasing size and records per-keystroke latency of re-lexing (the editor
+ * highlighter updating on the document change), reparsing (committing the document) and highlighting (running the
+ * annotators).
+ *
+ * Run it like any other platform test. The sizes, in components, can be set with -Dspatialos.schema.benchmark.sizes
+ * and the results are written as JSON to -Dspatialos.schema.benchmark.output when it is set, so runs from different
+ * versions can be compared.
+ */
+public class SchemaTypingLatencyBenchmark extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int[] DEFAULT_SIZES = {100, 1000, 5000};
+    private static final String COMMENT_MARKER = "// typing happens here";
+    private static final String BODY_MARKER = "  id = ";
+
+    private enum Position {
+        COMMENT("in comment", " text"),
+        COMPONENT_BODY("in component body", "int32 typed = 77;\n  "),
+        TOP_LEVEL("at top level", "type Typed { string s = 1; }\n");
+
+        final String description;
+        final String typed;
+
+        Position(@NotNull String description, @NotNull String typed) {
+            this.description = description;
+            this.typed = typed;
+        }
+    }
+
+    private static class Latencies {
+        final long[] relex;
+        final long[] reparse;
+        final long[] highlight;
+        int count = 0;
+
+        Latencies(int capacity) {
+            relex = new long[capacity];
+            reparse = new long[capacity];
+            highlight = new long[capacity];
+        }
+    }
+
+    public void testTypingLatency() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int size : getSizes()) {
+            for (Position position : Position.values()) {
+                Latencies latencies = measure(size, position);
+                System.out.printf("%6d components, %-18s relex %s | reparse %s | highlight %s%n", size,
+                                  position.description, format(latencies.relex, latencies.count),
+                                  format(latencies.reparse, latencies.count),
+                                  format(latencies.highlight, latencies.count));
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("{\"components\":").append(size)
+                    .append(",\"position\":\"").append(position.name()).append('"')
+                    .append(",\"relex\":").append(toJson(latencies.relex, latencies.count))
+                    .append(",\"reparse\":").append(toJson(latencies.reparse, latencies.count))
+                    .append(",\"highlight\":").append(toJson(latencies.highlight, latencies.count))
+                    .append('}');
+            }
+        }
+        json.append(']');
+        String output = System.getProperty("spatialos.schema.benchmark.output");
+        if (output != null) {
+            try (PrintWriter writer = new PrintWriter(new File(output), StandardCharsets.UTF_8.name())) {
+                writer.println(json);
+            }
+        }
+    }
+
+    private @NotNull Latencies measure(int size, @NotNull Position position) {
+        String text = generateFile(size);
+        myFixture.configureByText(SchemaFileType.SCHEMA_FILE_TYPE, text);
+        Document document = myFixture.getEditor().getDocument();
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+        myFixture.doHighlighting();
+
+        int offset = getOffset(document.getText(), position);
+        Latencies latencies = new Latencies(position.typed.length());
+        for (char c : position.typed.toCharArray()) {
+            int at = offset++;
+            long start = System.nanoTime();
+            WriteCommandAction.runWriteCommandAction(getProject(),
+                                                     () -> document.insertString(at, String.valueOf(c)));
+            long typed = System.nanoTime();
+            documentManager.commitDocument(document);
+            long committed = System.nanoTime();
+            myFixture.doHighlighting();
+            long highlighted = System.nanoTime();
+
+            latencies.relex[latencies.count] = typed - start;
+            latencies.reparse[latencies.count] = committed - typed;
+            latencies.highlight[latencies.count] = highlighted - committed;
+            ++latencies.count;
+        }
+        return latencies;
+    }
+
+    private static int getOffset(@NotNull String text, @NotNull Position position) {
+        switch (position) {
+            case COMMENT:
+                return text.indexOf(COMMENT_MARKER) + COMMENT_MARKER.length();
+            case COMPONENT_BODY:
+                int middle = text.indexOf(BODY_MARKER, text.length() / 2);
+                return text.lastIndexOf('\n', middle) + 3;
+            default:
+                return text.lastIndexOf("\ncomponent", text.length() / 2) + 1;
+        }
+    }
+
+    private static @NotNull String generateFile(int components) {
+        StringBuilder text = new StringBuilder("package benchmark.typing;\n\n");
+        for (int i = 0; i < components; ++i) {
+            if (i == components / 2) {
+                text.append(COMMENT_MARKER).append('\n');
+            }
+            text.append("// Component ").append(i).append(".\n");
+            text.append("type Data").append(i).append(" {\n");
+            text.append("  int32 value = 1;\n");
+            text.append("  list<string> names = 2;\n");
+            text.append("  map<uint32, EntityId> entities = 3;\n");
+            text.append("}\n\n");
+            text.append("component Component").append(i).append(" {\n");
+            text.append(BODY_MARKER).append(1000 + i).append(";\n");
+            text.append("  data Data").append(i).append(";\n");
+            text.append("  event Data").append(i).append(" changed;\n");
+            text.append("}\n\n");
+        }
+        return text.toString();
+    }
+
+    private static int[] getSizes() {
+        String sizes = System.getProperty("spatialos.schema.benchmark.sizes");
+        if (sizes == null) {
+            return DEFAULT_SIZES;
+        }
+        return Arrays.stream(sizes.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    private static long percentile(long[] sorted, int count, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    private static @NotNull List<Long> getPercentiles(long[] nanos, int count) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        List<Long> result = new ArrayList<>();
+        for (double percentile : new double[]{50, 90, 99, 100}) {
+            result.add(percentile(sorted, count, percentile));
+        }
+        return result;
+    }
+
+    private static @NotNull String format(long[] nanos, int count) {
+        List<Long> percentiles = getPercentiles(nanos, count);
+        return String.format("p50 %6.2f p90 %6.2f p99 %6.2f max %6.2f ms", percentiles.get(0) / 1e6,
+                             percentiles.get(1) / 1e6, percentiles.get(2) / 1e6, percentiles.get(3) / 1e6);
+    }
+
+    private static @NotNull String toJson(long[] nanos, int count) {
+        List<Long> percentiles = getPercentiles(nanos, count);
+        return String.format("{\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}", percentiles.get(0),
+                             percentiles.get(1), percentiles.get(2), percentiles.get(3));
+    }
+}
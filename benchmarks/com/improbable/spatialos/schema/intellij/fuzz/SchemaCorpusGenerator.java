@@ -0,0 +1,196 @@
+package com.improbable.spatialos.schema.intellij.fuzz;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Generates schema files from a seed, so that any failing input can be reproduced from the seed alone. Valid files
+ * cover every construct the parser knows about; mutated files and the pathological shapes below exercise the lexer
+ * and the parser's error recovery.
+ */
+public class SchemaCorpusGenerator {
+    private static final String[] PRIMITIVE_TYPES = {
+        "int32", "int64", "uint32", "uint64", "sint32", "sint64", "fixed32", "fixed64", "sfixed32", "sfixed64",
+        "bool", "float", "double", "string", "bytes", "EntityId", "Coordinates"
+    };
+    private static final String[] FRAGMENTS = {
+        "{", "}", "<", ">", "=", ",", ";", ".", "\"", "/*", "*/", "//", "\n", "component", "type", "enum", "data",
+        "event", "option", "id", "package", "import", "list", "map", "option<", "7", "a.b.c", "#", "é"
+    };
+
+    private final Random random;
+
+    public SchemaCorpusGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public @NotNull String generateValid(int definitions) {
+        StringBuilder text = new StringBuilder();
+        text.append("package fuzz.p").append(random.nextInt(10)).append(";\n");
+        if (random.nextBoolean()) {
+            text.append("import \"fuzz/other").append(random.nextInt(10)).append(".schema\";\n");
+        }
+        text.append('\n');
+        for (int i = 0; i < definitions; ++i) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    appendEnum(text, "Enum" + i, "");
+                    break;
+                case 1:
+                    appendType(text, "Type" + i, "", 0);
+                    break;
+                default:
+                    appendComponent(text, i);
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Applies random edits: deleting, duplicating or truncating ranges and inserting stray tokens.
+     */
+    public @NotNull String mutate(@NotNull String text, int mutations) {
+        StringBuilder result = new StringBuilder(text);
+        for (int i = 0; i < mutations; ++i) {
+            int offset = result.length() == 0 ? 0 : random.nextInt(result.length() + 1);
+            int length = Math.min(result.length() - offset, random.nextInt(20));
+            switch (random.nextInt(5)) {
+                case 0:
+                    result.delete(offset, offset + length);
+                    break;
+                case 1:
+                    result.insert(offset, result.substring(offset, offset + length));
+                    break;
+                case 2:
+                    if (random.nextInt(10) == 0) {
+                        result.setLength(offset);
+                    }
+                    break;
+                default:
+                    result.insert(offset, FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                    break;
+            }
+        }
+        return result.toString();
+    }
+
+    public static @NotNull String hugeComment(int length, boolean terminated) {
+        StringBuilder text = new StringBuilder("package fuzz;\n/*");
+        for (int i = 0; i < length; ++i) {
+            text.append(i % 80 == 79 ? '\n' : i % 7 == 0 ? '*' : 'x');
+        }
+        if (terminated) {
+            text.append("*/\ntype T { int32 x = 1; }\n");
+        }
+        return text.toString();
+    }
+
+    public static @NotNull String longDottedIdentifier(int segments) {
+        StringBuilder text = new StringBuilder("package fuzz;\ntype T { ");
+        for (int i = 0; i < segments; ++i) {
+            text.append(i == 0 ? "" : ".").append("segment").append(i % 10);
+        }
+        return text.append(" x = 1; }\n").toString();
+    }
+
+    public static @NotNull String unterminatedStrings(int count) {
+        StringBuilder text = new StringBuilder("package fuzz;\n");
+        for (int i = 0; i < count; ++i) {
+            text.append("import \"unterminated").append(i).append(".schema\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Every line is a broken statement, so the parser enters error recovery once per line.
+     */
+    public static @NotNull String repeatedErrors(int count) {
+        StringBuilder text = new StringBuilder("package fuzz;\ncomponent Broken {\n  id = 1;\n");
+        for (int i = 0; i < count; ++i) {
+            text.append(i % 3 == 0 ? "  list<int32 x = ;\n" : i % 3 == 1 ? "  data ;\n" : "  event T = 4 }\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+    public static @NotNull String nestedTypes(int depth) {
+        StringBuilder text = new StringBuilder("package fuzz;\n");
+        for (int i = 0; i < depth; ++i) {
+            text.append("type T").append(i).append(" {\n");
+        }
+        for (int i = 0; i < depth; ++i) {
+            text.append("}\n");
+        }
+        return text.toString();
+    }
+
+    private void appendEnum(@NotNull StringBuilder text, @NotNull String name, @NotNull String indent) {
+        text.append(indent).append("enum ").append(name).append(" {\n");
+        int values = 1 + random.nextInt(5);
+        for (int i = 0; i < values; ++i) {
+            text.append(indent).append("  VALUE_").append(i).append(" = ").append(i).append(";\n");
+        }
+        text.append(indent).append("}\n");
+    }
+
+    private void appendType(@NotNull StringBuilder text, @NotNull String name, @NotNull String indent, int depth) {
+        text.append(indent).append("type ").append(name).append(" {\n");
+        String inner = indent + "  ";
+        if (random.nextInt(4) == 0) {
+            appendComment(text, inner);
+        }
+        if (depth < 2 && random.nextInt(3) == 0) {
+            appendType(text, "Nested" + depth, inner, depth + 1);
+        }
+        if (random.nextInt(4) == 0) {
+            appendEnum(text, "Kind", inner);
+        }
+        int fields = random.nextInt(6);
+        for (int i = 0; i < fields; ++i) {
+            text.append(inner).append(randomFieldType()).append(" field").append(i).append(" = ").append(i + 1)
+                .append(";\n");
+        }
+        text.append(indent).append("}\n");
+    }
+
+    private void appendComponent(@NotNull StringBuilder text, int index) {
+        appendType(text, "Data" + index, "", 0);
+        text.append("component Component").append(index).append(" {\n");
+        if (random.nextInt(3) == 0) {
+            text.append("  option queryable = true;\n");
+        }
+        text.append("  id = ").append(1000 + index).append(";\n");
+        if (random.nextBoolean()) {
+            text.append("  data Data").append(index).append(";\n");
+        } else {
+            text.append("  ").append(randomFieldType()).append(" value = 1;\n");
+        }
+        if (random.nextBoolean()) {
+            text.append("  event Data").append(index).append(" changed;\n");
+        }
+        text.append("}\n");
+    }
+
+    private void appendComment(@NotNull StringBuilder text, @NotNull String indent) {
+        if (random.nextBoolean()) {
+            text.append(indent).append("// Comment ").append(random.nextInt(1000)).append('\n');
+        } else {
+            text.append(indent).append("/* Block\n").append(indent).append(" * comment. */\n");
+        }
+    }
+
+    private @NotNull String randomFieldType() {
+        String type = PRIMITIVE_TYPES[random.nextInt(PRIMITIVE_TYPES.length)];
+        switch (random.nextInt(5)) {
+            case 0:
+                return "list<" + type + ">";
+            case 1:
+                return "option<" + type + ">";
+            case 2:
+                return "map<string, " + type + ">";
+            default:
+                return type;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.improbable.spatialos.schema.intellij.fuzz;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLexer;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParserDefinition;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lang.impl.PsiBuilderAdapter;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.IntFunction;
+
+/**
+ * Runs the lexer, parser, annotators and formatter over seeded random and pathological schema files. A failure message
+ * always names the seed, so the input can be regenerated with {@link SchemaCorpusGenerator}.
+ *
+ * The number of seeds can be raised with -Dspatialos.schema.fuzz.seeds.
+ */
+public class SchemaFuzzTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int DEFAULT_SEEDS = 200;
+    private static final int SCALING_STEPS = 4;
+    // Doubling the input may at most multiply the steps per character by this much; quadratic behaviour gives about 2.
+    private static final double MAX_GROWTH_PER_DOUBLING = 1.3;
+
+    public void testRandomCorpus() {
+        int seeds = Integer.getInteger("spatialos.schema.fuzz.seeds", DEFAULT_SEEDS);
+        for (int seed = 0; seed < seeds; ++seed) {
+            SchemaCorpusGenerator generator = new SchemaCorpusGenerator(seed);
+            String valid = generator.generateValid(1 + seed % 20);
+            check("seed " + seed + " (valid)", valid, true);
+            check("seed " + seed + " (mutated)", generator.mutate(valid, 1 + seed % 10), seed % 10 == 0);
+        }
+    }
+
+    public void testPathologicalInputs() {
+        check("huge comment", SchemaCorpusGenerator.hugeComment(200_000, true), true);
+        check("unterminated comment", SchemaCorpusGenerator.hugeComment(200_000, false), true);
+        check("long dotted identifier", SchemaCorpusGenerator.longDottedIdentifier(20_000), true);
+        check("unterminated strings", SchemaCorpusGenerator.unterminatedStrings(5_000), true);
+        check("repeated errors", SchemaCorpusGenerator.repeatedErrors(5_000), true);
+        check("nested types", SchemaCorpusGenerator.nestedTypes(200), true);
+    }
+
+    public void testWorkIsLinear() {
+        assertLinear("huge comment", size -> SchemaCorpusGenerator.hugeComment(size * 100, true), 500);
+        assertLinear("unterminated comment", size -> SchemaCorpusGenerator.hugeComment(size * 100, false), 500);
+        assertLinear("long dotted identifier", SchemaCorpusGenerator::longDottedIdentifier, 2_000);
+        assertLinear("unterminated strings", SchemaCorpusGenerator::unterminatedStrings, 1_000);
+        assertLinear("repeated errors", SchemaCorpusGenerator::repeatedErrors, 1_000);
+        assertLinear("valid definitions", size -> new SchemaCorpusGenerator(size).generateValid(size), 200);
+    }
+
+    private void check(@NotNull String name, @NotNull String text, boolean runEditorPasses) {
+        try {
+            checkTokensCoverText(text);
+            checkTreeCoversText(parse(text), text);
+            if (runEditorPasses) {
+                myFixture.configureByText(SchemaFileType.SCHEMA_FILE_TYPE, text);
+                myFixture.doHighlighting();
+                WriteCommandAction.runWriteCommandAction(
+                    getProject(), () -> CodeStyleManager.getInstance(getProject()).reformat(myFixture.getFile()));
+                assertEquals(stripWhitespace(text), stripWhitespace(myFixture.getFile().getText()));
+            }
+        } catch (Throwable t) {
+            throw new AssertionError("Failed on " + name + ":\n" + abbreviate(text), t);
+        }
+    }
+
+    private static void checkTokensCoverText(@NotNull String text) {
+        SchemaLexer lexer = new SchemaLexer();
+        lexer.start(text);
+        int offset = 0;
+        while (lexer.getTokenType() != null) {
+            assertEquals("Gap or overlap before token " + lexer.getTokenType(), offset, lexer.getTokenStart());
+            assertTrue("Empty token " + lexer.getTokenType() + " at " + offset, lexer.getTokenEnd() > offset);
+            offset = lexer.getTokenEnd();
+            lexer.advance();
+        }
+        assertEquals("Tokens end before the end of the text", text.length(), offset);
+    }
+
+    private static void checkTreeCoversText(@NotNull ASTNode root, @NotNull String text) {
+        assertEquals(text, root.getText());
+        int offset = 0;
+        for (ASTNode leaf = firstLeaf(root); leaf != null; leaf = nextLeaf(leaf)) {
+            assertEquals("Leaf " + leaf.getElementType() + " does not start where the previous one ended", offset,
+                         leaf.getStartOffset());
+            offset += leaf.getTextLength();
+        }
+        assertEquals(text.length(), offset);
+    }
+
+    private static void assertLinear(@NotNull String name, @NotNull IntFunction<String> generator, int initialSize) {
+        double previous = 0;
+        int size = initialSize;
+        for (int step = 0; step < SCALING_STEPS; ++step, size *= 2) {
+            String text = generator.apply(size);
+            double stepsPerCharacter = (double) countSteps(text) / Math.max(1, text.length());
+            if (step > 0) {
+                double growth = stepsPerCharacter / previous;
+                assertTrue(String.format("%s: doubling the input from %d to %d multiplied the steps per character by " +
+                                         "%.2f", name, size / 2, size, growth),
+                           growth <= MAX_GROWTH_PER_DOUBLING);
+            }
+            previous = stepsPerCharacter;
+        }
+    }
+
+    /**
+     * Counts the characters the lexer and parser read and the calls the grammar makes on the builder. Unlike the
+     * running time, the count does not depend on the machine, the JIT or the garbage collector.
+     */
+    private static long countSteps(@NotNull String text) {
+        CountingText countingText = new CountingText(text);
+        CountingBuilder builder = new CountingBuilder(PsiBuilderFactory.getInstance().createBuilder(
+            new SchemaParserDefinition(), new SchemaLexer(), countingText));
+        SchemaParser.SCHEMA_PARSER.parse(SchemaParser.SCHEMA_FILE, builder);
+        return countingText.reads + builder.calls;
+    }
+
+    private static class CountingText implements CharSequence {
+        private final String text;
+        long reads = 0;
+
+        CountingText(@NotNull String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            ++reads;
+            return text.charAt(index);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int start, int end) {
+            reads += end - start;
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return text;
+        }
+    }
+
+    private static class CountingBuilder extends PsiBuilderAdapter {
+        long calls = 0;
+
+        CountingBuilder(@NotNull PsiBuilder delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public @Nullable IElementType getTokenType() {
+            ++calls;
+            return super.getTokenType();
+        }
+
+        @Override
+        public @Nullable IElementType lookAhead(int steps) {
+            ++calls;
+            return super.lookAhead(steps);
+        }
+
+        @Override
+        public void advanceLexer() {
+            ++calls;
+            super.advanceLexer();
+        }
+
+        @Override
+        public boolean eof() {
+            ++calls;
+            return super.eof();
+        }
+
+        @Override
+        public int getCurrentOffset() {
+            ++calls;
+            return super.getCurrentOffset();
+        }
+
+        @Override
+        public @NotNull Marker mark() {
+            ++calls;
+            return super.mark();
+        }
+    }
+
+    private @NotNull ASTNode parse(@NotNull String text) {
+        PsiFile file = PsiFileFactory.getInstance(getProject()).createFileFromText(
+            "fuzz.schema", SchemaFileType.SCHEMA_FILE_TYPE, text);
+        ASTNode root = file.getNode();
+        root.getFirstChildNode();
+        return root;
+    }
+
+    private static ASTNode firstLeaf(@NotNull ASTNode node) {
+        while (node.getFirstChildNode() != null) {
+            node = node.getFirstChildNode();
+        }
+        return node;
+    }
+
+    private static ASTNode nextLeaf(@NotNull ASTNode node) {
+        while (node.getTreeNext() == null) {
+            node = node.getTreeParent();
+            if (node == null) {
+                return null;
+            }
+        }
+        return firstLeaf(node.getTreeNext());
+    }
+
+    private static @NotNull String stripWhitespace(@NotNull String text) {
+        return text.replaceAll("\\s+", "");
+    }
+
+    private static @NotNull String abbreviate(@NotNull String text) {
+        return text.length() <= 2000 ? text : text.substring(0, 2000) + "\n... (" + text.length() + " characters)";
+    }
+}
@@ -0,0 +1,227 @@
+package com.improbable.spatialos.schema.intellij.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a language server process, replays an edit session against it and reports latency per method. Requests are
+ * timed until their response arrives and document changes until the diagnostics for that document are published.
+ *
+ * Usage: SchemaLanguageServerReplayClient (session.jsonl | file.schema) server-command...
+ *
+ * A session file has one message per line: {"method": ..., "params": ...}, plus "id" for requests. Given a schema
+ * file instead, the client opens it and types a field definition into it one character at a time, asking for
+ * completion every few keystrokes and for the definition of the first data type in the file.
+ */
+public class SchemaLanguageServerReplayClient {
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final String TYPED_TEXT = "  list<int32> typed_field = 77;\n";
+
+    private final SchemaLspConnection connection;
+    private final Map<Integer, CompletableFuture<JsonObject>> responses = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<JsonObject>> diagnostics = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> latencies = new TreeMap<>();
+    private int nextId = 1;
+
+    private SchemaLanguageServerReplayClient(@NotNull Process server) {
+        this.connection = new SchemaLspConnection(server.getInputStream(), server.getOutputStream());
+        Thread reader = new Thread(this::readMessages, "schema-lsp-replay-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: SchemaLanguageServerReplayClient (session.jsonl | file.schema) command...");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        List<JsonObject> session = input.getName().endsWith(".jsonl") ? readSession(input) : createSession(input);
+        Process server = new ProcessBuilder(Arrays.asList(args).subList(1, args.length))
+            .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        SchemaLanguageServerReplayClient client = new SchemaLanguageServerReplayClient(server);
+        for (JsonObject message : session) {
+            client.send(message);
+        }
+        client.connection.sendRequest(client.nextId, "shutdown", new JsonObject());
+        client.connection.sendNotification("exit", new JsonObject());
+        server.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        client.report();
+    }
+
+    private void send(@NotNull JsonObject message) throws Exception {
+        String method = message.get("method").getAsString();
+        JsonObject params = message.has("params") ? message.getAsJsonObject("params") : new JsonObject();
+        long start = System.nanoTime();
+        if (message.has("id")) {
+            int id = nextId++;
+            CompletableFuture<JsonObject> response = new CompletableFuture<>();
+            responses.put(id, response);
+            connection.sendRequest(id, method, params);
+            response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } else if (params.has("textDocument") && (method.equals("textDocument/didOpen") ||
+                                                  method.equals("textDocument/didChange"))) {
+            String uri = params.getAsJsonObject("textDocument").get("uri").getAsString();
+            CompletableFuture<JsonObject> published = new CompletableFuture<>();
+            diagnostics.put(uri, published);
+            connection.sendNotification(method, params);
+            published.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } else {
+            connection.sendNotification(method, params);
+            return;
+        }
+        latencies.computeIfAbsent(method, key -> new ArrayList<>()).add(System.nanoTime() - start);
+    }
+
+    private void readMessages() {
+        try {
+            JsonObject message;
+            while ((message = connection.read()) != null) {
+                if (message.has("id") && !message.has("method")) {
+                    CompletableFuture<JsonObject> response = responses.remove(message.get("id").getAsInt());
+                    if (response != null) {
+                        response.complete(message);
+                    }
+                } else if (message.has("method") &&
+                           message.get("method").getAsString().equals("textDocument/publishDiagnostics")) {
+                    String uri = message.getAsJsonObject("params").get("uri").getAsString();
+                    CompletableFuture<JsonObject> published = diagnostics.remove(uri);
+                    if (published != null) {
+                        published.complete(message);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void report() {
+        System.out.printf("%-28s %6s %9s %9s %9s %9s%n", "method", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> values = entry.getValue();
+            Collections.sort(values);
+            System.out.printf("%-28s %6d %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), values.size(),
+                              percentile(values, 50), percentile(values, 90), percentile(values, 99),
+                              percentile(values, 100));
+        }
+    }
+
+    private static double percentile(@NotNull List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index))) / 1e6;
+    }
+
+    private static @NotNull List<JsonObject> readSession(@NotNull File file) throws IOException {
+        List<JsonObject> session = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                session.add(new JsonParser().parse(line).getAsJsonObject());
+            }
+        }
+        return session;
+    }
+
+    private static @NotNull List<JsonObject> createSession(@NotNull File file) throws IOException {
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        String uri = file.getAbsoluteFile().toURI().toString();
+        List<JsonObject> session = new ArrayList<>();
+        JsonObject initialize = message("initialize", new JsonObject());
+        initialize.addProperty("id", 0);
+        session.add(initialize);
+        session.add(message("initialized", new JsonObject()));
+
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+        document.addProperty("languageId", "spatialos-schema");
+        document.addProperty("version", 1);
+        document.addProperty("text", text);
+        JsonObject open = new JsonObject();
+        open.add("textDocument", document);
+        session.add(message("textDocument/didOpen", open));
+
+        int dataType = text.indexOf("data ");
+        int[] definitionPosition = dataType < 0 ? null : toPosition(text, dataType + "data ".length() + 1);
+        int line = Math.max(1, toPosition(text, text.lastIndexOf("\n  ", text.length() / 2) + 1)[0]);
+        for (int i = 0; i < TYPED_TEXT.length(); ++i) {
+            JsonObject change = new JsonObject();
+            change.add("range", range(line, i, line, i));
+            change.addProperty("text", String.valueOf(TYPED_TEXT.charAt(i)));
+            JsonArray changes = new JsonArray();
+            changes.add(change);
+            JsonObject versioned = new JsonObject();
+            versioned.addProperty("uri", uri);
+            versioned.addProperty("version", i + 2);
+            JsonObject params = new JsonObject();
+            params.add("textDocument", versioned);
+            params.add("contentChanges", changes);
+            session.add(message("textDocument/didChange", params));
+
+            if (i % 4 == 3) {
+                session.add(request("textDocument/completion", uri, line, i + 1));
+            }
+            if (i % 8 == 7 && i < TYPED_TEXT.length() - 1 && definitionPosition != null) {
+                // Everything typed so far is on the typing line, so only positions on that line have moved.
+                int[] target = definitionPosition[0] == line ?
+                    new int[]{line, definitionPosition[1] + i + 1} : definitionPosition;
+                session.add(request("textDocument/definition", uri, target[0], target[1]));
+            }
+        }
+        return session;
+    }
+
+    private static @NotNull JsonObject message(@NotNull String method, @NotNull JsonObject params) {
+        JsonObject message = new JsonObject();
+        message.addProperty("method", method);
+        message.add("params", params);
+        return message;
+    }
+
+    private static @NotNull JsonObject request(@NotNull String method, @NotNull String uri, int line, int character) {
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+        JsonObject params = new JsonObject();
+        params.add("textDocument", document);
+        params.add("position", position(line, character));
+        JsonObject request = message(method, params);
+        request.addProperty("id", 0);
+        return request;
+    }
+
+    private static @NotNull JsonObject range(int startLine, int startCharacter, int endLine, int endCharacter) {
+        JsonObject range = new JsonObject();
+        range.add("start", position(startLine, startCharacter));
+        range.add("end", position(endLine, endCharacter));
+        return range;
+    }
+
+    private static @NotNull JsonObject position(int line, int character) {
+        JsonObject position = new JsonObject();
+        position.addProperty("line", line);
+        position.addProperty("character", character);
+        return position;
+    }
+
+    private static @NotNull int[] toPosition(@NotNull String text, int offset) {
+        int line = 0;
+        int lineStart = 0;
+        for (int i = 0; i < offset; ++i) {
+            if (text.charAt(i) == '\n') {
+                ++line;
+                lineStart = i + 1;
+            }
+        }
+        return new int[]{line, offset - lineStart};
+    }
+}
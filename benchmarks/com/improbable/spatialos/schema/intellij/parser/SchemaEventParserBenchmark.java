@@ -0,0 +1,57 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.fuzz.SchemaCorpusGenerator;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.lsp.SchemaWorkspace;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+/**
+ * Compares the event parser with building the lean tree on a large generated corpus, both on their own and when
+ * summarising the file, which is what bulk tools do with either. Before timing anything, the summaries built both
+ * ways are checked to be equal on the corpus and on mutated copies of it, since the two share one grammar.
+ */
+public class SchemaEventParserBenchmark extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int DEFINITIONS = 20000;
+    private static final int MUTATED_FILES = 200;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    public void testEventsAgainstTree() {
+        SchemaCorpusGenerator generator = new SchemaCorpusGenerator(42);
+        String text = generator.generateValid(DEFINITIONS);
+        assertEquals(SchemaSummaryBuilder.build(SchemaWorkspace.parse(text)), SchemaSummaryBuilder.build(text));
+        String small = generator.generateValid(50);
+        for (int i = 0; i < MUTATED_FILES; ++i) {
+            String mutated = generator.mutate(small, 1 + i % 20);
+            assertEquals("mutated file " + i, SchemaSummaryBuilder.build(SchemaWorkspace.parse(mutated)),
+                         SchemaSummaryBuilder.build(mutated));
+        }
+
+        SchemaEventParser.Listener ignore = new SchemaEventParser.Adapter();
+        System.out.printf("%d characters, %d definitions%n", text.length(), DEFINITIONS);
+        report("tree:            ", text, SchemaWorkspace::parse);
+        report("events:          ", text, t -> SchemaEventParser.parse(t, ignore));
+        report("tree summary:    ", text, t -> SchemaSummaryBuilder.build(SchemaWorkspace.parse(t)));
+        report("events summary:  ", text, SchemaSummaryBuilder::build);
+    }
+
+    private static void report(@NotNull String label, @NotNull String text, @NotNull Consumer<String> parse) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; ++i) {
+            parse.accept(text);
+        }
+        long startBytes = threads.getThreadAllocatedBytes(thread);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            parse.accept(text);
+        }
+        long nanos = (System.nanoTime() - startNanos) / ITERATIONS;
+        long bytes = (threads.getThreadAllocatedBytes(thread) - startBytes) / ITERATIONS;
+        System.out.printf("%s%,14d B/op  %8.2f ms/op%n", label, bytes, nanos / 1e6);
+    }
+}
@@ -0,0 +1,78 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.fuzz.SchemaCorpusGenerator;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lang.PsiParser;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per parse of a valid file, in the way the JMH gc profiler reports them. The baseline
+ * drives the same PsiBuilder over every token without the grammar, so the difference is what the parser itself
+ * allocates on top of token and tree construction. {@link SchemaStringBuildingParser} is the parser from before it
+ * stopped building strings and builds the same full tree, so comparing it with the full-tree parser shows what that
+ * change saved; the lean-tree parser is what the IDE runs.
+ */
+public class SchemaParserAllocationBenchmark extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int DEFINITIONS = 2000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    public void testAllocationPerParse() {
+        String text = new SchemaCorpusGenerator(42).generateValid(DEFINITIONS);
+        PsiParser before = new SchemaStringBuildingParser();
+        PsiParser after = new SchemaParser(false);
+        assertEquals(DebugUtil.treeToString(parse(before, text), false),
+                     DebugUtil.treeToString(parse(after, text), false));
+
+        System.out.printf("%d characters, %d definitions%n", text.length(), DEFINITIONS);
+        long baselineBytes = report("builder baseline:  ", () -> baseline(text));
+        long beforeBytes = report("before, full tree: ", () -> parse(before, text));
+        long afterBytes = report("after, full tree:  ", () -> parse(after, text));
+        long leanBytes = report("after, lean tree:  ", () -> parse(SchemaParser.SCHEMA_PARSER, text));
+        System.out.printf("parser overhead before: %,12d B/op%n", beforeBytes - baselineBytes);
+        System.out.printf("parser overhead after:  %,12d B/op%n", afterBytes - baselineBytes);
+        System.out.printf("saved per parse:        %,12d B/op (%,d B/op with the lean tree)%n",
+                          beforeBytes - afterBytes, beforeBytes - leanBytes);
+    }
+
+    private static long report(@NotNull String label, @NotNull Runnable parse) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; ++i) {
+            parse.run();
+        }
+        long startBytes = threads.getThreadAllocatedBytes(thread);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            parse.run();
+        }
+        long nanos = (System.nanoTime() - startNanos) / ITERATIONS;
+        long bytes = (threads.getThreadAllocatedBytes(thread) - startBytes) / ITERATIONS;
+        System.out.printf("%s%,12d B/op  %8.2f ms/op%n", label, bytes, nanos / 1e6);
+        return bytes;
+    }
+
+    private static @NotNull PsiBuilder createBuilder(@NotNull String text) {
+        return PsiBuilderFactory.getInstance().createBuilder(new SchemaParserDefinition(), new SchemaLexer(), text);
+    }
+
+    private static void baseline(@NotNull String text) {
+        PsiBuilder builder = createBuilder(text);
+        PsiBuilder.Marker marker = builder.mark();
+        while (!builder.eof()) {
+            builder.advanceLexer();
+        }
+        marker.done(SchemaParser.SCHEMA_FILE);
+        builder.getTreeBuilt();
+    }
+
+    private static @NotNull ASTNode parse(@NotNull PsiParser parser, @NotNull String text) {
+        return parser.parse(SchemaParser.SCHEMA_FILE, createBuilder(text));
+    }
+}
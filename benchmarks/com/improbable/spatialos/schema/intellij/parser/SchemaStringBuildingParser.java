@@ -0,0 +1,521 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiParser;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A copy of the parser as it was before it stopped building strings on the success path, kept so that
+ * {@link SchemaParserAllocationBenchmark} can measure both on the same input. It builds the same full tree as
+ * {@code new SchemaParser(false)}, but captures every name, type name and number it reads for its error messages.
+ */
+class SchemaStringBuildingParser implements PsiParser {
+    @Override
+    public @NotNull ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+        new Instance(builder).parseSchemaFile(root);
+        return builder.getTreeBuilt();
+    }
+
+    private static class Instance {
+        private PsiBuilder builder;
+        private enum Construct {
+            STATEMENT,
+            BRACES,
+            TOP_LEVEL,
+        }
+
+        public Instance(@NotNull PsiBuilder builder) {
+            this.builder = builder;
+        }
+
+        private void error(@Nullable PsiBuilder.Marker marker, IElementType elementType, Construct construct,
+                           String s, Object... args) {
+            if (marker != null) {
+                marker.done(elementType);
+            }
+            String errorMessage = String.format(s, args);
+            PsiBuilder.Marker errorMarker = builder.mark();
+
+            while (builder.getTokenType() != null && !builder.eof()) {
+                if ((construct == Construct.STATEMENT || construct == Construct.TOP_LEVEL) &&
+                    isToken(SchemaLexer.SEMICOLON)) {
+                    errorMarker.error(errorMessage);
+                    builder.advanceLexer();
+                    return;
+                }
+                if ((construct == Construct.BRACES || construct == Construct.TOP_LEVEL) &&
+                    isToken(SchemaLexer.RBRACE)) {
+                    errorMarker.error(errorMessage);
+                    builder.advanceLexer();
+                    return;
+                }
+                if (construct == Construct.STATEMENT && isToken(SchemaLexer.RBRACE)) {
+                    errorMarker.error(errorMessage);
+                    return;
+                }
+                builder.advanceLexer();
+            }
+            errorMarker.error(errorMessage);
+        }
+
+        private String getTokenText() {
+            return builder.getTokenText() == null ? "<EOF>" : builder.getTokenText();
+        }
+
+        private String getIdentifier() {
+            return builder.getTokenText() == null ? "" : builder.getTokenText();
+        }
+
+        private int getInteger() {
+            if (builder.getTokenText() == null) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(builder.getTokenText());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private String getString() {
+            String text = builder.getTokenText();
+            return text == null ? "" : text.substring(1, text.length() - 2);
+        }
+
+        private boolean isToken(IElementType token) {
+            return builder.getTokenType() == token;
+        }
+
+        private boolean isIdentifier(@NotNull String identifier) {
+            return builder.getTokenType() == SchemaLexer.IDENTIFIER &&
+                    builder.getTokenText() != null && builder.getTokenText().equals(identifier);
+        }
+
+        private void consumeTokenAs(@Nullable IElementType nodeType) {
+            PsiBuilder.Marker marker = nodeType == null ? null : builder.mark();
+            builder.advanceLexer();
+            if (marker != null) {
+                marker.done(nodeType);
+            }
+        }
+
+        private void parsePackageDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.PACKAGE_DEFINITION, Construct.STATEMENT,
+                      "Expected a package name after '%s'.", SchemaParser.KEYWORD_PACKAGE);
+                return;
+            }
+            consumeTokenAs(SchemaParser.PACKAGE_NAME);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.PACKAGE_DEFINITION, Construct.STATEMENT,
+                      "Expected ';' after %s definition.", SchemaParser.KEYWORD_PACKAGE);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.PACKAGE_DEFINITION);
+        }
+
+        private void parseImportDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.STRING)) {
+                error(marker, SchemaParser.IMPORT_DEFINITION, Construct.STATEMENT,
+                      "Expected a quoted filename after '%s'.", SchemaParser.KEYWORD_IMPORT);
+                return;
+            }
+            String filename = getString();
+            consumeTokenAs(SchemaParser.IMPORT_FILENAME);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.IMPORT_DEFINITION, Construct.STATEMENT,
+                      "Expected ';' after '%s \"%s\"'.", SchemaParser.KEYWORD_IMPORT, filename);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.IMPORT_DEFINITION);
+        }
+
+        private void parseOptionDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.OPTION_DEFINITION, Construct.STATEMENT,
+                      "Expected identifier after '%s'.", SchemaParser.KEYWORD_OPTION);
+                return;
+            }
+            String name = getIdentifier();
+            consumeTokenAs(SchemaParser.OPTION_NAME);
+            if (!isToken(SchemaLexer.EQUALS)) {
+                error(marker, SchemaParser.OPTION_DEFINITION, Construct.STATEMENT,
+                      "Expected '=' after '%s %s'.", SchemaParser.KEYWORD_OPTION, name);
+                return;
+            }
+            consumeTokenAs(null);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.OPTION_DEFINITION, Construct.STATEMENT,
+                      "Expected option value after '%s %s = '.", SchemaParser.KEYWORD_OPTION, name);
+                return;
+            }
+            String value = getIdentifier();
+            consumeTokenAs(SchemaParser.OPTION_VALUE);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.OPTION_DEFINITION, Construct.STATEMENT,
+                      "Expected ';' after '%s %s = %s'.", SchemaParser.KEYWORD_OPTION, name, value);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.OPTION_DEFINITION);
+        }
+
+        private @Nullable String parseTypeName(@NotNull PsiBuilder.Marker marker) {
+            PsiBuilder.Marker typeMarker = builder.mark();
+            String name = getIdentifier();
+            consumeTokenAs(SchemaParser.TYPE_NAME);
+            if (!isToken(SchemaLexer.LANGLE)) {
+                typeMarker.done(SchemaParser.FIELD_TYPE);
+                return name;
+            }
+            name = name + '<';
+            consumeTokenAs(null);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                typeMarker.drop();
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected typename after '%s'.", name);
+                return null;
+            }
+            name = name + getIdentifier();
+            consumeTokenAs(SchemaParser.TYPE_PARAMETER_NAME);
+            while (true) {
+                if (isToken(SchemaLexer.RANGLE)) {
+                    name = name + '>';
+                    consumeTokenAs(null);
+                    typeMarker.done(SchemaParser.FIELD_TYPE);
+                    return name;
+                }
+                if (isToken(SchemaLexer.COMMA)) {
+                    name = name + ", ";
+                    consumeTokenAs(null);
+                    if (!isToken(SchemaLexer.IDENTIFIER)) {
+                        typeMarker.drop();
+                        error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                              "Expected typename after ','.");
+                        return null;
+                    }
+                    name = name + getIdentifier();
+                    consumeTokenAs(SchemaParser.TYPE_PARAMETER_NAME);
+                    continue;
+                }
+                typeMarker.drop();
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Invalid '%s' inside <>.", getTokenText());
+                return null;
+            }
+        }
+
+        private void parseFieldDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            String typeName = parseTypeName(marker);
+            if (typeName == null) {
+                return;
+            }
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected field name after '%s'.", typeName);
+                return;
+            }
+            String fieldName = getIdentifier();
+            consumeTokenAs(SchemaParser.FIELD_NAME);
+            if (!isToken(SchemaLexer.EQUALS)) {
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected '=' after '%s %s'.", typeName, fieldName);
+                return;
+            }
+            consumeTokenAs(null);
+            if (!isToken(SchemaLexer.INTEGER)) {
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected field number after '%s %s = '.", typeName, fieldName);
+                return;
+            }
+            int fieldNumber = getInteger();
+            consumeTokenAs(SchemaParser.FIELD_NUMBER);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected ';' after '%s %s = %d'.", typeName, fieldName, fieldNumber);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.FIELD_DEFINITION);
+        }
+
+        private void parseEnumContents() {
+            while (isToken(SchemaLexer.IDENTIFIER)) {
+                PsiBuilder.Marker marker = builder.mark();
+                String name = getIdentifier();
+                consumeTokenAs(SchemaParser.FIELD_NAME);
+                if (!isToken(SchemaLexer.EQUALS)) {
+                    error(marker, SchemaParser.ENUM_VALUE_DEFINITION, Construct.STATEMENT,
+                          "Expected '=' after '%s'.", name);
+                    continue;
+                }
+                consumeTokenAs(null);
+                if (!isToken(SchemaLexer.INTEGER)) {
+                    error(marker, SchemaParser.ENUM_VALUE_DEFINITION, Construct.STATEMENT,
+                          "Expected integer enum value after '%s = '.", name);
+                    continue;
+                }
+                int value = getInteger();
+                consumeTokenAs(SchemaParser.FIELD_NUMBER);
+                if (!isToken(SchemaLexer.SEMICOLON)) {
+                    error(marker, SchemaParser.ENUM_VALUE_DEFINITION, Construct.STATEMENT,
+                          "Expected ';' after '%s = %d'.", name, value);
+                    continue;
+                }
+                consumeTokenAs(null);
+                marker.done(SchemaParser.ENUM_VALUE_DEFINITION);
+            }
+        }
+
+        private void parseTypeContents() {
+            while (true) {
+                if (isIdentifier(SchemaParser.KEYWORD_OPTION)) {
+                    PsiBuilder.Marker marker = builder.mark();
+                    builder.advanceLexer();
+                    boolean lookaheadIsOption = !isToken(SchemaLexer.LANGLE);
+                    marker.rollbackTo();
+                    if (lookaheadIsOption) {
+                        parseOptionDefinition();
+                        continue;
+                    }
+                }
+                if (isIdentifier(SchemaParser.KEYWORD_ENUM)) {
+                    parseEnumDefinition();
+                    continue;
+                }
+                if (isIdentifier(SchemaParser.KEYWORD_TYPE)) {
+                    parseTypeDefinition();
+                    continue;
+                }
+                if (isToken(SchemaLexer.IDENTIFIER)) {
+                    parseFieldDefinition();
+                    continue;
+                }
+                return;
+            }
+        }
+
+        private void parseComponentIdDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.EQUALS)) {
+                error(marker, SchemaParser.COMPONENT_ID_DEFINITION, Construct.STATEMENT,
+                      "Expected '=' after '%s'.", SchemaParser.KEYWORD_ID);
+                return;
+            }
+            consumeTokenAs(null);
+            if (!isToken(SchemaLexer.INTEGER)) {
+                error(marker, SchemaParser.COMPONENT_ID_DEFINITION, Construct.STATEMENT,
+                      "Expected integer ID value after '%s = '.", SchemaParser.KEYWORD_ID);
+                return;
+            }
+            int value = getInteger();
+            consumeTokenAs(SchemaParser.FIELD_NUMBER);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.COMPONENT_ID_DEFINITION, Construct.STATEMENT,
+                      "Expected ';' after '%s = %d'.", SchemaParser.KEYWORD_ID, value);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.COMPONENT_ID_DEFINITION);
+        }
+
+        private void parseDataDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.DATA_DEFINITION, Construct.STATEMENT,
+                      "Expected typename after '%s'.", SchemaParser.KEYWORD_DATA);
+                return;
+            }
+            String typeName = parseTypeName(marker);
+            if (typeName == null) {
+                return;
+            }
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.DATA_DEFINITION, Construct.STATEMENT,
+                        "Expected ';' after '%s %s'.", SchemaParser.KEYWORD_DATA, typeName);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.DATA_DEFINITION);
+        }
+
+        private void parseEventDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.EVENT_DEFINITION, Construct.STATEMENT,
+                      "Expected typename after '%s'.", SchemaParser.KEYWORD_EVENT);
+                return;
+            }
+            String typeName = parseTypeName(marker);
+            if (typeName == null) {
+                return;
+            }
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.EVENT_DEFINITION, Construct.STATEMENT,
+                      "Expected field name after '%s %s'.", SchemaParser.KEYWORD_EVENT, typeName);
+                return;
+            }
+            String fieldName = getIdentifier();
+            consumeTokenAs(SchemaParser.FIELD_NAME);
+            if (!isToken(SchemaLexer.SEMICOLON)) {
+                error(marker, SchemaParser.EVENT_DEFINITION, Construct.STATEMENT,
+                        "Expected ';' after '%s %s %s'.", SchemaParser.KEYWORD_EVENT, typeName, fieldName);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.EVENT_DEFINITION);
+        }
+
+        private void parseComponentContents() {
+            while (true) {
+                if (isIdentifier(SchemaParser.KEYWORD_OPTION)) {
+                    PsiBuilder.Marker marker = builder.mark();
+                    builder.advanceLexer();
+                    boolean lookaheadIsOption = !isToken(SchemaLexer.LANGLE);
+                    marker.rollbackTo();
+                    if (lookaheadIsOption) {
+                        parseOptionDefinition();
+                        continue;
+                    }
+                }
+                if (isIdentifier(SchemaParser.KEYWORD_ID)) {
+                    parseComponentIdDefinition();
+                    continue;
+                }
+                if (isIdentifier(SchemaParser.KEYWORD_DATA)) {
+                    parseDataDefinition();
+                    continue;
+                }
+                if (isIdentifier(SchemaParser.KEYWORD_EVENT)) {
+                    parseEventDefinition();
+                    continue;
+                }
+                if (isToken(SchemaLexer.IDENTIFIER)) {
+                    parseFieldDefinition();
+                    continue;
+                }
+                return;
+            }
+        }
+
+        private void parseEnumDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.ENUM_DEFINITION, Construct.BRACES,
+                      "Expected identifier after '%s'.", SchemaParser.KEYWORD_ENUM);
+                return;
+            }
+            String name = getIdentifier();
+            consumeTokenAs(SchemaParser.DEFINITION_NAME);
+            if (!isToken(SchemaLexer.LBRACE)) {
+                error(marker, SchemaParser.ENUM_DEFINITION, Construct.BRACES,
+                      "Expected '{' after '%s %s'.", SchemaParser.KEYWORD_ENUM, name);
+                return;
+            }
+            consumeTokenAs(null);
+            parseEnumContents();
+            if (!isToken(SchemaLexer.RBRACE)) {
+                error(marker, SchemaParser.ENUM_DEFINITION, Construct.BRACES,
+                      "Invalid '%s' inside %s %s.", getTokenText(), SchemaParser.KEYWORD_ENUM, name);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.ENUM_DEFINITION);
+        }
+
+        private void parseTypeDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.TYPE_DEFINITION, Construct.BRACES,
+                      "Expected identifier after '%s'.", SchemaParser.KEYWORD_TYPE);
+                return;
+            }
+            String name = getIdentifier();
+            consumeTokenAs(SchemaParser.DEFINITION_NAME);
+            if (!isToken(SchemaLexer.LBRACE)) {
+                error(marker, SchemaParser.TYPE_DEFINITION, Construct.BRACES,
+                      "Expected '{' after '%s %s'.", SchemaParser.KEYWORD_TYPE, name);
+                return;
+            }
+            consumeTokenAs(null);
+            parseTypeContents();
+            if (!isToken(SchemaLexer.RBRACE)) {
+                error(marker, SchemaParser.TYPE_DEFINITION, Construct.BRACES,
+                      "Invalid '%s' inside %s %s.", getTokenText(), SchemaParser.KEYWORD_TYPE, name);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.TYPE_DEFINITION);
+        }
+
+        private void parseComponentDefinition() {
+            PsiBuilder.Marker marker = builder.mark();
+            consumeTokenAs(SchemaParser.KEYWORD);
+            if (!isToken(SchemaLexer.IDENTIFIER)) {
+                error(marker, SchemaParser.COMPONENT_DEFINITION, Construct.BRACES,
+                      "Expected identifier after '%s'.", SchemaParser.KEYWORD_COMPONENT);
+                return;
+            }
+            String name = getIdentifier();
+            consumeTokenAs(SchemaParser.DEFINITION_NAME);
+            if (!isToken(SchemaLexer.LBRACE)) {
+                error(marker, SchemaParser.COMPONENT_DEFINITION, Construct.BRACES,
+                      "Expected '{' after '%s %s'.", SchemaParser.KEYWORD_COMPONENT, name);
+                return;
+            }
+            consumeTokenAs(null);
+            parseComponentContents();
+            if (!isToken(SchemaLexer.RBRACE)) {
+                error(marker, SchemaParser.COMPONENT_DEFINITION, Construct.BRACES,
+                      "Invalid '%s' inside %s %s.", getTokenText(), SchemaParser.KEYWORD_COMPONENT, name);
+                return;
+            }
+            consumeTokenAs(null);
+            marker.done(SchemaParser.COMPONENT_DEFINITION);
+        }
+
+        private void parseTopLevelDefinition() {
+            if (isIdentifier(SchemaParser.KEYWORD_PACKAGE)) {
+                parsePackageDefinition();
+            } else if (isIdentifier(SchemaParser.KEYWORD_IMPORT)) {
+                parseImportDefinition();
+            } else if (isIdentifier(SchemaParser.KEYWORD_ENUM)) {
+                parseEnumDefinition();
+            } else if (isIdentifier(SchemaParser.KEYWORD_TYPE)) {
+                parseTypeDefinition();
+            } else if (isIdentifier(SchemaParser.KEYWORD_COMPONENT)) {
+                parseComponentDefinition();
+            } else {
+                error(null, null, Construct.TOP_LEVEL,
+                      "Expected '%s', '%s', '%s', '%s' or '%s' definition at top-level.",
+                      SchemaParser.KEYWORD_PACKAGE, SchemaParser.KEYWORD_IMPORT, SchemaParser.KEYWORD_ENUM,
+                      SchemaParser.KEYWORD_TYPE, SchemaParser.KEYWORD_COMPONENT);
+            }
+        }
+
+        public void parseSchemaFile(@NotNull IElementType root) {
+            PsiBuilder.Marker marker = builder.mark();
+            while (builder.getTokenType() != null && !builder.eof()) {
+                parseTopLevelDefinition();
+            }
+            marker.done(root);
+        }
+    }
+}
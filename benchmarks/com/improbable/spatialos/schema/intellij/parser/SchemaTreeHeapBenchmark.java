@@ -0,0 +1,84 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.fuzz.SchemaCorpusGenerator;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the heap retained by parsed trees per 1k lines of schema, for the full tree and the lean tree that the
+ * plugin builds. Several copies of each tree are kept alive and the used heap is compared after forcing a GC, so the
+ * numbers cover the AST nodes but not the source text, which both shapes share. The heap figures are only reported;
+ * the test asserts on node counts, which do not depend on the garbage collector.
+ */
+public class SchemaTreeHeapBenchmark extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int DEFINITIONS = 2000;
+    private static final int COPIES = 10;
+
+    public void testRetainedHeapPerThousandLines() {
+        String text = new SchemaCorpusGenerator(42).generateValid(DEFINITIONS);
+        int lines = countLines(text);
+        long full = measure(new SchemaParser(false), text);
+        long lean = measure(SchemaParser.SCHEMA_PARSER, text);
+        int fullNodes = countNodes(parse(new SchemaParser(false), text));
+        int leanNodes = countNodes(parse(SchemaParser.SCHEMA_PARSER, text));
+
+        System.out.printf("%d characters, %d lines%n", text.length(), lines);
+        System.out.printf("full tree: %6d nodes/1k lines  %,12d B/1k lines%n",
+                          fullNodes * 1000L / lines, full * 1000 / lines);
+        System.out.printf("lean tree: %6d nodes/1k lines  %,12d B/1k lines%n",
+                          leanNodes * 1000L / lines, lean * 1000 / lines);
+        System.out.printf("saved:     %5.1f%%%n", 100.0 * (full - lean) / full);
+        // The heap figures depend on the collector, so only the node counts are asserted on.
+        assertTrue("lean tree should have fewer nodes than the full tree", leanNodes < fullNodes);
+    }
+
+    /**
+     * Returns the bytes retained by one tree.
+     */
+    private static long measure(@NotNull SchemaParser parser, @NotNull String text) {
+        List<ASTNode> trees = new ArrayList<>();
+        long before = usedHeap();
+        for (int i = 0; i < COPIES; ++i) {
+            trees.add(parse(parser, text));
+        }
+        long after = usedHeap();
+        assertEquals(COPIES, trees.size());
+        return (after - before) / COPIES;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static @NotNull ASTNode parse(@NotNull SchemaParser parser, @NotNull String text) {
+        return parser.parse(SchemaParser.SCHEMA_FILE, PsiBuilderFactory.getInstance().createBuilder(
+            new SchemaParserDefinition(), new SchemaLexer(), text));
+    }
+
+    private static int countNodes(@NotNull ASTNode node) {
+        int count = 1;
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static int countLines(@NotNull String text) {
+        int lines = 1;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n') {
+                ++lines;
+            }
+        }
+        return lines;
+    }
+}
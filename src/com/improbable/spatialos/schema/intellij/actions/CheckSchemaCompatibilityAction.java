@@ -0,0 +1,95 @@
+package com.improbable.spatialos.schema.intellij.actions;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.improbable.spatialos.schema.intellij.compat.SchemaBaseline;
+import com.improbable.spatialos.schema.intellij.compat.SchemaCompatibilityChecker;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+public class CheckSchemaCompatibilityAction extends AnAction {
+    private static final int MAX_LISTED_CHANGES = 50;
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getData(CommonDataKeys.PROJECT);
+        if (project == null) {
+            return;
+        }
+        String spec = Messages.showInputDialog(project, "Schema bundle file or git revision to compare against:",
+                                               "Check Schema Compatibility", null, "HEAD", null);
+        if (spec == null || spec.trim().isEmpty()) {
+            return;
+        }
+        SchemaBaseline baseline = SchemaCompatibilityChecker.createBaseline(project, spec.trim());
+        FileDocumentManager.getInstance().saveAllDocuments();
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Checking schema compatibility", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                try {
+                    SchemaCompatibilityChecker.Result result = SchemaCompatibilityChecker.check(
+                        SchemaSummaryCache.getInstance(project).getAllSummaries(), baseline, indicator);
+                    notify(project, baseline, result);
+                } catch (IOException e) {
+                    Notifications.Bus.notify(new Notification("SpatialOS Schema", "Schema compatibility",
+                                                              e.getMessage(), NotificationType.ERROR), project);
+                }
+            }
+        });
+    }
+
+    private static void notify(@NotNull Project project, @NotNull SchemaBaseline baseline,
+                               @NotNull SchemaCompatibilityChecker.Result result) {
+        List<SchemaCompatibilityChecker.Change> changes = result.changes;
+        if (changes.isEmpty()) {
+            Notifications.Bus.notify(new Notification(
+                "SpatialOS Schema", "Schema compatibility", "No incompatible changes against " +
+                StringUtil.escapeXml(baseline.getDescription()) + ".", NotificationType.INFORMATION), project);
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        content.append(changes.size()).append(" changes against ").append(StringUtil.escapeXml(
+            baseline.getDescription())).append(':');
+        for (int i = 0; i < changes.size() && i < MAX_LISTED_CHANGES; ++i) {
+            SchemaCompatibilityChecker.Change change = changes.get(i);
+            content.append("<br>").append(change.severity == SchemaProblem.Severity.ERROR ? "Error: " : "Warning: ");
+            String message = StringUtil.escapeXml(change.message);
+            content.append(change.file == null ? message : "<a href=\"" + i + "\">" + message + "</a>");
+        }
+        if (changes.size() > MAX_LISTED_CHANGES) {
+            content.append("<br>and ").append(changes.size() - MAX_LISTED_CHANGES).append(" more.");
+        }
+        NotificationType type = result.hasErrors() ? NotificationType.ERROR : NotificationType.WARNING;
+        Notifications.Bus.notify(new Notification(
+            "SpatialOS Schema", "Schema compatibility", content.toString(), type,
+            (notification, hyperlinkEvent) -> {
+                SchemaCompatibilityChecker.Change change =
+                    changes.get(Integer.parseInt(hyperlinkEvent.getDescription()));
+                if (change.file != null && change.file.isValid()) {
+                    new OpenFileDescriptor(project, change.file, change.offset).navigate(true);
+                }
+            }), project);
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabled(event.getData(CommonDataKeys.PROJECT) != null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.improbable.spatialos.schema.intellij.actions;
+
+import com.improbable.spatialos.schema.intellij.bundle.SchemaBundleWriter;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class ExportSchemaBundleAction extends AnAction {
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getData(CommonDataKeys.PROJECT);
+        if (project == null) {
+            return;
+        }
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(
+            new FileSaverDescriptor("Export Schema Bundle", "Write all schema definitions to a binary bundle.",
+                                    "schemabundle"),
+            project).save(null, project.getName() + ".schemabundle");
+        if (target == null) {
+            return;
+        }
+        File file = target.getFile();
+        FileDocumentManager.getInstance().saveAllDocuments();
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Exporting schema bundle", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+                    SchemaBundleWriter.write(SchemaSummaryCache.getInstance(project).getAllSummaries().values(),
+                                             output);
+                } catch (IOException e) {
+                    Notifications.Bus.notify(new Notification("SpatialOS Schema", "Schema bundle export",
+                                                              e.getMessage(), NotificationType.ERROR), project);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabled(event.getData(CommonDataKeys.PROJECT) != null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.improbable.spatialos.schema.intellij.actions;
+
+import com.improbable.spatialos.schema.intellij.codegen.SchemaCodeGenerationService;
+import com.improbable.spatialos.schema.intellij.codegen.SchemaCodeGenerator;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+public class GenerateSchemaCodeAction extends AnAction {
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getData(CommonDataKeys.PROJECT);
+        if (project == null) {
+            return;
+        }
+        FileDocumentManager.getInstance().saveAllDocuments();
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Generating code from schema", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                try {
+                    long start = System.nanoTime();
+                    SchemaCodeGenerator.Result result = SchemaCodeGenerationService.getInstance(project).generate();
+                    notify(project, NotificationType.INFORMATION, String.format(
+                        "Generated %d, unchanged %d, deleted %d in %d ms.", result.generated, result.unchanged,
+                        result.deleted, (System.nanoTime() - start) / 1000000));
+                } catch (IOException e) {
+                    notify(project, NotificationType.ERROR, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabled(event.getData(CommonDataKeys.PROJECT) != null);
+    }
+
+    private static void notify(@NotNull Project project, @NotNull NotificationType type, String message) {
+        Notifications.Bus.notify(new Notification("SpatialOS Schema", "Schema code generation", message, type),
+                                 project);
+    }
+}
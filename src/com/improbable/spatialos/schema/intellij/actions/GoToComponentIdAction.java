@@ -0,0 +1,78 @@
+package com.improbable.spatialos.schema.intellij.actions;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaComponentIdIndex;
+import com.improbable.spatialos.schema.intellij.navigation.SchemaComponentIdContributor;
+import com.improbable.spatialos.schema.intellij.navigation.SchemaComponentNavigationItem;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.InputValidator;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.ui.popup.PopupStep;
+import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GoToComponentIdAction extends AnAction {
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getData(CommonDataKeys.PROJECT);
+        if (project == null) {
+            return;
+        }
+        if (DumbService.isDumb(project)) {
+            DumbService.getInstance(project).showDumbModeNotification(
+                "Component IDs are not available while indexing.");
+            return;
+        }
+        String text = Messages.showInputDialog(project, "Component ID:", "Go to Component", null, null,
+                                               new InputValidator() {
+            @Override
+            public boolean checkInput(String input) {
+                return SchemaComponentIdContributor.parseComponentId(input) >= 0;
+            }
+
+            @Override
+            public boolean canClose(String input) {
+                return checkInput(input);
+            }
+        });
+        if (text == null) {
+            return;
+        }
+        int componentId = SchemaComponentIdContributor.parseComponentId(text);
+        List<SchemaComponentNavigationItem> items = new ArrayList<>();
+        for (SchemaComponentIdIndex.Match match : SchemaComponentIdIndex.find(project, componentId)) {
+            items.add(new SchemaComponentNavigationItem(project, componentId, match));
+        }
+        if (items.isEmpty()) {
+            Messages.showInfoMessage(project, "No component has ID " + componentId + ".", "Go to Component");
+        } else if (items.size() == 1) {
+            items.get(0).navigate(true);
+        } else {
+            JBPopupFactory.getInstance().createListPopup(
+                new BaseListPopupStep<SchemaComponentNavigationItem>("Components with ID " + componentId, items) {
+                    @Override
+                    public @NotNull String getTextFor(SchemaComponentNavigationItem item) {
+                        return item.getPresentableText() + " " + item.getLocationString();
+                    }
+
+                    @Override
+                    public PopupStep onChosen(SchemaComponentNavigationItem item, boolean finalChoice) {
+                        item.navigate(true);
+                        return FINAL_CHOICE;
+                    }
+                }).showCenteredInCurrentWindow(project);
+        }
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabled(event.getData(CommonDataKeys.PROJECT) != null);
+    }
+}
@@ -0,0 +1,179 @@
+package com.improbable.spatialos.schema.intellij.actions;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaFiles;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.refactoring.SchemaImports;
+import com.improbable.spatialos.schema.intellij.refactoring.SchemaTextEdits;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.ReadonlyStatusHandler;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Optimizes the imports of every schema file in the project content; the SDK and other schema outside it are left
+ * alone. Files are analysed in parallel and all changes are written in one undoable command. Files that cannot be
+ * made writable are skipped and listed afterwards.
+ */
+public class OptimizeSchemaImportsAction extends AnAction {
+    private static final int MAX_LISTED_FILES = 10;
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getData(CommonDataKeys.PROJECT);
+        if (project == null || DumbService.isDumb(project)) {
+            return;
+        }
+        PsiDocumentManager.getInstance(project).commitAllDocuments();
+        FileDocumentManager.getInstance().saveAllDocuments();
+        Map<VirtualFile, List<SchemaTextEdits.Edit>> edits = new ConcurrentHashMap<>();
+        Map<VirtualFile, Long> stamps = new ConcurrentHashMap<>();
+        new Task.Backgroundable(project, "Optimizing schema imports", true) {
+            private SchemaResolver resolver;
+            private List<VirtualFile> importRoots;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                List<VirtualFile> files = ApplicationManager.getApplication().runReadAction(
+                    (Computable<List<VirtualFile>>) () -> {
+                        ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+                        List<VirtualFile> contentFiles = new ArrayList<>();
+                        for (VirtualFile file : SchemaFiles.getAllSchemaFiles(project)) {
+                            if (fileIndex.isInContent(file)) {
+                                contentFiles.add(file);
+                            }
+                        }
+                        return contentFiles;
+                    });
+                resolver = ApplicationManager.getApplication().runReadAction(
+                    (Computable<SchemaResolver>) () -> new SchemaResolver(project));
+                importRoots = ApplicationManager.getApplication().runReadAction(
+                    (Computable<List<VirtualFile>>) () -> SchemaFiles.getImportRoots(project));
+                ExecutorService executor =
+                    Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+                try {
+                    List<Future<?>> futures = new ArrayList<>();
+                    for (VirtualFile file : files) {
+                        futures.add(executor.submit(() -> ApplicationManager.getApplication().runReadAction(() -> {
+                            indicator.checkCanceled();
+                            Document document =
+                                file.isValid() ? FileDocumentManager.getInstance().getDocument(file) : null;
+                            PsiFile psiFile = document == null ? null : PsiManager.getInstance(project).findFile(file);
+                            if (psiFile != null) {
+                                // A document edited since the last commit no longer matches the file analysed.
+                                long stamp = PsiDocumentManager.getInstance(project).isCommitted(document) ?
+                                    document.getModificationStamp() : -1;
+                                List<SchemaTextEdits.Edit> fileEdits =
+                                    SchemaImports.computeEdits(resolver, importRoots, psiFile);
+                                if (!fileEdits.isEmpty()) {
+                                    edits.put(file, fileEdits);
+                                    stamps.put(file, stamp);
+                                }
+                            }
+                        })));
+                    }
+                    for (int i = 0; i < futures.size(); ++i) {
+                        indicator.checkCanceled();
+                        indicator.setFraction((double) i / futures.size());
+                        futures.get(i).get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessCanceledException();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        // Including ProcessCanceledException, so that cancelling the task is not reported as an error.
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                // Files edited while the task ran would get edits computed for their old text, so they are analysed
+                // again here; there are only ever a few of them.
+                PsiDocumentManager.getInstance(project).commitAllDocuments();
+                Map<VirtualFile, List<SchemaTextEdits.Edit>> current = new LinkedHashMap<>();
+                for (Map.Entry<VirtualFile, List<SchemaTextEdits.Edit>> entry : edits.entrySet()) {
+                    VirtualFile file = entry.getKey();
+                    Document document = file.isValid() ? FileDocumentManager.getInstance().getDocument(file) : null;
+                    if (document == null) {
+                        continue;
+                    }
+                    if (document.getModificationStamp() == stamps.get(file)) {
+                        current.put(file, entry.getValue());
+                        continue;
+                    }
+                    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+                    if (psiFile == null || DumbService.isDumb(project)) {
+                        continue;
+                    }
+                    List<SchemaTextEdits.Edit> fileEdits = SchemaImports.computeEdits(resolver, importRoots, psiFile);
+                    if (!fileEdits.isEmpty()) {
+                        current.put(file, fileEdits);
+                    }
+                }
+                if (current.isEmpty()) {
+                    return;
+                }
+                VirtualFile[] readonlyFiles = ReadonlyStatusHandler.getInstance(project).ensureFilesWritable(
+                    current.keySet().toArray(new VirtualFile[0])).getReadonlyFiles();
+                for (VirtualFile file : readonlyFiles) {
+                    current.remove(file);
+                }
+                SchemaTextEdits.apply(project, "Optimize Schema Imports", current);
+                if (readonlyFiles.length > 0) {
+                    notifySkipped(project, readonlyFiles);
+                }
+            }
+        }.queue();
+    }
+
+    private static void notifySkipped(@NotNull Project project, @NotNull VirtualFile[] files) {
+        StringBuilder content = new StringBuilder();
+        content.append("Imports were not optimized in ").append(files.length)
+            .append(files.length == 1 ? " read-only file:" : " read-only files:");
+        for (int i = 0; i < files.length && i < MAX_LISTED_FILES; ++i) {
+            content.append("<br>").append(StringUtil.escapeXml(files[i].getPresentableUrl()));
+        }
+        if (files.length > MAX_LISTED_FILES) {
+            content.append("<br>and ").append(files.length - MAX_LISTED_FILES).append(" more.");
+        }
+        Notifications.Bus.notify(new Notification("SpatialOS Schema", "Optimize schema imports", content.toString(),
+                                                  NotificationType.WARNING), project);
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabled(event.getData(CommonDataKeys.PROJECT) != null);
+    }
+}
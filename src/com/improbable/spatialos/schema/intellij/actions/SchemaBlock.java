@@ -5,7 +5,7 @@ import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
 import com.intellij.formatting.*;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.psi.PsiComment;
+import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -36,17 +36,31 @@ public class SchemaBlock implements Block {
     private final List<SchemaBlock> subBlocks = new ArrayList<>();
 
     public SchemaBlock(@NotNull ASTNode node, @NotNull Indent indent) {
+        this(node, indent, true);
+    }
+
+    private SchemaBlock(@NotNull ASTNode node, @NotNull Indent indent, boolean withSubBlocks) {
         this.node = node;
         this.indent = indent;
+        if (!withSubBlocks) {
+            return;
+        }
 
-        for (ASTNode child : node.getChildren(null)) {
-            if (child.getText().trim().length() > 0) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() != TokenType.WHITE_SPACE && child.getTextLength() > 0) {
                 Indent childIndent = getIndentForChild(subBlocks.size(), child.getElementType());
                 subBlocks.add(new SchemaBlock(child, childIndent));
             }
         }
     }
 
+    /**
+     * Returns a block covering the node with no sub-blocks, which the formatter leaves untouched.
+     */
+    public static @NotNull SchemaBlock createInert(@NotNull ASTNode node, @NotNull Indent indent) {
+        return new SchemaBlock(node, indent, false);
+    }
+
     @Override
     public @NotNull TextRange getTextRange() {
         return node.getTextRange();
@@ -79,47 +93,49 @@ public class SchemaBlock implements Block {
         }
         SchemaBlock left = (SchemaBlock) child1;
         SchemaBlock right = (SchemaBlock) child2;
+        IElementType leftType = left.node.getElementType();
+        IElementType rightType = right.node.getElementType();
 
         // Comments.
-        if (left.node.getPsi() instanceof PsiComment || right.node.getPsi() instanceof PsiComment) {
+        if (leftType == SchemaLexer.COMMENT || rightType == SchemaLexer.COMMENT) {
             return FREE_BREAKS_AND_SPACES;
         }
 
         // Braces.
-        if (left.node.getPsi().getText().equals("{") || right.node.getPsi().getText().equals("}")) {
+        if (leftType == SchemaLexer.LBRACE || rightType == SchemaLexer.RBRACE) {
             return ONE_BREAK;
         }
-        if (left.node.getPsi().getText().equals("}")) {
+        if (leftType == SchemaLexer.RBRACE) {
             return FREE_BREAKS;
         }
-        if (right.node.getPsi().getText().equals("{")) {
+        if (rightType == SchemaLexer.LBRACE) {
             return ONE_SPACE;
         }
 
         // Angle brackets.
-        if (left.node.getPsi().getText().equals("<") || right.node.getPsi().getText().equals(">")) {
+        if (leftType == SchemaLexer.LANGLE || rightType == SchemaLexer.RANGLE) {
             return NO_SPACE_OR_BREAK;
         }
-        if (left.node.getPsi().getText().equals(">")) {
+        if (leftType == SchemaLexer.RANGLE) {
             return SPACE_OR_BREAK;
         }
-        if (right.node.getPsi().getText().equals("<")) {
+        if (rightType == SchemaLexer.LANGLE) {
             return NO_SPACING;
         }
 
         // Comma and semicolon.
-        if (right.node.getPsi().getText().equals(",") || right.node.getPsi().getText().equals(";")) {
+        if (rightType == SchemaLexer.COMMA || rightType == SchemaLexer.SEMICOLON) {
             return NO_SPACING;
         }
-        if (left.node.getPsi().getText().equals(",")) {
+        if (leftType == SchemaLexer.COMMA) {
             return SPACE_OR_BREAK;
         }
-        if (left.node.getPsi().getText().equals(";")) {
+        if (leftType == SchemaLexer.SEMICOLON) {
             return FREE_BREAKS;
         }
 
         // Equals.
-        if (left.node.getPsi().getText().equals("=") || right.node.getPsi().getText().equals("=")) {
+        if (leftType == SchemaLexer.EQUALS || rightType == SchemaLexer.EQUALS) {
             return SPACE_OR_BREAK;
         }
 
@@ -143,7 +159,15 @@ public class SchemaBlock implements Block {
 
     @Override
     public boolean isLeaf() {
-        return false;
+        return subBlocks.isEmpty();
+    }
+
+    int countBlocks() {
+        int count = 1;
+        for (SchemaBlock subBlock : subBlocks) {
+            count += subBlock.countBlocks();
+        }
+        return count;
     }
 
     private Indent getIndentForChild(int newChildIndex, @Nullable IElementType newElement) {
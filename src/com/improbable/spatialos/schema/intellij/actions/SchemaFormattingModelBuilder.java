@@ -1,6 +1,8 @@
 package com.improbable.spatialos.schema.intellij.actions;
 
 import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
 import com.intellij.formatting.FormattingModel;
 import com.intellij.formatting.FormattingModelBuilder;
 import com.intellij.formatting.FormattingModelProvider;
@@ -16,9 +18,16 @@ import org.jetbrains.annotations.Nullable;
 public class SchemaFormattingModelBuilder implements FormattingModelBuilder {
     @Override
     public @NotNull FormattingModel createModel(PsiElement element, CodeStyleSettings settings) {
+        long start = SchemaMetrics.SCHEMA_METRICS.start();
         PsiFile containingFile = element.getContainingFile().getViewProvider().getPsi(SchemaLanguage.SCHEMA_LANGUAGE);
-        SchemaBlock block =
+        // In large-file mode the tree is flat, so the whole file is a single block the formatter leaves alone.
+        SchemaBlock block = SchemaLargeFileMode.isLimited(containingFile) ?
+            SchemaBlock.createInert(containingFile.getNode(), Indent.getAbsoluteNoneIndent()) :
             new SchemaBlock(containingFile.getNode(), Indent.getAbsoluteNoneIndent());
+        if (start != SchemaMetrics.DISABLED) {
+            SchemaMetrics.SCHEMA_METRICS.record(SchemaMetrics.Stage.FORMAT, SchemaMetrics.getFileName(containingFile),
+                                                start, block.countBlocks());
+        }
         return FormattingModelProvider.createFormattingModelForPsiFile(containingFile, block, settings);
     }
 
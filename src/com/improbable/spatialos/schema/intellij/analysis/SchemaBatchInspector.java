@@ -0,0 +1,276 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypes;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.TokenType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs every schema check over a set of files. Files are parsed and checked in parallel, each against an immutable
+ * in-memory model of the whole set; checks that need all files (duplicate names and component IDs, unused
+ * definitions in the project content) run in a final merge step.
+ */
+public class SchemaBatchInspector {
+    public static final String RULE_SYNTAX = "syntax";
+    public static final String RULE_SEMANTIC = "semantic";
+    public static final String RULE_DUPLICATE_DEFINITION = "duplicate-definition";
+    public static final String RULE_DUPLICATE_COMPONENT_ID = "duplicate-component-id";
+    public static final String RULE_UNUSED_DEFINITION = "unused-definition";
+
+    public static class Problem {
+        public final String path;
+        public final int line;
+        public final int column;
+        public final SchemaProblem.Severity severity;
+        public final String ruleId;
+        public final String message;
+
+        Problem(@NotNull ParsedFile file, int offset, @NotNull SchemaProblem.Severity severity,
+                @NotNull String ruleId, @NotNull String message) {
+            this.path = file.path;
+            this.line = file.getLine(offset) + 1;
+            this.column = offset - file.lineStarts[file.getLine(offset)] + 1;
+            this.severity = severity;
+            this.ruleId = ruleId;
+            this.message = message;
+        }
+    }
+
+    public static class Result {
+        public final List<Problem> problems;
+        public final int fileCount;
+        public final long nanos;
+
+        Result(@NotNull List<Problem> problems, int fileCount, long nanos) {
+            this.problems = problems;
+            this.fileCount = fileCount;
+            this.nanos = nanos;
+        }
+
+        public double getFilesPerSecond() {
+            return nanos == 0 ? 0 : fileCount * 1e9 / nanos;
+        }
+    }
+
+    private static class ParsedFile {
+        final String path;
+        /** Whether the file is in the project content, rather than in the SDK or another schema path. */
+        final boolean inContent;
+        final int[] lineStarts;
+        final SchemaFileSummary summary;
+        final SchemaFileSnapshot snapshot;
+        final List<Problem> problems = new ArrayList<>();
+
+        ParsedFile(@NotNull String path, boolean inContent, @NotNull CharSequence text, @NotNull ASTNode node) {
+            this.path = path;
+            this.inContent = inContent;
+            this.lineStarts = computeLineStarts(text);
+            this.summary = SchemaSummaryBuilder.build(node);
+            this.snapshot = SchemaSnapshotBuilder.build(node);
+        }
+
+        int getLine(int offset) {
+            int line = Arrays.binarySearch(lineStarts, offset);
+            return line >= 0 ? line : -line - 2;
+        }
+    }
+
+    private static class ModelContext implements SchemaSemanticChecker.Context {
+        private final SchemaTypeResolver resolver;
+        private final ProgressIndicator indicator;
+
+        ModelContext(@NotNull SchemaTypeResolver resolver, @Nullable ProgressIndicator indicator) {
+            this.resolver = resolver;
+            this.indicator = indicator;
+        }
+
+        @Override
+        public boolean exists(@NotNull String qualifiedName) {
+            return resolver.get(qualifiedName) != null;
+        }
+
+        @Override
+        public @Nullable int[] getFieldNumbers(@NotNull String qualifiedName) {
+            SchemaTypeResolver.Entry entry = resolver.get(qualifiedName);
+            if (entry == null) {
+                return null;
+            }
+            return entry.definition.fields.stream()
+                .filter(field -> field.kind == SchemaField.Kind.FIELD).mapToInt(field -> field.number).toArray();
+        }
+
+        @Override
+        public void checkCanceled() {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+        }
+    }
+
+    public static @NotNull Result inspect(@NotNull Project project, @NotNull Collection<VirtualFile> files,
+                                          @Nullable ProgressIndicator indicator)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ParsedFile>> parsing = new ArrayList<>();
+            for (VirtualFile file : files) {
+                parsing.add(executor.submit(() -> parse(project, file)));
+            }
+            List<ParsedFile> parsed = new ArrayList<>();
+            for (Future<ParsedFile> future : parsing) {
+                ParsedFile file = future.get();
+                if (file != null) {
+                    parsed.add(file);
+                }
+            }
+
+            List<SchemaFileSummary> summaries = new ArrayList<>();
+            for (ParsedFile file : parsed) {
+                summaries.add(file.summary);
+            }
+            SchemaTypeResolver resolver = new SchemaTypeResolver(summaries);
+            List<Future<?>> checking = new ArrayList<>();
+            for (ParsedFile file : parsed) {
+                checking.add(executor.submit(() -> {
+                    for (SchemaProblem problem : SchemaSemanticChecker.check(
+                            file.snapshot, new ModelContext(resolver, indicator))) {
+                        file.problems.add(new Problem(file, problem.start, problem.severity, RULE_SEMANTIC,
+                                                      problem.message));
+                    }
+                }));
+            }
+            for (Future<?> future : checking) {
+                future.get();
+            }
+
+            List<Problem> problems = new ArrayList<>();
+            for (ParsedFile file : parsed) {
+                problems.addAll(file.problems);
+            }
+            mergeGlobalChecks(parsed, resolver, problems);
+            return new Result(problems, parsed.size(), System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static @Nullable ParsedFile parse(@NotNull Project project, @NotNull VirtualFile file) {
+        return ApplicationManager.getApplication().runReadAction((Computable<ParsedFile>) () -> {
+            if (!file.isValid()) {
+                return null;
+            }
+            CharSequence text = LoadTextUtil.loadText(file);
+            PsiFile psiFile = PsiFileFactory.getInstance(project).createFileFromText(
+                file.getName(), SchemaLanguage.SCHEMA_LANGUAGE, text, false, false);
+            boolean inContent = ProjectRootManager.getInstance(project).getFileIndex().isInContent(file);
+            ParsedFile parsed = new ParsedFile(file.getPath(), inContent, text, psiFile.getNode());
+            addSyntaxErrors(parsed, psiFile.getNode());
+            return parsed;
+        });
+    }
+
+    private static void addSyntaxErrors(@NotNull ParsedFile file, @NotNull ASTNode node) {
+        if (node.getElementType() == TokenType.ERROR_ELEMENT) {
+            file.problems.add(new Problem(file, node.getStartOffset(), SchemaProblem.Severity.ERROR, RULE_SYNTAX,
+                                          ((PsiErrorElement) node.getPsi()).getErrorDescription()));
+        }
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            addSyntaxErrors(file, child);
+        }
+    }
+
+    private static void mergeGlobalChecks(@NotNull List<ParsedFile> files, @NotNull SchemaTypeResolver resolver,
+                                          @NotNull List<Problem> problems) {
+        Map<String, ParsedFile> definitionFiles = new HashMap<>();
+        Map<Integer, String> componentIds = new HashMap<>();
+        Set<String> referenced = new HashSet<>();
+        for (ParsedFile file : files) {
+            for (SchemaDefinition definition : file.summary.definitions) {
+                for (SchemaField field : definition.fields) {
+                    addReference(resolver, file.summary, definition, field.typeName, referenced);
+                    for (String typeParameter : field.typeParameters) {
+                        addReference(resolver, file.summary, definition, typeParameter, referenced);
+                    }
+                }
+            }
+        }
+        for (ParsedFile file : files) {
+            for (SchemaDefinition definition : file.summary.definitions) {
+                String qualifiedName = definition.getQualifiedName(file.summary.packageName);
+                ParsedFile other = definitionFiles.putIfAbsent(qualifiedName, file);
+                if (other != null && other != file) {
+                    problems.add(new Problem(file, definition.offset, SchemaProblem.Severity.ERROR,
+                                             RULE_DUPLICATE_DEFINITION,
+                                             "'" + qualifiedName + "' is also defined in " + other.path + "."));
+                }
+                if (definition.kind == SchemaDefinition.Kind.COMPONENT &&
+                    definition.componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                    String otherComponent = componentIds.putIfAbsent(definition.componentId, qualifiedName);
+                    if (otherComponent != null) {
+                        problems.add(new Problem(file, definition.offset, SchemaProblem.Severity.ERROR,
+                                                 RULE_DUPLICATE_COMPONENT_ID, "Component ID " +
+                                                 definition.componentId + " is also used by '" + otherComponent +
+                                                 "'."));
+                    }
+                }
+                // References are counted from every file, but only the project's own definitions are reported: the
+                // SDK and other libraries define types for others to use.
+                if (file.inContent && definition.kind != SchemaDefinition.Kind.COMPONENT &&
+                    !referenced.contains(qualifiedName)) {
+                    problems.add(new Problem(file, definition.offset, SchemaProblem.Severity.WEAK_WARNING,
+                                             RULE_UNUSED_DEFINITION, "'" + qualifiedName + "' is never used."));
+                }
+            }
+        }
+    }
+
+    private static void addReference(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                     @NotNull SchemaDefinition definition, @Nullable String typeName,
+                                     @NotNull Set<String> referenced) {
+        if (typeName != null && !SchemaTypes.isBuiltIn(typeName)) {
+            String qualifiedName = resolver.resolve(file.packageName, definition.name, typeName);
+            if (qualifiedName != null) {
+                referenced.add(qualifiedName);
+            }
+        }
+    }
+
+    private static @NotNull int[] computeLineStarts(@NotNull CharSequence text) {
+        int count = 1;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n') {
+                ++count;
+            }
+        }
+        int[] lineStarts = new int[count];
+        int line = 1;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n') {
+                lineStarts[line++] = i + 1;
+            }
+        }
+        return lineStarts;
+    }
+}
@@ -0,0 +1,93 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks the field numbers of a type or component, or the values of an enum. Numbers are sorted as primitive
+ * {@code (number << 32) | index} keys, so duplicates and gaps are found by comparing neighbours without boxing, which
+ * keeps generated types with thousands of fields cheap.
+ */
+public class SchemaFieldNumberChecker {
+    public static final int MIN_FIELD_NUMBER = 1;
+    public static final int MIN_RESERVED_COMPONENT_ID = 190000;
+    public static final int MAX_RESERVED_COMPONENT_ID = 199999;
+    private static final String RESERVED_PACKAGE_PREFIX = "improbable";
+
+    public static void check(@NotNull String packageName, @NotNull SchemaFileSnapshot.Scope scope,
+                             @NotNull int[] dataFieldNumbers, @NotNull List<SchemaProblem> problems) {
+        checkComponentId(packageName, scope, problems);
+        int count = scope.numbered.size();
+        if (count == 0) {
+            return;
+        }
+        boolean isEnum = scope.kind == SchemaDefinition.Kind.ENUM;
+        long[] keys = new long[count];
+        int maxNumber = 0;
+        for (int i = 0; i < count; ++i) {
+            int number = scope.numbered.get(i).number;
+            keys[i] = ((long) number << 32) | i;
+            maxNumber = Math.max(maxNumber, number);
+        }
+        for (int number : dataFieldNumbers) {
+            maxNumber = Math.max(maxNumber, number);
+        }
+        Arrays.sort(keys);
+        int[] sortedDataFieldNumbers = dataFieldNumbers.clone();
+        Arrays.sort(sortedDataFieldNumbers);
+
+        // Fixes use the number after the highest one, rather than filling gaps that may be retired numbers.
+        String nextFree = Integer.toString(maxNumber + 1);
+        String kind = isEnum ? "Enum value" : "Field number";
+        for (int i = 0; i < count; ++i) {
+            int number = (int) (keys[i] >>> 32);
+            SchemaFileSnapshot.Numbered numbered = scope.numbered.get((int) keys[i]);
+            SchemaFileSnapshot.Range range = numbered.numberRange;
+            SchemaProblem.Fix fix = isEnum ? null :
+                new SchemaProblem.Fix("Use next free field number " + nextFree, range.start, range.end, nextFree);
+            if (!isEnum && number < MIN_FIELD_NUMBER) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, range.start, range.end,
+                                               "Field numbers must be at least " + MIN_FIELD_NUMBER + ".", fix));
+                continue;
+            }
+            int previous = i == 0 ? -1 : (int) (keys[i - 1] >>> 32);
+            if (i > 0 && previous == number) {
+                SchemaFileSnapshot.Numbered first = scope.numbered.get((int) keys[i - 1]);
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, range.start, range.end,
+                                               kind + " " + number + " is already used by '" + first.name + "'.",
+                                               fix));
+                continue;
+            }
+            if (Arrays.binarySearch(sortedDataFieldNumbers, number) >= 0) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, range.start, range.end,
+                                               kind + " " + number + " is already used by the component data.",
+                                               fix));
+                continue;
+            }
+            if (!isEnum && i > 0 && previous >= MIN_FIELD_NUMBER && number > previous + 1) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.WEAK_WARNING, range.start, range.end,
+                                               number == previous + 2 ?
+                                                   "Field number " + (previous + 1) + " is unused." :
+                                                   "Field numbers " + (previous + 1) + " to " + (number - 1) +
+                                                   " are unused."));
+            }
+        }
+    }
+
+    private static void checkComponentId(@NotNull String packageName, @NotNull SchemaFileSnapshot.Scope scope,
+                                         @NotNull List<SchemaProblem> problems) {
+        SchemaFileSnapshot.Numbered componentId = scope.componentId;
+        if (componentId == null || packageName.equals(RESERVED_PACKAGE_PREFIX) ||
+            packageName.startsWith(RESERVED_PACKAGE_PREFIX + ".")) {
+            return;
+        }
+        if (componentId.number >= MIN_RESERVED_COMPONENT_ID && componentId.number <= MAX_RESERVED_COMPONENT_ID) {
+            problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, componentId.numberRange.start,
+                                           componentId.numberRange.end, "Component IDs " + MIN_RESERVED_COMPONENT_ID +
+                                           " to " + MAX_RESERVED_COMPONENT_ID + " are reserved."));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of the parts of a schema file the semantic checks need, with source ranges, so the checks can run
+ * on a background thread without holding on to the syntax tree.
+ */
+public class SchemaFileSnapshot {
+    public static class Range {
+        public final int start;
+        public final int end;
+
+        public Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class Reference {
+        public final String text;
+        public final String scopeName;
+        public final Range range;
+
+        public Reference(@NotNull String text, @NotNull String scopeName, @NotNull Range range) {
+            this.text = text;
+            this.scopeName = scopeName;
+            this.range = range;
+        }
+    }
+
+    public static class Option {
+        public final String name;
+        public final @Nullable String value;
+        public final Range nameRange;
+        public final @Nullable Range valueRange;
+
+        public Option(@NotNull String name, @Nullable String value, @NotNull Range nameRange,
+                      @Nullable Range valueRange) {
+            this.name = name;
+            this.value = value;
+            this.nameRange = nameRange;
+            this.valueRange = valueRange;
+        }
+    }
+
+    public static class Member {
+        public final String name;
+        public final Range nameRange;
+
+        public Member(@NotNull String name, @NotNull Range nameRange) {
+            this.name = name;
+            this.nameRange = nameRange;
+        }
+    }
+
+    public static class Numbered {
+        public final String name;
+        public final int number;
+        public final Range numberRange;
+
+        public Numbered(@NotNull String name, int number, @NotNull Range numberRange) {
+            this.name = name;
+            this.number = number;
+            this.numberRange = numberRange;
+        }
+    }
+
+    /**
+     * A package-level or nested definition (or the file itself, with an empty name) and what it directly contains.
+     */
+    public static class Scope {
+        public final @Nullable SchemaDefinition.Kind kind;
+        public final String name;
+        public final @Nullable Range nameRange;
+        public final List<Member> members = new ArrayList<>();
+        public final List<Option> options = new ArrayList<>();
+        public final List<Numbered> numbered = new ArrayList<>();
+        public final List<Reference> dataTypes = new ArrayList<>();
+        public @Nullable Numbered componentId = null;
+
+        public Scope(@Nullable SchemaDefinition.Kind kind, @NotNull String name, @Nullable Range nameRange) {
+            this.kind = kind;
+            this.name = name;
+            this.nameRange = nameRange;
+        }
+    }
+
+    public final String packageName;
+    public final List<Reference> references = new ArrayList<>();
+    public final List<Scope> scopes = new ArrayList<>();
+
+    public SchemaFileSnapshot(@NotNull String packageName) {
+        this.packageName = packageName;
+    }
+}
@@ -0,0 +1,65 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.util.JsonStrings;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * Writes {@link SchemaBatchInspector} results as plain JSON or as SARIF 2.1.0.
+ */
+public class SchemaInspectionReport {
+    public static @NotNull String toJson(@NotNull SchemaBatchInspector.Result result) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"files\": ").append(result.fileCount)
+            .append(",\n  \"durationMs\": ").append(result.nanos / 1000000)
+            .append(",\n  \"filesPerSecond\": ").append(String.format("%.1f", result.getFilesPerSecond()))
+            .append(",\n  \"problems\": [");
+        String separator = "\n";
+        for (SchemaBatchInspector.Problem problem : result.problems) {
+            json.append(separator).append("    {\"file\": ");
+            JsonStrings.append(json, problem.path);
+            json.append(", \"line\": ").append(problem.line).append(", \"column\": ").append(problem.column)
+                .append(", \"severity\": \"").append(problem.severity.name().toLowerCase())
+                .append("\", \"rule\": \"").append(problem.ruleId).append("\", \"message\": ");
+            JsonStrings.append(json, problem.message).append('}');
+            separator = ",\n";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    public static @NotNull String toSarif(@NotNull SchemaBatchInspector.Result result) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n")
+            .append("  \"version\": \"2.1.0\",\n  \"runs\": [{\n")
+            .append("    \"tool\": {\"driver\": {\"name\": \"spatialos-schema-inspect\"}},\n")
+            .append("    \"properties\": {\"files\": ").append(result.fileCount)
+            .append(", \"durationMs\": ").append(result.nanos / 1000000)
+            .append(", \"filesPerSecond\": ").append(String.format("%.1f", result.getFilesPerSecond()))
+            .append("},\n    \"results\": [");
+        String separator = "\n";
+        for (SchemaBatchInspector.Problem problem : result.problems) {
+            json.append(separator).append("      {\"ruleId\": \"").append(problem.ruleId)
+                .append("\", \"level\": \"").append(getSarifLevel(problem.severity))
+                .append("\", \"message\": {\"text\": ");
+            JsonStrings.append(json, problem.message)
+                .append("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ");
+            JsonStrings.append(json, new File(problem.path).toURI().toString())
+                .append("}, \"region\": {\"startLine\": ").append(problem.line)
+                .append(", \"startColumn\": ").append(problem.column).append("}}}]}");
+            separator = ",\n";
+        }
+        return json.append("\n    ]\n  }]\n}\n").toString();
+    }
+
+    private static @NotNull String getSarifLevel(@NotNull SchemaProblem.Severity severity) {
+        switch (severity) {
+            case ERROR:
+                return "error";
+            case WARNING:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+}
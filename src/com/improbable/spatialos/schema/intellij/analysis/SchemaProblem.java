@@ -0,0 +1,48 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class SchemaProblem {
+    public enum Severity {
+        ERROR,
+        WARNING,
+        WEAK_WARNING,
+    }
+
+    /**
+     * A quick fix that replaces a range of the file with new text.
+     */
+    public static class Fix {
+        public final String name;
+        public final int start;
+        public final int end;
+        public final String replacement;
+
+        public Fix(@NotNull String name, int start, int end, @NotNull String replacement) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+        }
+    }
+
+    public final Severity severity;
+    public final int start;
+    public final int end;
+    public final String message;
+    public final @Nullable Fix fix;
+
+    public SchemaProblem(@NotNull Severity severity, int start, int end, @NotNull String message) {
+        this(severity, start, end, message, null);
+    }
+
+    public SchemaProblem(@NotNull Severity severity, int start, int end, @NotNull String message,
+                         @Nullable Fix fix) {
+        this.severity = severity;
+        this.start = start;
+        this.end = end;
+        this.message = message;
+        this.fix = fix;
+    }
+}
@@ -0,0 +1,107 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs all semantic checks over a file snapshot in a single pass. The {@link Context} may be backed by the indexes or
+ * by an in-memory model.
+ */
+public class SchemaSemanticChecker {
+    public interface Context {
+        boolean exists(@NotNull String qualifiedName);
+
+        /**
+         * Returns the field numbers of the given type, or null if they are not known.
+         */
+        @Nullable int[] getFieldNumbers(@NotNull String qualifiedName);
+
+        void checkCanceled();
+    }
+
+    private static final int[] NO_NUMBERS = new int[0];
+
+    private static final String OPTION_TRUE = "true";
+    private static final String OPTION_FALSE = "false";
+
+    public static @NotNull List<SchemaProblem> check(@NotNull SchemaFileSnapshot snapshot, @NotNull Context context) {
+        List<SchemaProblem> problems = new ArrayList<>();
+        for (SchemaFileSnapshot.Reference reference : snapshot.references) {
+            context.checkCanceled();
+            if (!SchemaTypes.isBuiltIn(reference.text) && resolve(snapshot, reference, context) == null) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, reference.range.start,
+                                               reference.range.end, "Cannot resolve type '" + reference.text + "'."));
+            }
+        }
+        for (SchemaFileSnapshot.Scope scope : snapshot.scopes) {
+            context.checkCanceled();
+            checkDuplicateNames(scope, problems);
+            checkOptions(scope, problems);
+            SchemaFieldNumberChecker.check(snapshot.packageName, scope, getDataFieldNumbers(snapshot, scope, context),
+                                           problems);
+        }
+        return problems;
+    }
+
+    private static @Nullable String resolve(@NotNull SchemaFileSnapshot snapshot,
+                                            @NotNull SchemaFileSnapshot.Reference reference,
+                                            @NotNull Context context) {
+        return SchemaTypeResolver.resolve(snapshot.packageName, reference.scopeName, reference.text, context::exists);
+    }
+
+    private static @NotNull int[] getDataFieldNumbers(@NotNull SchemaFileSnapshot snapshot,
+                                                      @NotNull SchemaFileSnapshot.Scope scope,
+                                                      @NotNull Context context) {
+        if (scope.dataTypes.isEmpty()) {
+            return NO_NUMBERS;
+        }
+        int[] result = NO_NUMBERS;
+        for (SchemaFileSnapshot.Reference dataType : scope.dataTypes) {
+            context.checkCanceled();
+            String qualifiedName = resolve(snapshot, dataType, context);
+            int[] numbers = qualifiedName == null ? null : context.getFieldNumbers(qualifiedName);
+            if (numbers != null && numbers.length > 0) {
+                int[] combined = Arrays.copyOf(result, result.length + numbers.length);
+                System.arraycopy(numbers, 0, combined, result.length, numbers.length);
+                result = combined;
+            }
+        }
+        return result;
+    }
+
+    private static void checkDuplicateNames(@NotNull SchemaFileSnapshot.Scope scope,
+                                            @NotNull List<SchemaProblem> problems) {
+        Map<String, SchemaFileSnapshot.Member> seen = new HashMap<>();
+        for (SchemaFileSnapshot.Member member : scope.members) {
+            if (seen.putIfAbsent(member.name, member) != null) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, member.nameRange.start,
+                                               member.nameRange.end, "Duplicate name '" + member.name + "'" +
+                                               (scope.name.isEmpty() ? "." : " in " + scope.name + ".")));
+            }
+        }
+    }
+
+    private static void checkOptions(@NotNull SchemaFileSnapshot.Scope scope, @NotNull List<SchemaProblem> problems) {
+        Map<String, SchemaFileSnapshot.Option> seen = new HashMap<>();
+        for (SchemaFileSnapshot.Option option : scope.options) {
+            if (seen.putIfAbsent(option.name, option) != null) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, option.nameRange.start,
+                                               option.nameRange.end, "Duplicate option '" + option.name + "'."));
+            }
+            if (option.value != null && option.valueRange != null &&
+                !option.value.equals(OPTION_TRUE) && !option.value.equals(OPTION_FALSE)) {
+                problems.add(new SchemaProblem(SchemaProblem.Severity.ERROR, option.valueRange.start,
+                                               option.valueRange.end, "Option '" + option.name + "' must be '" +
+                                               OPTION_TRUE + "' or '" + OPTION_FALSE + "'."));
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.improbable.spatialos.schema.intellij.analysis;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class SchemaSnapshotBuilder {
+    public static @NotNull SchemaFileSnapshot build(@NotNull ASTNode file) {
+        SchemaFileSnapshot snapshot = new SchemaFileSnapshot(SchemaResolver.getPackageName(file));
+        SchemaFileSnapshot.Scope fileScope = new SchemaFileSnapshot.Scope(null, "", null);
+        snapshot.scopes.add(fileScope);
+        addChildren(snapshot, file, fileScope);
+        return snapshot;
+    }
+
+    private static void addChildren(@NotNull SchemaFileSnapshot snapshot, @NotNull ASTNode node,
+                                    @NotNull SchemaFileSnapshot.Scope scope) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (SchemaResolver.isDefinition(child)) {
+                ASTNode name = child.findChildByType(SchemaParser.DEFINITION_NAME);
+                if (name == null) {
+                    continue;
+                }
+                scope.members.add(new SchemaFileSnapshot.Member(name.getText(), range(name)));
+                SchemaFileSnapshot.Scope childScope = new SchemaFileSnapshot.Scope(
+                    SchemaSummaryBuilder.getDefinitionKind(type), SchemaResolver.join(scope.name, name.getText()),
+                    range(name));
+                snapshot.scopes.add(childScope);
+                addChildren(snapshot, child, childScope);
+            } else if (type == SchemaParser.OPTION_DEFINITION) {
+                ASTNode name = child.findChildByType(SchemaParser.OPTION_NAME);
+                ASTNode value = child.findChildByType(SchemaParser.OPTION_VALUE);
+                if (name != null) {
+                    scope.options.add(new SchemaFileSnapshot.Option(
+                        name.getText(), value == null ? null : value.getText(), range(name), range(value)));
+                }
+            } else if (type == SchemaParser.COMPONENT_ID_DEFINITION) {
+                scope.componentId = getNumbered(child, SchemaParser.KEYWORD_ID);
+            } else if (type == SchemaParser.FIELD_DEFINITION || type == SchemaParser.EVENT_DEFINITION ||
+                       type == SchemaParser.ENUM_VALUE_DEFINITION || type == SchemaParser.DATA_DEFINITION) {
+                ASTNode name = child.findChildByType(SchemaParser.FIELD_NAME);
+                if (name != null) {
+                    scope.members.add(new SchemaFileSnapshot.Member(name.getText(), range(name)));
+                    SchemaFileSnapshot.Numbered numbered = getNumbered(child, name.getText());
+                    if (numbered != null) {
+                        scope.numbered.add(numbered);
+                    }
+                }
+                if (type == SchemaParser.DATA_DEFINITION) {
+                    ASTNode typeName = SchemaResolver.getFieldTypeName(child);
+                    if (typeName != null) {
+                        scope.dataTypes.add(
+                            new SchemaFileSnapshot.Reference(typeName.getText(), scope.name, range(typeName)));
+                    }
+                }
+                addReferences(snapshot, child, scope);
+            }
+        }
+    }
+
+    private static void addReferences(@NotNull SchemaFileSnapshot snapshot, @NotNull ASTNode node,
+                                      @NotNull SchemaFileSnapshot.Scope scope) {
+        if (SchemaResolver.isTypeReference(node)) {
+            snapshot.references.add(new SchemaFileSnapshot.Reference(node.getText(), scope.name, range(node)));
+            return;
+        }
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            addReferences(snapshot, child, scope);
+        }
+    }
+
+    private static @Nullable SchemaFileSnapshot.Numbered getNumbered(@NotNull ASTNode node, @NotNull String name) {
+        ASTNode number = node.findChildByType(SchemaParser.FIELD_NUMBER);
+        if (number == null) {
+            return null;
+        }
+        try {
+            return new SchemaFileSnapshot.Numbered(name, Integer.parseInt(number.getText()), range(number));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static SchemaFileSnapshot.Range range(@Nullable ASTNode node) {
+        return node == null ? null : new SchemaFileSnapshot.Range(node.getStartOffset(),
+                                                                  node.getStartOffset() + node.getTextLength());
+    }
+}
@@ -0,0 +1,23 @@
+package com.improbable.spatialos.schema.intellij.bundle;
+
+/**
+ * Layout of a schema bundle. All offsets are absolute and all fixed-width values are big-endian.
+ *
+ * <pre>
+ * header:      magic, version, string count, string table offset, definition count, definition table offset,
+ *              component count, component index offset (8 x int32)
+ * strings:     string count x int32 offset, then per string: varint byte length, UTF-8 bytes
+ * definitions: definition count x int32 offset, then per definition: kind byte, varint package string,
+ *              varint name string, varint (component ID + 1), varint field count, then per field: kind byte,
+ *              varint name string, varint (number + 1), varint (type string + 1), varint parameter count,
+ *              varint parameter strings
+ * components:  component count x (int32 component ID, int32 definition offset), sorted by component ID
+ * </pre>
+ *
+ * User-defined type names are stored fully qualified with a leading '.'.
+ */
+public class SchemaBundleFormat {
+    public static final int MAGIC = 0x534f5342;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8 * 4;
+}
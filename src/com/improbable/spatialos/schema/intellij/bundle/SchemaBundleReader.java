@@ -0,0 +1,142 @@
+package com.improbable.spatialos.schema.intellij.bundle;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a schema bundle in place. Definitions are only decoded when they are looked up, so finding a component by ID
+ * is a binary search over the component index followed by decoding a single record.
+ */
+public class SchemaBundleReader {
+    public static class Entry {
+        public final String packageName;
+        public final SchemaDefinition definition;
+
+        private Entry(String packageName, SchemaDefinition definition) {
+            this.packageName = packageName;
+            this.definition = definition;
+        }
+
+        public @NotNull String getQualifiedName() {
+            return definition.getQualifiedName(packageName);
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringTableOffset;
+    private final int definitionCount;
+    private final int definitionTableOffset;
+    private final int componentCount;
+    private final int componentIndexOffset;
+
+    public SchemaBundleReader(@NotNull ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate();
+        if (buffer.limit() < SchemaBundleFormat.HEADER_SIZE || buffer.getInt(0) != SchemaBundleFormat.MAGIC) {
+            throw new IOException("Not a schema bundle.");
+        }
+        if (buffer.getInt(4) != SchemaBundleFormat.VERSION) {
+            throw new IOException("Unsupported schema bundle version " + buffer.getInt(4) + ".");
+        }
+        stringCount = buffer.getInt(8);
+        stringTableOffset = buffer.getInt(12);
+        definitionCount = buffer.getInt(16);
+        definitionTableOffset = buffer.getInt(20);
+        componentCount = buffer.getInt(24);
+        componentIndexOffset = buffer.getInt(28);
+    }
+
+    public static @NotNull SchemaBundleReader map(@NotNull File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            return new SchemaBundleReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    public @NotNull Entry getDefinition(int index) {
+        if (index < 0 || index >= definitionCount) {
+            throw new IndexOutOfBoundsException("No definition " + index + ".");
+        }
+        return readDefinition(buffer.getInt(definitionTableOffset + 4 * index));
+    }
+
+    public @Nullable Entry findComponent(int componentId) {
+        int low = 0;
+        int high = componentCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = buffer.getInt(componentIndexOffset + 8 * middle);
+            if (id < componentId) {
+                low = middle + 1;
+            } else if (id > componentId) {
+                high = middle - 1;
+            } else {
+                return readDefinition(buffer.getInt(componentIndexOffset + 8 * middle + 4));
+            }
+        }
+        return null;
+    }
+
+    public @NotNull String getString(int index) {
+        if (index < 0 || index >= stringCount) {
+            throw new IndexOutOfBoundsException("No string " + index + ".");
+        }
+        int[] position = {buffer.getInt(stringTableOffset + 4 * index)};
+        int length = readVarInt(position);
+        byte[] bytes = new byte[length];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position[0]);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private @NotNull Entry readDefinition(int offset) {
+        int[] position = {offset + 1};
+        SchemaDefinition.Kind kind = SchemaDefinition.Kind.values()[buffer.get(offset)];
+        String packageName = getString(readVarInt(position));
+        String name = getString(readVarInt(position));
+        int componentId = readVarInt(position) - 1;
+        int fieldCount = readVarInt(position);
+        List<SchemaField> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; ++i) {
+            SchemaField.Kind fieldKind = SchemaField.Kind.values()[buffer.get(position[0]++)];
+            String fieldName = getString(readVarInt(position));
+            int number = readVarInt(position) - 1;
+            int typeIndex = readVarInt(position);
+            int parameterCount = readVarInt(position);
+            List<String> typeParameters = new ArrayList<>(parameterCount);
+            for (int j = 0; j < parameterCount; ++j) {
+                typeParameters.add(getString(readVarInt(position)));
+            }
+            fields.add(new SchemaField(fieldKind, fieldName, number, typeIndex == 0 ? null : getString(typeIndex - 1),
+                                       typeParameters));
+        }
+        return new Entry(packageName, new SchemaDefinition(kind, name, componentId, 0, fields));
+    }
+
+    private int readVarInt(@NotNull int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = buffer.get(position[0]++) & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.improbable.spatialos.schema.intellij.bundle;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaSummaryExternalizer;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class SchemaBundleWriter {
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    public static void write(@NotNull Collection<SchemaFileSummary> files, @NotNull OutputStream output)
+            throws IOException {
+        new SchemaBundleWriter().writeBundle(files, output);
+    }
+
+    private void writeBundle(@NotNull Collection<SchemaFileSummary> files, @NotNull OutputStream output)
+            throws IOException {
+        SchemaTypeResolver resolver = new SchemaTypeResolver(files);
+        List<byte[]> definitionRecords = new ArrayList<>();
+        List<Integer> componentIds = new ArrayList<>();
+        List<String> qualifiedNames = new ArrayList<>(new TreeSet<>(resolver.getQualifiedNames()));
+        for (String qualifiedName : qualifiedNames) {
+            SchemaTypeResolver.Entry entry = resolver.get(qualifiedName);
+            definitionRecords.add(encodeDefinition(resolver, entry.file, entry.definition));
+            componentIds.add(entry.definition.kind == SchemaDefinition.Kind.COMPONENT ?
+                                 entry.definition.componentId : SchemaDefinition.NO_COMPONENT_ID);
+        }
+
+        List<byte[]> stringRecords = new ArrayList<>(strings.size());
+        int stringDataSize = 0;
+        for (String string : strings) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            SchemaSummaryExternalizer.writeVarInt(out, utf8.length);
+            out.write(utf8);
+            stringRecords.add(bytes.toByteArray());
+            stringDataSize += bytes.size();
+        }
+
+        int stringTableOffset = SchemaBundleFormat.HEADER_SIZE;
+        int definitionTableOffset = stringTableOffset + 4 * strings.size() + stringDataSize;
+        int definitionDataSize = 0;
+        for (byte[] record : definitionRecords) {
+            definitionDataSize += record.length;
+        }
+        int componentIndexOffset = definitionTableOffset + 4 * definitionRecords.size() + definitionDataSize;
+
+        // The reader looks components up by ID, so an ID defined twice would silently resolve to only one of them.
+        TreeMap<Integer, Integer> componentIndex = new TreeMap<>();
+        Map<Integer, String> componentNames = new HashMap<>();
+        int offset = definitionTableOffset + 4 * definitionRecords.size();
+        for (int i = 0; i < definitionRecords.size(); ++i) {
+            int componentId = componentIds.get(i);
+            if (componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                String previous = componentNames.putIfAbsent(componentId, qualifiedNames.get(i));
+                if (previous != null) {
+                    throw new IOException("Component ID " + componentId + " is used by both " + previous + " and " +
+                                          qualifiedNames.get(i) + ".");
+                }
+                componentIndex.put(componentId, offset);
+            }
+            offset += definitionRecords.get(i).length;
+        }
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(SchemaBundleFormat.MAGIC);
+        out.writeInt(SchemaBundleFormat.VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(stringTableOffset);
+        out.writeInt(definitionRecords.size());
+        out.writeInt(definitionTableOffset);
+        out.writeInt(componentIndex.size());
+        out.writeInt(componentIndexOffset);
+
+        offset = stringTableOffset + 4 * strings.size();
+        for (byte[] record : stringRecords) {
+            out.writeInt(offset);
+            offset += record.length;
+        }
+        for (byte[] record : stringRecords) {
+            out.write(record);
+        }
+
+        offset = definitionTableOffset + 4 * definitionRecords.size();
+        for (byte[] record : definitionRecords) {
+            out.writeInt(offset);
+            offset += record.length;
+        }
+        for (byte[] record : definitionRecords) {
+            out.write(record);
+        }
+
+        for (Map.Entry<Integer, Integer> entry : componentIndex.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.flush();
+    }
+
+    private @NotNull byte[] encodeDefinition(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                             @NotNull SchemaDefinition definition) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(definition.kind.ordinal());
+        SchemaSummaryExternalizer.writeVarInt(out, intern(file.packageName));
+        SchemaSummaryExternalizer.writeVarInt(out, intern(definition.name));
+        SchemaSummaryExternalizer.writeVarInt(out, definition.componentId + 1);
+        SchemaSummaryExternalizer.writeVarInt(out, definition.fields.size());
+        for (SchemaField field : definition.fields) {
+            out.writeByte(field.kind.ordinal());
+            SchemaSummaryExternalizer.writeVarInt(out, intern(field.name));
+            SchemaSummaryExternalizer.writeVarInt(out, field.number + 1);
+            String typeName = resolver.qualify(file, definition, field.typeName);
+            SchemaSummaryExternalizer.writeVarInt(out, typeName == null ? 0 : intern(typeName) + 1);
+            SchemaSummaryExternalizer.writeVarInt(out, field.typeParameters.size());
+            for (String typeParameter : field.typeParameters) {
+                SchemaSummaryExternalizer.writeVarInt(out, intern(resolver.qualify(file, definition, typeParameter)));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private int intern(@NotNull String string) {
+        Integer index = stringIndices.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndices.put(string, index);
+        }
+        return index;
+    }
+}
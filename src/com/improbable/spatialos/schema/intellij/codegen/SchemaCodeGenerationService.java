@@ -0,0 +1,62 @@
+package com.improbable.spatialos.schema.intellij.codegen;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Keeps a {@link SchemaCodeGenerator} alive for the project so that successive runs only regenerate what changed.
+ */
+public class SchemaCodeGenerationService {
+    private final Project project;
+    private final SchemaCodeGenerator generator = new SchemaCodeGenerator();
+    private File lastOutputDirectory = null;
+
+    public SchemaCodeGenerationService(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static @NotNull SchemaCodeGenerationService getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, SchemaCodeGenerationService.class);
+    }
+
+    public synchronized @NotNull SchemaCodeGenerator.Result generate() throws IOException {
+        File outputDirectory = getOutputDirectory();
+        if (!outputDirectory.equals(lastOutputDirectory)) {
+            generator.reset();
+            lastOutputDirectory = outputDirectory;
+        }
+        SchemaCodeGenerator.Result result = generator.generate(
+            SchemaSummaryCache.getInstance(project).getAllSummaries().values(),
+            new SchemaCodeGenerator.OutputSink() {
+                @Override
+                public void write(@NotNull String path, @NotNull String content) throws IOException {
+                    FileUtil.writeToFile(new File(outputDirectory, path), content);
+                }
+
+                @Override
+                public void delete(@NotNull String path) throws IOException {
+                    FileUtil.delete(new File(outputDirectory, path));
+                }
+            });
+        LocalFileSystem.getInstance().refreshIoFiles(Collections.singletonList(outputDirectory), true, true, null);
+        return result;
+    }
+
+    private @NotNull File getOutputDirectory() {
+        String path = SchemaProjectProperties.getSettings(project).generatedCodePath;
+        File directory = new File(path);
+        if (!directory.isAbsolute() && project.getBasePath() != null) {
+            directory = new File(project.getBasePath(), path);
+        }
+        return directory;
+    }
+}
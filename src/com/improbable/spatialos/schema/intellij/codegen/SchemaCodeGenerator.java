@@ -0,0 +1,198 @@
+package com.improbable.spatialos.schema.intellij.codegen;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates code from schema summaries, keeping enough state between runs to regenerate only the definitions whose
+ * own content or transitive dependencies changed since the previous run.
+ */
+public class SchemaCodeGenerator {
+    public interface OutputSink {
+        void write(@NotNull String path, @NotNull String content) throws IOException;
+
+        void delete(@NotNull String path) throws IOException;
+    }
+
+    public static class Result {
+        public final int generated;
+        public final int unchanged;
+        public final int deleted;
+
+        private Result(int generated, int unchanged, int deleted) {
+            this.generated = generated;
+            this.unchanged = unchanged;
+            this.deleted = deleted;
+        }
+    }
+
+    /**
+     * Fingerprints every definition from its content and its transitive dependencies. Definitions that depend on each
+     * other in a cycle share one fingerprint, computed from the members of the cycle in name order and from the
+     * fingerprints of what the cycle depends on, so it does not depend on where the traversal entered the cycle. The
+     * cycles are found with Tarjan's algorithm, which completes each one after everything it depends on.
+     */
+    private static class Fingerprints {
+        private final SchemaTypeResolver resolver;
+        private final Map<String, Long> contentHashes;
+        private final Map<String, Long> fingerprints = new HashMap<>();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+
+        Fingerprints(@NotNull SchemaTypeResolver resolver, @NotNull Map<String, Long> contentHashes) {
+            this.resolver = resolver;
+            this.contentHashes = contentHashes;
+        }
+
+        @NotNull Map<String, Long> compute() {
+            for (String qualifiedName : resolver.getQualifiedNames()) {
+                if (!indices.containsKey(qualifiedName)) {
+                    visit(qualifiedName);
+                }
+            }
+            return fingerprints;
+        }
+
+        private void visit(@NotNull String qualifiedName) {
+            int index = indices.size();
+            indices.put(qualifiedName, index);
+            lowLinks.put(qualifiedName, index);
+            stack.push(qualifiedName);
+            onStack.add(qualifiedName);
+            for (String dependency : getDependencies(qualifiedName)) {
+                if (!indices.containsKey(dependency)) {
+                    visit(dependency);
+                    lowLinks.put(qualifiedName, Math.min(lowLinks.get(qualifiedName), lowLinks.get(dependency)));
+                } else if (onStack.contains(dependency)) {
+                    lowLinks.put(qualifiedName, Math.min(lowLinks.get(qualifiedName), indices.get(dependency)));
+                }
+            }
+            if (lowLinks.get(qualifiedName) != index) {
+                return;
+            }
+            List<String> members = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                members.add(member);
+            } while (!member.equals(qualifiedName));
+            Collections.sort(members);
+
+            long fingerprint = 0;
+            Set<String> memberSet = new HashSet<>(members);
+            Set<String> dependencies = new TreeSet<>();
+            for (String name : members) {
+                fingerprint = fingerprint * 31 + name.hashCode();
+                fingerprint = fingerprint * 31 + contentHashes.get(name);
+                for (String dependency : getDependencies(name)) {
+                    if (!memberSet.contains(dependency)) {
+                        dependencies.add(dependency);
+                    }
+                }
+            }
+            for (String dependency : dependencies) {
+                fingerprint = fingerprint * 31 + dependency.hashCode();
+                fingerprint = fingerprint * 31 + fingerprints.get(dependency);
+            }
+            for (String name : members) {
+                fingerprints.put(name, fingerprint);
+            }
+        }
+
+        private @NotNull List<String> getDependencies(@NotNull String qualifiedName) {
+            SchemaTypeResolver.Entry entry = resolver.get(qualifiedName);
+            return resolver.getDependencies(entry.file, entry.definition);
+        }
+    }
+
+    private Map<SchemaDefinition, Long> contentHashes = new IdentityHashMap<>();
+    private Map<String, Long> fingerprints = new HashMap<>();
+    private Map<String, String> outputPaths = new HashMap<>();
+
+    public synchronized @NotNull Result generate(@NotNull Collection<SchemaFileSummary> files,
+                                                 @NotNull OutputSink sink) throws IOException {
+        SchemaTypeResolver resolver = new SchemaTypeResolver(files);
+        Map<SchemaDefinition, Long> newContentHashes = new IdentityHashMap<>();
+        Map<String, Long> contentHashesByName = new HashMap<>();
+        for (String qualifiedName : resolver.getQualifiedNames()) {
+            SchemaDefinition definition = resolver.get(qualifiedName).definition;
+            Long contentHash = contentHashes.get(definition);
+            if (contentHash == null) {
+                contentHash = getContentHash(definition);
+            }
+            newContentHashes.put(definition, contentHash);
+            contentHashesByName.put(qualifiedName, contentHash);
+        }
+
+        Map<String, Long> newFingerprints = new Fingerprints(resolver, contentHashesByName).compute();
+        Map<String, String> newOutputPaths = new HashMap<>();
+        int generated = 0;
+        int unchanged = 0;
+        for (String qualifiedName : resolver.getQualifiedNames()) {
+            SchemaTypeResolver.Entry entry = resolver.get(qualifiedName);
+            long fingerprint = newFingerprints.get(qualifiedName);
+            String outputPath = SchemaJavaEmitter.getOutputPath(entry.file, entry.definition);
+            newOutputPaths.put(qualifiedName, outputPath);
+            Long oldFingerprint = fingerprints.get(qualifiedName);
+            if (oldFingerprint != null && oldFingerprint == fingerprint &&
+                outputPath.equals(outputPaths.get(qualifiedName))) {
+                ++unchanged;
+                continue;
+            }
+            sink.write(outputPath, SchemaJavaEmitter.emit(resolver, entry.file, entry.definition));
+            ++generated;
+        }
+
+        int deleted = 0;
+        Set<String> livePaths = new HashSet<>(newOutputPaths.values());
+        for (String oldPath : outputPaths.values()) {
+            if (!livePaths.contains(oldPath)) {
+                sink.delete(oldPath);
+                ++deleted;
+            }
+        }
+        contentHashes = newContentHashes;
+        fingerprints = newFingerprints;
+        outputPaths = newOutputPaths;
+        return new Result(generated, unchanged, deleted);
+    }
+
+    public synchronized void reset() {
+        contentHashes = new IdentityHashMap<>();
+        fingerprints = new HashMap<>();
+        outputPaths = new HashMap<>();
+    }
+
+    private static long getContentHash(@NotNull SchemaDefinition definition) {
+        long hash = definition.kind.ordinal();
+        hash = hash * 31 + definition.name.hashCode();
+        hash = hash * 31 + definition.componentId;
+        for (SchemaField field : definition.fields) {
+            hash = hash * 31 + field.kind.ordinal();
+            hash = hash * 31 + field.name.hashCode();
+            hash = hash * 31 + field.number;
+            hash = hash * 31 + field.getTypeText().hashCode();
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,177 @@
+package com.improbable.spatialos.schema.intellij.codegen;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Emits one Java source file per schema definition. Nested definitions become top-level classes whose names join the
+ * enclosing names with '_', and an '_' in a schema name becomes "_1" so that nested {@code Foo.Bar} and top-level
+ * {@code Foo_Bar} get different classes. Names that are Java keywords get a trailing '_'. The fields of a component's
+ * data type are inlined into the component class.
+ */
+public class SchemaJavaEmitter {
+    private static final Map<String, String> PRIMITIVE_TYPES = new HashMap<>();
+    private static final Map<String, String> BOXED_TYPES = new HashMap<>();
+    private static final Set<String> JAVA_KEYWORDS = new HashSet<>(Arrays.asList(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+        "default", "do", "double", "else", "enum", "extends", "false", "final", "finally", "float", "for", "goto", "if",
+        "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "null", "package",
+        "private", "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized",
+        "this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while", "_"));
+
+    static {
+        addPrimitive("double", "double", "Double");
+        addPrimitive("float", "float", "Float");
+        addPrimitive("bool", "boolean", "Boolean");
+        for (String type : new String[]{"int32", "uint32", "sint32", "fixed32", "sfixed32"}) {
+            addPrimitive(type, "int", "Integer");
+        }
+        for (String type : new String[]{"int64", "uint64", "sint64", "fixed64", "sfixed64", "EntityId"}) {
+            addPrimitive(type, "long", "Long");
+        }
+        addPrimitive("string", "String", "String");
+        addPrimitive("bytes", "byte[]", "byte[]");
+        for (String type : new String[]{"EntityPosition", "Coordinates", "Vector3d", "Vector3f"}) {
+            addPrimitive(type, "improbable.math." + type, "improbable.math." + type);
+        }
+    }
+
+    private static void addPrimitive(String schemaType, String javaType, String boxedType) {
+        PRIMITIVE_TYPES.put(schemaType, javaType);
+        BOXED_TYPES.put(schemaType, boxedType);
+    }
+
+    public static @NotNull String getOutputPath(@NotNull SchemaFileSummary file, @NotNull SchemaDefinition definition) {
+        String directory = file.packageName.isEmpty() ? "" : file.packageName.replace('.', '/') + "/";
+        return directory + getClassName(definition.name) + ".java";
+    }
+
+    public static @NotNull String emit(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                       @NotNull SchemaDefinition definition) {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated from schema. Do not edit.\n");
+        if (!file.packageName.isEmpty()) {
+            out.append("package ").append(file.packageName).append(";\n");
+        }
+        out.append('\n');
+        String className = getClassName(definition.name);
+        switch (definition.kind) {
+            case ENUM:
+                out.append("public enum ").append(className).append(" {\n");
+                for (SchemaField field : definition.fields) {
+                    out.append("    ").append(escape(field.name)).append('(').append(field.number).append("),\n");
+                }
+                out.append("    ;\n\n    public final int value;\n\n    ").append(className)
+                    .append("(int value) {\n        this.value = value;\n    }\n}\n");
+                break;
+            case TYPE:
+                out.append("public class ").append(className).append(" {\n");
+                emitFields(out, resolver, file, definition);
+                out.append("}\n");
+                break;
+            case COMPONENT:
+                out.append("public class ").append(className).append(" {\n");
+                out.append("    public static final int COMPONENT_ID = ").append(definition.componentId).append(";\n");
+                emitFields(out, resolver, file, definition);
+                for (SchemaField field : definition.fields) {
+                    if (field.kind == SchemaField.Kind.DATA) {
+                        SchemaTypeResolver.Entry data = resolve(resolver, file, definition, field.typeName);
+                        if (data != null) {
+                            emitFields(out, resolver, data.file, data.definition);
+                        }
+                    }
+                }
+                out.append("\n    public interface Events {\n");
+                for (SchemaField field : definition.fields) {
+                    if (field.kind == SchemaField.Kind.EVENT) {
+                        out.append("        void ").append(escape(field.name)).append('(')
+                            .append(getJavaType(resolver, file, definition, field.typeName, false))
+                            .append(" event);\n");
+                    }
+                }
+                out.append("    }\n}\n");
+                break;
+        }
+        return out.toString();
+    }
+
+    private static void emitFields(@NotNull StringBuilder out, @NotNull SchemaTypeResolver resolver,
+                                   @NotNull SchemaFileSummary file, @NotNull SchemaDefinition definition) {
+        for (SchemaField field : definition.fields) {
+            if (field.kind != SchemaField.Kind.FIELD) {
+                continue;
+            }
+            out.append("    /** Field ").append(field.number).append(". */\n    public ")
+                .append(getJavaType(resolver, file, definition, field)).append(' ').append(escape(field.name))
+                .append(";\n");
+        }
+    }
+
+    private static @NotNull String getJavaType(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                               @NotNull SchemaDefinition definition, @NotNull SchemaField field) {
+        if ("option".equals(field.typeName) && field.typeParameters.size() == 1) {
+            return "java.util.Optional<" +
+                getJavaType(resolver, file, definition, field.typeParameters.get(0), true) + ">";
+        }
+        if ("list".equals(field.typeName) && field.typeParameters.size() == 1) {
+            return "java.util.List<" +
+                getJavaType(resolver, file, definition, field.typeParameters.get(0), true) + ">";
+        }
+        if ("map".equals(field.typeName) && field.typeParameters.size() == 2) {
+            return "java.util.Map<" +
+                getJavaType(resolver, file, definition, field.typeParameters.get(0), true) + ", " +
+                getJavaType(resolver, file, definition, field.typeParameters.get(1), true) + ">";
+        }
+        return getJavaType(resolver, file, definition, field.typeName, false);
+    }
+
+    private static @NotNull String getJavaType(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                               @NotNull SchemaDefinition definition, @Nullable String typeName,
+                                               boolean boxed) {
+        if (typeName == null) {
+            return "Object";
+        }
+        String builtIn = boxed ? BOXED_TYPES.get(typeName) : PRIMITIVE_TYPES.get(typeName);
+        if (builtIn != null) {
+            return builtIn;
+        }
+        SchemaTypeResolver.Entry entry = resolve(resolver, file, definition, typeName);
+        if (entry == null) {
+            return "Object";
+        }
+        String className = getClassName(entry.definition.name);
+        return entry.file.packageName.isEmpty() ? className : entry.file.packageName + "." + className;
+    }
+
+    private static @Nullable SchemaTypeResolver.Entry resolve(@NotNull SchemaTypeResolver resolver,
+                                                              @NotNull SchemaFileSummary file,
+                                                              @NotNull SchemaDefinition definition,
+                                                              @Nullable String typeName) {
+        if (typeName == null) {
+            return null;
+        }
+        String qualifiedName = resolver.resolve(file.packageName, definition.name, typeName);
+        return qualifiedName == null ? null : resolver.get(qualifiedName);
+    }
+
+    /**
+     * Schema identifiers never start with a digit, so "_1" cannot come from a '.' and the mapping is unambiguous.
+     */
+    private static @NotNull String getClassName(@NotNull String definitionName) {
+        return escape(definitionName.replace("_", "_1").replace('.', '_'));
+    }
+
+    private static @NotNull String escape(@NotNull String name) {
+        return JAVA_KEYWORDS.contains(name) ? name + "_" : name;
+    }
+}
@@ -0,0 +1,23 @@
+package com.improbable.spatialos.schema.intellij.compat;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A schema model to check compatibility against. Definitions are read one at a time, with user-defined type names
+ * fully qualified with a leading '.' as in a schema bundle. A baseline that is read from source resolves type names
+ * against {@code current}, the model it is compared with, which also holds the files outside the baseline such as the
+ * SDK's.
+ */
+public interface SchemaBaseline {
+    interface Visitor {
+        void visit(@NotNull String qualifiedName, @NotNull SchemaDefinition definition);
+    }
+
+    @NotNull String getDescription();
+
+    void forEachDefinition(@NotNull SchemaTypeResolver current, @NotNull Visitor visitor) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.improbable.spatialos.schema.intellij.compat;
+
+import com.improbable.spatialos.schema.intellij.bundle.SchemaBundleReader;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A baseline read from a saved schema bundle. The bundle is mapped rather than loaded, and each definition is decoded
+ * only when it is visited.
+ */
+public class SchemaBundleBaseline implements SchemaBaseline {
+    private final File file;
+
+    public SchemaBundleBaseline(@NotNull File file) {
+        this.file = file;
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return file.getPath();
+    }
+
+    @Override
+    public void forEachDefinition(@NotNull SchemaTypeResolver current, @NotNull Visitor visitor) throws IOException {
+        SchemaBundleReader reader = SchemaBundleReader.map(file);
+        for (int i = 0; i < reader.getDefinitionCount(); ++i) {
+            SchemaBundleReader.Entry entry = reader.getDefinition(i);
+            visitor.visit(entry.getQualifiedName(), entry.definition);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.improbable.spatialos.schema.intellij.compat;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.improbable.spatialos.schema.intellij.index.SchemaGlobMatcher;
+import com.improbable.spatialos.schema.intellij.index.SchemaPathFilters;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the current schema model with a baseline of what is live, and reports every change that breaks
+ * compatibility with it: removed components, fields, events and enum values, renumbered components, fields and enum
+ * values, changed types, and component IDs or field numbers reused for something else. Added definitions are
+ * compatible and are not reported. Only the current model is indexed; the baseline is streamed past it.
+ */
+public class SchemaCompatibilityChecker {
+    public static class Change {
+        public final SchemaProblem.Severity severity;
+        public final String definition;
+        public final String message;
+        /** The file of the current definition, or null if it was removed. */
+        public final @Nullable VirtualFile file;
+        public final int offset;
+
+        Change(@NotNull SchemaProblem.Severity severity, @NotNull String definition, @NotNull String message,
+               @Nullable Current current) {
+            this.severity = severity;
+            this.definition = definition;
+            this.message = message;
+            this.file = current == null ? null : current.file;
+            this.offset = current == null ? 0 : current.definition.offset;
+        }
+    }
+
+    public static class Result {
+        public final List<Change> changes;
+        public final int baselineDefinitionCount;
+        public final long nanos;
+
+        Result(@NotNull List<Change> changes, int baselineDefinitionCount, long nanos) {
+            this.changes = changes;
+            this.baselineDefinitionCount = baselineDefinitionCount;
+            this.nanos = nanos;
+        }
+
+        public boolean hasErrors() {
+            for (Change change : changes) {
+                if (change.severity == SchemaProblem.Severity.ERROR) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Current {
+        final VirtualFile file;
+        final SchemaDefinition definition;
+
+        Current(@NotNull VirtualFile file, @NotNull SchemaDefinition definition) {
+            this.file = file;
+            this.definition = definition;
+        }
+    }
+
+    private final SchemaTypeResolver resolver;
+    private final Map<String, Current> definitions = new HashMap<>();
+    private final Map<Integer, String> componentNames = new HashMap<>();
+    private final List<Change> changes = new ArrayList<>();
+
+    private SchemaCompatibilityChecker(@NotNull Map<VirtualFile, SchemaFileSummary> current) {
+        resolver = new SchemaTypeResolver(current.values());
+        for (Map.Entry<VirtualFile, SchemaFileSummary> entry : current.entrySet()) {
+            SchemaFileSummary summary = entry.getValue();
+            for (SchemaDefinition definition : summary.definitions) {
+                String qualifiedName = definition.getQualifiedName(summary.packageName);
+                definitions.putIfAbsent(qualifiedName, new Current(entry.getKey(),
+                                                                   qualify(resolver, summary, definition)));
+                if (definition.kind == SchemaDefinition.Kind.COMPONENT &&
+                    definition.componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                    componentNames.putIfAbsent(definition.componentId, qualifiedName);
+                }
+            }
+        }
+    }
+
+    public static @NotNull Result check(@NotNull Map<VirtualFile, SchemaFileSummary> current,
+                                        @NotNull SchemaBaseline baseline, @Nullable ProgressIndicator indicator)
+            throws IOException {
+        long start = System.nanoTime();
+        SchemaCompatibilityChecker checker = new SchemaCompatibilityChecker(current);
+        int[] count = {0};
+        baseline.forEachDefinition(checker.resolver, (qualifiedName, definition) -> {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            ++count[0];
+            checker.checkDefinition(qualifiedName, definition);
+        });
+        return new Result(checker.changes, count[0], System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the baseline named by {@code spec}: a schema bundle if it is an existing file, relative to the project
+     * directory or absolute, and otherwise a revision of the git repository the project is in.
+     */
+    public static @NotNull SchemaBaseline createBaseline(@NotNull Project project, @NotNull String spec) {
+        String basePath = project.getBasePath();
+        File bundle = SchemaPathFilters.resolve(basePath, spec).toFile();
+        if (bundle.isFile()) {
+            return new SchemaBundleBaseline(bundle);
+        }
+        Path directory = SchemaPathFilters.resolve(basePath, ".");
+        SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+        List<String> paths = new ArrayList<>();
+        paths.add(".");
+        for (String schemaPath : settings.schemaPaths) {
+            Path root = SchemaPathFilters.resolve(basePath, schemaPath);
+            // Schema paths outside the project directory may be outside the repository too, so they are skipped.
+            if (root.startsWith(directory) && !root.equals(directory)) {
+                paths.add(directory.relativize(root).toString().replace('\\', '/'));
+            }
+        }
+        Map<Path, SchemaGlobMatcher> filters = SchemaPathFilters.compile(basePath, settings);
+        return new SchemaGitBaseline(directory.toFile(), spec.trim(), paths,
+                                     path -> SchemaPathFilters.accepts(filters, directory.resolve(path)));
+    }
+
+    /**
+     * Returns the definition with the user-defined type names of its fields fully qualified with a leading '.'.
+     */
+    static @NotNull SchemaDefinition qualify(@NotNull SchemaTypeResolver resolver, @NotNull SchemaFileSummary file,
+                                             @NotNull SchemaDefinition definition) {
+        List<SchemaField> fields = new ArrayList<>(definition.fields.size());
+        for (SchemaField field : definition.fields) {
+            List<String> typeParameters = new ArrayList<>(field.typeParameters.size());
+            for (String typeParameter : field.typeParameters) {
+                typeParameters.add(resolver.qualify(file, definition, typeParameter));
+            }
+            fields.add(new SchemaField(field.kind, field.name, field.number,
+                                       resolver.qualify(file, definition, field.typeName), typeParameters));
+        }
+        return new SchemaDefinition(definition.kind, definition.name, definition.componentId, definition.offset,
+                                    fields);
+    }
+
+    private void checkDefinition(@NotNull String name, @NotNull SchemaDefinition baseline) {
+        Current current = definitions.get(name);
+        if (baseline.kind == SchemaDefinition.Kind.COMPONENT &&
+            baseline.componentId != SchemaDefinition.NO_COMPONENT_ID) {
+            String user = componentNames.get(baseline.componentId);
+            if (user != null && !user.equals(name)) {
+                report(SchemaProblem.Severity.ERROR, name, definitions.get(user), "Component ID " +
+                       baseline.componentId + " of '" + name + "' is now used by '" + user + "'.");
+            }
+        }
+        if (current == null) {
+            report(baseline.kind == SchemaDefinition.Kind.COMPONENT ? SchemaProblem.Severity.ERROR :
+                       SchemaProblem.Severity.WARNING, name, null, describe(baseline.kind) + " '" + name +
+                   "' was removed.");
+            return;
+        }
+        if (current.definition.kind != baseline.kind) {
+            report(SchemaProblem.Severity.ERROR, name, current, "'" + name + "' changed from " +
+                   describe(baseline.kind).toLowerCase() + " to " + describe(current.definition.kind).toLowerCase() +
+                   ".");
+            return;
+        }
+        if (baseline.kind == SchemaDefinition.Kind.COMPONENT &&
+            current.definition.componentId != baseline.componentId) {
+            report(SchemaProblem.Severity.ERROR, name, current, "Component '" + name + "' was renumbered from ID " +
+                   baseline.componentId + " to " + current.definition.componentId + ".");
+        }
+        checkNumberedFields(name, baseline, current, SchemaField.Kind.FIELD);
+        checkNumberedFields(name, baseline, current, SchemaField.Kind.ENUM_VALUE);
+        checkData(name, baseline, current);
+        checkEvents(name, baseline, current);
+    }
+
+    private void checkNumberedFields(@NotNull String name, @NotNull SchemaDefinition baseline,
+                                     @NotNull Current current, @NotNull SchemaField.Kind kind) {
+        Map<Integer, SchemaField> byNumber = new HashMap<>();
+        Map<String, SchemaField> byName = new HashMap<>();
+        for (SchemaField field : current.definition.fields) {
+            if (field.kind == kind) {
+                byNumber.putIfAbsent(field.number, field);
+                byName.putIfAbsent(field.name, field);
+            }
+        }
+        String noun = kind == SchemaField.Kind.FIELD ? "Field" : "Enum value";
+        for (SchemaField field : baseline.fields) {
+            if (field.kind != kind) {
+                continue;
+            }
+            SchemaField now = byNumber.get(field.number);
+            if (now == null) {
+                SchemaField renamed = byName.get(field.name);
+                report(SchemaProblem.Severity.ERROR, name, current, renamed != null ?
+                    noun + " '" + field.name + "' of '" + name + "' was renumbered from " + field.number + " to " +
+                        renamed.number + "." :
+                    noun + " '" + field.name + "' (" + field.number + ") of '" + name + "' was removed.");
+            } else if (kind == SchemaField.Kind.ENUM_VALUE) {
+                if (!now.name.equals(field.name)) {
+                    report(SchemaProblem.Severity.ERROR, name, current, "Enum value " + field.number + " of '" +
+                           name + "' changed from '" + field.name + "' to '" + now.name + "'.");
+                }
+            } else if (!now.getTypeText().equals(field.getTypeText())) {
+                report(SchemaProblem.Severity.ERROR, name, current, now.name.equals(field.name) ?
+                    "Field '" + field.name + "' of '" + name + "' changed type from " + field.getTypeText() +
+                        " to " + now.getTypeText() + "." :
+                    "Field number " + field.number + " of '" + name + "' was reused: '" + field.name + "' (" +
+                        field.getTypeText() + ") is now '" + now.name + "' (" + now.getTypeText() + ").");
+            } else if (!now.name.equals(field.name)) {
+                report(SchemaProblem.Severity.WARNING, name, current, "Field " + field.number + " of '" + name +
+                       "' was renamed from '" + field.name + "' to '" + now.name + "'.");
+            }
+        }
+    }
+
+    private void checkData(@NotNull String name, @NotNull SchemaDefinition baseline, @NotNull Current current) {
+        SchemaField before = findData(baseline);
+        if (before == null) {
+            return;
+        }
+        SchemaField now = findData(current.definition);
+        if (now == null) {
+            report(SchemaProblem.Severity.ERROR, name, current, "The data of component '" + name + "' (" +
+                   before.getTypeText() + ") was removed.");
+        } else if (!now.getTypeText().equals(before.getTypeText())) {
+            report(SchemaProblem.Severity.ERROR, name, current, "The data of component '" + name +
+                   "' changed type from " + before.getTypeText() + " to " + now.getTypeText() + ".");
+        }
+    }
+
+    private static @Nullable SchemaField findData(@NotNull SchemaDefinition definition) {
+        for (SchemaField field : definition.fields) {
+            if (field.kind == SchemaField.Kind.DATA) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Events are identified on the wire by their position among the component's events, so they are compared in
+     * order.
+     */
+    private void checkEvents(@NotNull String name, @NotNull SchemaDefinition baseline, @NotNull Current current) {
+        List<SchemaField> events = new ArrayList<>();
+        for (SchemaField field : current.definition.fields) {
+            if (field.kind == SchemaField.Kind.EVENT) {
+                events.add(field);
+            }
+        }
+        int index = 0;
+        for (SchemaField event : baseline.fields) {
+            if (event.kind != SchemaField.Kind.EVENT) {
+                continue;
+            }
+            if (index >= events.size()) {
+                report(SchemaProblem.Severity.ERROR, name, current, "Event '" + event.name + "' (" + (index + 1) +
+                       ") of '" + name + "' was removed.");
+            } else {
+                SchemaField now = events.get(index);
+                if (!now.getTypeText().equals(event.getTypeText())) {
+                    report(SchemaProblem.Severity.ERROR, name, current, "Event " + (index + 1) + " of '" + name +
+                           "' changed from '" + event.name + "' (" + event.getTypeText() + ") to '" + now.name +
+                           "' (" + now.getTypeText() + ").");
+                } else if (!now.name.equals(event.name)) {
+                    report(SchemaProblem.Severity.WARNING, name, current, "Event " + (index + 1) + " of '" + name +
+                           "' was renamed from '" + event.name + "' to '" + now.name + "'.");
+                }
+            }
+            ++index;
+        }
+    }
+
+    private void report(@NotNull SchemaProblem.Severity severity, @NotNull String definition,
+                        @Nullable Current current, @NotNull String message) {
+        changes.add(new Change(severity, definition, message, current));
+    }
+
+    private static @NotNull String describe(@NotNull SchemaDefinition.Kind kind) {
+        switch (kind) {
+            case COMPONENT:
+                return "Component";
+            case ENUM:
+                return "Enum";
+            default:
+                return "Type";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.improbable.spatialos.schema.intellij.compat;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A baseline read from the schema files at another revision of the local git repository. The files are streamed one
+ * at a time through a single {@code git cat-file --batch} process, and each file is summarised from its text without
+ * building a syntax tree and visited before the next is read, so neither the tree's text nor its summaries are held.
+ * <p>
+ * Only files in the repository are read, so type names are resolved against the current model, which also has the
+ * SDK and other schema outside the repository. A type that still exists resolves to the same name on both sides.
+ */
+public class SchemaGitBaseline implements SchemaBaseline {
+    private static final String EXTENSION = "." + SchemaFileType.SCHEMA_FILE_TYPE.getDefaultExtension();
+
+    private final File directory;
+    private final String revision;
+    private final List<String> paths;
+    private final Predicate<String> accepts;
+
+    /**
+     * {@code paths} and the paths passed to {@code accepts} are relative to {@code directory}.
+     */
+    public SchemaGitBaseline(@NotNull File directory, @NotNull String revision, @NotNull List<String> paths,
+                             @NotNull Predicate<String> accepts) {
+        this.directory = directory;
+        this.revision = revision;
+        this.paths = paths;
+        this.accepts = accepts;
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return "git revision " + revision;
+    }
+
+    @Override
+    public void forEachDefinition(@NotNull SchemaTypeResolver current, @NotNull Visitor visitor) throws IOException {
+        Process process = new ProcessBuilder("git", "cat-file", "--batch").directory(directory)
+            .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (OutputStream requests = process.getOutputStream();
+             InputStream objects = new BufferedInputStream(process.getInputStream())) {
+            for (String path : listFiles()) {
+                requests.write((revision + ":./" + path + "\n").getBytes(StandardCharsets.UTF_8));
+                requests.flush();
+                // Each reply is "<object> blob <size>\n<content>\n", or "<name> missing\n".
+                String[] header = readLine(objects).split(" ");
+                if (header.length != 3 || !header[1].equals("blob")) {
+                    continue;
+                }
+                byte[] content = new byte[Integer.parseInt(header[2])];
+                for (int read = 0; read < content.length; ) {
+                    int count = objects.read(content, read, content.length - read);
+                    if (count < 0) {
+                        throw new EOFException("git cat-file ended in the middle of " + path + ".");
+                    }
+                    read += count;
+                }
+                objects.read();
+                SchemaFileSummary summary = SchemaSummaryBuilder.build(new String(content, StandardCharsets.UTF_8));
+                for (SchemaDefinition definition : summary.definitions) {
+                    visitor.visit(definition.getQualifiedName(summary.packageName),
+                                  SchemaCompatibilityChecker.qualify(current, summary, definition));
+                }
+            }
+        } finally {
+            process.destroy();
+        }
+    }
+
+    private @NotNull Set<String> listFiles() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("ls-tree");
+        command.add("-r");
+        command.add("-z");
+        command.add("--name-only");
+        command.add(revision);
+        command.add("--");
+        command.addAll(paths);
+        Process process = new ProcessBuilder(command).directory(directory)
+            .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Set<String> files = new LinkedHashSet<>();
+        try (InputStream output = new BufferedInputStream(process.getInputStream())) {
+            ByteArrayOutputStream name = new ByteArrayOutputStream();
+            for (int b = output.read(); b >= 0; b = output.read()) {
+                if (b != 0) {
+                    name.write(b);
+                    continue;
+                }
+                String path = new String(name.toByteArray(), StandardCharsets.UTF_8);
+                if (path.endsWith(EXTENSION) && accepts.test(path)) {
+                    files.add(path);
+                }
+                name.reset();
+            }
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("git ls-tree failed for revision '" + revision + "'.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while listing revision '" + revision + "'.", e);
+        }
+        return files;
+    }
+
+    private static @NotNull String readLine(@NotNull InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = input.read(); b != '\n'; b = input.read()) {
+            if (b < 0) {
+                throw new EOFException("git cat-file ended unexpectedly.");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
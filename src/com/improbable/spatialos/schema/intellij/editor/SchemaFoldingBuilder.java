@@ -0,0 +1,60 @@
+package com.improbable.spatialos.schema.intellij.editor;
+
+import com.improbable.spatialos.schema.intellij.parser.SchemaLexer;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.folding.FoldingBuilderEx;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Folds multi-line brace blocks by matching brace tokens, so it works the same on the flat tree of a file in
+ * large-file mode as on a fully parsed one.
+ */
+public class SchemaFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+    @Override
+    public @NotNull FoldingDescriptor[] buildFoldRegions(@NotNull PsiElement root, @NotNull Document document,
+                                                         boolean quick) {
+        List<FoldingDescriptor> descriptors = new ArrayList<>();
+        addFoldRegions(root.getNode(), document, new ArrayDeque<>(), descriptors);
+        return descriptors.toArray(new FoldingDescriptor[0]);
+    }
+
+    private static void addFoldRegions(@NotNull ASTNode node, @NotNull Document document,
+                                       @NotNull Deque<ASTNode> openBraces,
+                                       @NotNull List<FoldingDescriptor> descriptors) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == SchemaLexer.LBRACE) {
+                openBraces.push(child);
+            } else if (child.getElementType() == SchemaLexer.RBRACE && !openBraces.isEmpty()) {
+                ASTNode open = openBraces.pop();
+                int start = open.getStartOffset();
+                int end = child.getStartOffset() + 1;
+                if (document.getLineNumber(start) != document.getLineNumber(end)) {
+                    descriptors.add(new FoldingDescriptor(open, new TextRange(start, end)));
+                }
+            } else if (child.getFirstChildNode() != null) {
+                addFoldRegions(child, document, openBraces, descriptors);
+            }
+        }
+    }
+
+    @Override
+    public @Nullable String getPlaceholderText(@NotNull ASTNode node) {
+        return "{...}";
+    }
+
+    @Override
+    public boolean isCollapsedByDefault(@NotNull ASTNode node) {
+        return false;
+    }
+}
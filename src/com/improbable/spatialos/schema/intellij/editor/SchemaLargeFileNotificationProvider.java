@@ -0,0 +1,55 @@
+package com.improbable.spatialos.schema.intellij.editor;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.options.ShowSettingsUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.EditorNotificationPanel;
+import com.intellij.ui.EditorNotifications;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Tells the user when a schema file is in large-file mode and offers to turn full analysis back on, or off again.
+ */
+public class SchemaLargeFileNotificationProvider extends EditorNotifications.Provider<EditorNotificationPanel> {
+    private static final Key<EditorNotificationPanel> KEY = Key.create("spatialos.schema.largeFile");
+
+    private final Project project;
+
+    public SchemaLargeFileNotificationProvider(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public @NotNull Key<EditorNotificationPanel> getKey() {
+        return KEY;
+    }
+
+    @Override
+    public @Nullable EditorNotificationPanel createNotificationPanel(@NotNull VirtualFile file,
+                                                                     @NotNull FileEditor fileEditor) {
+        if (file.getFileType() != SchemaFileType.SCHEMA_FILE_TYPE ||
+            !SchemaLargeFileMode.isLarge(project, file.getLength())) {
+            return null;
+        }
+        EditorNotificationPanel panel = new EditorNotificationPanel();
+        if (SchemaLargeFileMode.isFullAnalysisEnabled(file)) {
+            panel.setText("Full analysis is on for this large schema file.");
+            panel.createActionLabel("Use large-file mode",
+                                    () -> SchemaLargeFileMode.setFullAnalysisEnabled(project, file, false));
+        } else {
+            panel.setText("This schema file is over " + SchemaLargeFileMode.getThresholdKb(project) +
+                          " KB, so it only has lexer highlighting, folding and navigation.");
+            panel.createActionLabel("Enable full analysis",
+                                    () -> SchemaLargeFileMode.setFullAnalysisEnabled(project, file, true));
+        }
+        panel.createActionLabel("Change threshold", () -> ShowSettingsUtil.getInstance().showSettingsDialog(
+            project, SchemaLanguage.LANGUAGE_ID));
+        return panel;
+    }
+}
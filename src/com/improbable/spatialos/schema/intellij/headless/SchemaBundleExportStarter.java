@@ -0,0 +1,40 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.improbable.spatialos.schema.intellij.bundle.SchemaBundleWriter;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.intellij.openapi.application.ApplicationStarter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes a schema bundle for a project without the IDE UI: {@code idea schema-bundle <project> <output>}.
+ */
+public class SchemaBundleExportStarter implements ApplicationStarter {
+    private static final String COMMAND_NAME = "schema-bundle";
+
+    @Override
+    public @NotNull String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        if (args.length != 3) {
+            SchemaHeadless.printUsage(COMMAND_NAME, "<project path> <output file>");
+            System.exit(1);
+        }
+        SchemaHeadless.run(args[1], project -> {
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(args[2]))) {
+                SchemaBundleWriter.write(SchemaSummaryCache.getInstance(project).getAllSummaries().values(), output);
+            }
+            return 0;
+        });
+    }
+}
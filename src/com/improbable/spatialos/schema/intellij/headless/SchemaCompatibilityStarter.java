@@ -0,0 +1,45 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.improbable.spatialos.schema.intellij.compat.SchemaBaseline;
+import com.improbable.spatialos.schema.intellij.compat.SchemaCompatibilityChecker;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.intellij.openapi.application.ApplicationStarter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Checks a project's schema against a baseline without the IDE UI:
+ * {@code idea schema-compat <project> <bundle file or git revision>}. Exits with 1 if any change is incompatible.
+ */
+public class SchemaCompatibilityStarter implements ApplicationStarter {
+    private static final String COMMAND_NAME = "schema-compat";
+
+    @Override
+    public @NotNull String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        if (args.length != 3) {
+            SchemaHeadless.printUsage(COMMAND_NAME, "<project path> <bundle file or git revision>");
+            System.exit(1);
+        }
+        SchemaHeadless.run(args[1], project -> {
+            SchemaBaseline baseline = SchemaCompatibilityChecker.createBaseline(project, args[2]);
+            SchemaCompatibilityChecker.Result result = SchemaCompatibilityChecker.check(
+                SchemaSummaryCache.getInstance(project).getAllSummaries(), baseline, null);
+            for (SchemaCompatibilityChecker.Change change : result.changes) {
+                System.out.printf("%s: %s%s%n", change.severity.name().toLowerCase(),
+                                  change.file == null ? "" : change.file.getPath() + ": ", change.message);
+            }
+            System.out.printf("Compared %d definitions against %s in %d ms, %d changes.%n",
+                              result.baselineDefinitionCount, baseline.getDescription(), result.nanos / 1000000,
+                              result.changes.size());
+            return result.hasErrors() ? 1 : 0;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * Shared plumbing for the headless schema commands, which all open a project, wait for indexing and run against it.
+ */
+public class SchemaHeadless {
+    public interface Command {
+        int run(@NotNull Project project) throws Exception;
+    }
+
+    public static void run(@NotNull String projectPath, @NotNull Command command) {
+        int exitCode = 1;
+        Project project = null;
+        try {
+            project = ProjectManager.getInstance().loadAndOpenProject(new File(projectPath).getAbsolutePath());
+            if (project == null) {
+                System.err.println("Could not open project " + projectPath + ".");
+            } else {
+                DumbService.getInstance(project).waitForSmartMode();
+                exitCode = command.run(project);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (project != null) {
+                Project openProject = project;
+                ApplicationManager.getApplication().invokeAndWait(
+                    () -> ProjectManager.getInstance().closeProject(openProject),
+                    ApplicationManager.getApplication().getDefaultModalityState());
+            }
+        }
+        exit(exitCode);
+    }
+
+    public static void exit(int exitCode) {
+        System.out.flush();
+        ApplicationManagerEx.getApplicationEx().exit(true, true);
+        System.exit(exitCode);
+    }
+
+    public static void printUsage(@NotNull String commandName, @NotNull String arguments) {
+        System.err.println("Usage: " + commandName + " " + arguments);
+    }
+}
@@ -0,0 +1,58 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaBatchInspector;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaInspectionReport;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.improbable.spatialos.schema.intellij.index.SchemaFiles;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+
+/**
+ * Runs all schema inspections for a project without the IDE UI:
+ * {@code idea schema-inspect <project> <output> [--sarif]}. Exits with 1 if any errors were found.
+ */
+public class SchemaInspectStarter implements ApplicationStarter {
+    private static final String COMMAND_NAME = "schema-inspect";
+
+    @Override
+    public @NotNull String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        if (args.length < 3 || args.length > 4 || (args.length == 4 && !args[3].equals("--sarif"))) {
+            SchemaHeadless.printUsage(COMMAND_NAME, "<project path> <output file> [--sarif]");
+            System.exit(1);
+        }
+        boolean sarif = args.length == 4;
+        SchemaHeadless.run(args[1], project -> {
+            Collection<VirtualFile> files = ApplicationManager.getApplication().runReadAction(
+                (Computable<Collection<VirtualFile>>) () -> SchemaFiles.getAllSchemaFiles(project));
+            SchemaBatchInspector.Result result = SchemaBatchInspector.inspect(project, files, null);
+            String report = sarif ? SchemaInspectionReport.toSarif(result) : SchemaInspectionReport.toJson(result);
+            Files.write(new File(args[2]).toPath(), report.getBytes(StandardCharsets.UTF_8));
+            System.out.printf("Inspected %d schema files in %d ms (%.1f files/s), %d problems.%n",
+                              result.fileCount, result.nanos / 1000000, result.getFilesPerSecond(),
+                              result.problems.size());
+            for (SchemaBatchInspector.Problem problem : result.problems) {
+                if (problem.severity == SchemaProblem.Severity.ERROR) {
+                    return 1;
+                }
+            }
+            return 0;
+        });
+    }
+}
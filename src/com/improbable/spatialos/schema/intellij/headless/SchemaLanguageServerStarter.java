@@ -0,0 +1,60 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaGlobMatcher;
+import com.improbable.spatialos.schema.intellij.index.SchemaPathFilters;
+import com.improbable.spatialos.schema.intellij.lsp.SchemaLanguageServer;
+import com.improbable.spatialos.schema.intellij.lsp.SchemaLspConnection;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.application.ApplicationStarter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the schema language server over stdin and stdout: {@code idea schema-lsp <project>}. The configured schema
+ * paths and the project directory itself are loaded into the server's model before the first request is read.
+ */
+public class SchemaLanguageServerStarter implements ApplicationStarter {
+    private static final String COMMAND_NAME = "schema-lsp";
+
+    @Override
+    public @NotNull String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        if (args.length != 2) {
+            SchemaHeadless.printUsage(COMMAND_NAME, "<project path>");
+            System.exit(1);
+        }
+        // The protocol owns stdout; anything else the platform prints must not corrupt it.
+        PrintStream protocolOutput = System.out;
+        System.setOut(System.err);
+        SchemaHeadless.run(args[1], project -> {
+            SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+            List<Path> roots = new ArrayList<>();
+            String basePath = project.getBasePath();
+            for (String schemaPath : settings.schemaPaths) {
+                roots.add(SchemaPathFilters.resolve(basePath, schemaPath));
+            }
+            if (basePath != null) {
+                roots.add(new File(basePath).toPath());
+            }
+            Map<Path, SchemaGlobMatcher> filters = SchemaPathFilters.compile(basePath, settings);
+            SchemaLanguageServer server = new SchemaLanguageServer(new SchemaLspConnection(System.in, protocolOutput));
+            server.load(roots, path -> SchemaPathFilters.accepts(filters, path));
+            return server.run();
+        });
+    }
+}
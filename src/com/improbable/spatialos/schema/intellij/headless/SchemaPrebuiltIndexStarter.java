@@ -0,0 +1,50 @@
+package com.improbable.spatialos.schema.intellij.headless;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaPrebuiltIndex;
+import com.intellij.openapi.application.ApplicationStarter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Builds a prebuilt summary archive for a schema root, e.g. when packaging an SDK:
+ * {@code idea schema-prebuilt-index <schema root> <version> [output]}. The archive is written into the root by
+ * default, which is where projects look for it.
+ */
+public class SchemaPrebuiltIndexStarter implements ApplicationStarter {
+    private static final String COMMAND_NAME = "schema-prebuilt-index";
+
+    @Override
+    public @NotNull String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            SchemaHeadless.printUsage(COMMAND_NAME, "<schema root> <version> [output file]");
+            System.exit(1);
+        }
+        File root = new File(args[1]).getAbsoluteFile();
+        File output = args.length == 4 ? new File(args[3]) : new File(root, SchemaPrebuiltIndex.FILE_NAME);
+        int exitCode = 1;
+        try {
+            SchemaPrebuiltIndex index = SchemaPrebuiltIndex.build(root.toPath(), args[2]);
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+                index.write(out);
+            }
+            System.out.printf("Wrote %d schema files of %s to %s.%n", index.files.size(), args[2], output);
+            exitCode = 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        SchemaHeadless.exit(exitCode);
+    }
+}
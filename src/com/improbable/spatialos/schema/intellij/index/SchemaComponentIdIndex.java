@@ -0,0 +1,191 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Maps every component ID to the fully qualified name and offset of the component that declares it, so components can
+ * be found by ID without parsing any file.
+ */
+public class SchemaComponentIdIndex extends FileBasedIndexExtension<Integer, SchemaComponentIdIndex.Location> {
+    public static final ID<Integer, Location> NAME = ID.create("spatialos.schema.componentIds");
+    private static final Key<CachedComponentIds> COMPONENT_IDS = Key.create("spatialos.schema.allComponentIds");
+
+    public static class Location {
+        public final @NotNull String qualifiedName;
+        public final int offset;
+
+        public Location(@NotNull String qualifiedName, int offset) {
+            this.qualifiedName = qualifiedName;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Location)) {
+                return false;
+            }
+            Location location = (Location) other;
+            return offset == location.offset && qualifiedName.equals(location.qualifiedName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * qualifiedName.hashCode() + offset;
+        }
+    }
+
+    public static class Match {
+        public final @NotNull VirtualFile file;
+        public final @NotNull Location location;
+
+        public Match(@NotNull VirtualFile file, @NotNull Location location) {
+            this.file = file;
+            this.location = location;
+        }
+    }
+
+    private static class CachedComponentIds {
+        final Collection<Integer> componentIds;
+        final GlobalSearchScope scope;
+        final SchemaPrebuiltIndexes prebuiltIndexes;
+        final long psiModificationCount;
+        final long vfsModificationCount;
+
+        CachedComponentIds(Collection<Integer> componentIds, GlobalSearchScope scope,
+                           SchemaPrebuiltIndexes prebuiltIndexes, long psiModificationCount,
+                           long vfsModificationCount) {
+            this.componentIds = componentIds;
+            this.scope = scope;
+            this.prebuiltIndexes = prebuiltIndexes;
+            this.psiModificationCount = psiModificationCount;
+            this.vfsModificationCount = vfsModificationCount;
+        }
+    }
+
+    public static @NotNull List<Match> find(@NotNull Project project, int componentId) {
+        List<Match> matches = new ArrayList<>();
+        FileBasedIndex.getInstance().processValues(NAME, componentId, null, (file, location) -> {
+            matches.add(new Match(file, location));
+            return true;
+        }, SchemaFiles.getSchemaScope(project));
+        // A root can still be indexed while its archive is being published, so skip files the index already found.
+        Set<VirtualFile> indexedFiles = new HashSet<>();
+        for (Match match : matches) {
+            indexedFiles.add(match.file);
+        }
+        for (Match match : SchemaPrebuiltIndexes.getInstance(project).findComponents(componentId)) {
+            if (!indexedFiles.contains(match.file)) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the component IDs defined in the schema scope. Checking each key against the scope costs an index query,
+     * so the result is cached until the scope, the prebuilt indexes, PSI or the file system change.
+     */
+    public static @NotNull Collection<Integer> getAllComponentIds(@NotNull Project project) {
+        GlobalSearchScope scope = SchemaFiles.getSchemaScope(project);
+        SchemaPrebuiltIndexes prebuiltIndexes = SchemaPrebuiltIndexes.getInstance(project);
+        long psiModificationCount = PsiModificationTracker.getInstance(project).getModificationCount();
+        long vfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+        CachedComponentIds cached = project.getUserData(COMPONENT_IDS);
+        if (cached != null && cached.scope == scope && cached.prebuiltIndexes == prebuiltIndexes &&
+            cached.psiModificationCount == psiModificationCount &&
+            cached.vfsModificationCount == vfsModificationCount) {
+            return cached.componentIds;
+        }
+        // The keys can come from indexed files the path filters leave out of the schema scope, so each is checked.
+        List<Integer> keys = new ArrayList<>();
+        FileBasedIndex.getInstance().processAllKeys(NAME, componentId -> {
+            keys.add(componentId);
+            return true;
+        }, scope, null);
+        Set<Integer> componentIds = new HashSet<>();
+        for (Integer componentId : keys) {
+            if (!FileBasedIndex.getInstance().getContainingFiles(NAME, componentId, scope).isEmpty()) {
+                componentIds.add(componentId);
+            }
+        }
+        componentIds.addAll(prebuiltIndexes.getComponentIds());
+        Collection<Integer> result = Collections.unmodifiableSet(componentIds);
+        project.putUserData(COMPONENT_IDS, new CachedComponentIds(result, scope, prebuiltIndexes,
+                                                                  psiModificationCount, vfsModificationCount));
+        return result;
+    }
+
+    @Override
+    public @NotNull ID<Integer, Location> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<Integer, Location, FileContent> getIndexer() {
+        return inputData -> {
+            SchemaFileSummary summary = SchemaSummaryBuilder.build(inputData.getPsiFile().getNode());
+            Map<Integer, Location> result = new HashMap<>();
+            for (SchemaDefinition definition : summary.definitions) {
+                if (definition.componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                    result.putIfAbsent(definition.componentId, new Location(
+                        definition.getQualifiedName(summary.packageName), definition.offset));
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<Integer> getKeyDescriptor() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<Location> getValueExternalizer() {
+        return new DataExternalizer<Location>() {
+            @Override
+            public void save(@NotNull DataOutput out, Location value) throws IOException {
+                out.writeUTF(value.qualifiedName);
+                out.writeInt(value.offset);
+            }
+
+            @Override
+            public Location read(@NotNull DataInput in) throws IOException {
+                return new Location(in.readUTF(), in.readInt());
+            }
+        };
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(SchemaFileType.SCHEMA_FILE_TYPE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+}
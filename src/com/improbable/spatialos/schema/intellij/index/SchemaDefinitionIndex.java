@@ -0,0 +1,63 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the fully qualified name of every enum, type and component to the offset of its definition.
+ */
+public class SchemaDefinitionIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> NAME = ID.create("spatialos.schema.definitions");
+
+    @Override
+    public @NotNull ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            SchemaFileSummary summary = SchemaSummaryBuilder.build(inputData.getPsiFile().getNode());
+            Map<String, Integer> result = new HashMap<>();
+            for (SchemaDefinition definition : summary.definitions) {
+                result.putIfAbsent(definition.getQualifiedName(summary.packageName), definition.offset);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(SchemaFileType.SCHEMA_FILE_TYPE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+}
@@ -0,0 +1,105 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SchemaFiles {
+    private static final Key<CachedScope> SCOPE = Key.create("spatialos.schema.scope");
+
+    private static class CachedScope {
+        final GlobalSearchScope scope;
+        final List<String> schemaPaths;
+        final List<SchemaSettings.PathFilter> pathFilters;
+        final long rootsModificationCount;
+
+        CachedScope(GlobalSearchScope scope, List<String> schemaPaths, List<SchemaSettings.PathFilter> pathFilters,
+                    long rootsModificationCount) {
+            this.scope = scope;
+            this.schemaPaths = schemaPaths;
+            this.pathFilters = pathFilters;
+            this.rootsModificationCount = rootsModificationCount;
+        }
+    }
+
+    /**
+     * Returns the project scope together with the configured schema roots, restricted by the path filters. Finding the
+     * roots touches the file system, so the scope is cached until the schema paths, the path filters or the project
+     * roots change.
+     */
+    public static @NotNull GlobalSearchScope getSchemaScope(@NotNull Project project) {
+        SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+        long rootsModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+        CachedScope cached = project.getUserData(SCOPE);
+        if (cached != null && cached.schemaPaths.equals(settings.schemaPaths) &&
+            cached.pathFilters.equals(settings.pathFilters) &&
+            cached.rootsModificationCount == rootsModificationCount) {
+            return cached.scope;
+        }
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        Set<VirtualFile> roots =
+            SchemaPathsIndexableSetContributor.findSchemaRoots(project, settings.schemaPaths, false);
+        if (!roots.isEmpty()) {
+            scope = scope.union(
+                GlobalSearchScopesCore.directoriesScope(project, true, roots.toArray(new VirtualFile[0])));
+        }
+        scope = SchemaPathFilters.getInstance(project).restrict(scope);
+        project.putUserData(SCOPE, new CachedScope(scope, settings.schemaPaths, settings.pathFilters,
+                                                   rootsModificationCount));
+        return scope;
+    }
+
+    /**
+     * Returns the directories import paths are relative to: the configured schema paths, then the content roots.
+     */
+    public static @NotNull List<VirtualFile> getImportRoots(@NotNull Project project) {
+        List<VirtualFile> roots = new ArrayList<>(SchemaPathsIndexableSetContributor.findSchemaRoots(
+            project, SchemaProjectProperties.getSettings(project).schemaPaths, false));
+        roots.addAll(Arrays.asList(ProjectRootManager.getInstance(project).getContentRoots()));
+        return roots;
+    }
+
+    public static @Nullable VirtualFile resolveImport(@NotNull List<VirtualFile> importRoots,
+                                                      @NotNull String importPath) {
+        for (VirtualFile root : importRoots) {
+            VirtualFile file = root.findFileByRelativePath(importPath);
+            if (file != null && !file.isDirectory()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    public static @Nullable String getImportPath(@NotNull List<VirtualFile> importRoots, @NotNull VirtualFile file) {
+        for (VirtualFile root : importRoots) {
+            if (VfsUtilCore.isAncestor(root, file, true)) {
+                return VfsUtilCore.getRelativePath(file, root, '/');
+            }
+        }
+        return null;
+    }
+
+    public static @NotNull Collection<VirtualFile> getAllSchemaFiles(@NotNull Project project) {
+        Set<VirtualFile> files =
+            new LinkedHashSet<>(FileTypeIndex.getFiles(SchemaFileType.SCHEMA_FILE_TYPE, getSchemaScope(project)));
+        files.addAll(SchemaPrebuiltIndexes.getInstance(project).getFiles());
+        return files;
+    }
+}
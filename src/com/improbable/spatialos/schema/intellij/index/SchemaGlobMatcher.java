@@ -0,0 +1,76 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches '/'-separated relative paths against include and exclude globs. All includes and all excludes are compiled
+ * into one pattern each, so a path is tested with at most two matches. In a glob, {@code **} matches any number of
+ * directories, {@code *} and {@code ?} stay within one path segment, a glob without a '/' matches the file name in
+ * any directory, and a glob ending in '/' matches everything below that directory.
+ */
+public class SchemaGlobMatcher {
+    private final @Nullable Pattern includes;
+    private final @Nullable Pattern excludes;
+
+    public SchemaGlobMatcher(@NotNull List<String> includes, @NotNull List<String> excludes) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+    }
+
+    public boolean matches(@NotNull String relativePath) {
+        return (includes == null || includes.matcher(relativePath).matches()) &&
+            (excludes == null || !excludes.matcher(relativePath).matches());
+    }
+
+    private static @Nullable Pattern compile(@NotNull List<String> globs) {
+        if (globs.isEmpty()) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String glob : globs) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(toRegex(glob)).append(')');
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    static @NotNull String toRegex(@NotNull String glob) {
+        String normalized = glob.replace('\\', '/');
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        } else if (normalized.indexOf('/') < 0 || normalized.indexOf('/') == normalized.length() - 1) {
+            normalized = "**/" + normalized;
+        }
+        if (normalized.endsWith("/")) {
+            normalized = normalized + "**";
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ++i) {
+            char c = normalized.charAt(i);
+            if (c == '*' && i + 1 < normalized.length() && normalized.charAt(i + 1) == '*') {
+                if (i + 2 < normalized.length() && normalized.charAt(i + 2) == '/') {
+                    regex.append("(?:.*/)?");
+                    i += 2;
+                } else {
+                    regex.append(".*");
+                    ++i;
+                }
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+
+/**
+ * Maps each package name to the files that declare it.
+ */
+public class SchemaPackageIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("spatialos.schema.packages");
+
+    @Override
+    public @NotNull ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            SchemaFileSummary summary = SchemaSummaryBuilder.build(inputData.getPsiFile().getNode());
+            return Collections.singletonMap(summary.packageName, null);
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(SchemaFileType.SCHEMA_FILE_TYPE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+}
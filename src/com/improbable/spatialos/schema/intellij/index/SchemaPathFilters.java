@@ -0,0 +1,118 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.DelegatingGlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled include/exclude filters of a project's schema paths. Files outside every filtered path are accepted.
+ * The compiled form is cached on the project together with the filters it was compiled from, and is compiled again
+ * only once the filters change, not when other settings do.
+ */
+public class SchemaPathFilters {
+    private static final Key<SchemaPathFilters> KEY = Key.create("spatialos.schema.pathFilters");
+
+    private final List<SchemaSettings.PathFilter> pathFilters;
+    private final Map<VirtualFile, SchemaGlobMatcher> matchers = new LinkedHashMap<>();
+
+    public SchemaPathFilters(@NotNull Project project, @NotNull SchemaSettings settings) {
+        pathFilters = settings.pathFilters;
+        for (SchemaSettings.PathFilter filter : settings.pathFilters) {
+            for (VirtualFile root : SchemaPathsIndexableSetContributor.findSchemaRoots(
+                    project, Collections.singletonList(filter.path), false)) {
+                matchers.put(root, new SchemaGlobMatcher(filter.includes, filter.excludes));
+            }
+        }
+    }
+
+    public static @NotNull SchemaPathFilters getInstance(@NotNull Project project) {
+        // Racing callers may each compile the filters; they are immutable and compiled from the same settings.
+        SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+        SchemaPathFilters filters = project.getUserData(KEY);
+        if (filters == null || !filters.pathFilters.equals(settings.pathFilters)) {
+            filters = new SchemaPathFilters(project, settings);
+            project.putUserData(KEY, filters);
+        }
+        return filters;
+    }
+
+    public static boolean accepts(@Nullable Project project, @NotNull VirtualFile file) {
+        return project == null || project.isDisposed() || getInstance(project).accepts(file);
+    }
+
+    /**
+     * Resolves a schema path or filter path from the settings against the project directory.
+     */
+    public static @NotNull Path resolve(@Nullable String basePath, @NotNull String path) {
+        File file = new File(path);
+        return (file.isAbsolute() || basePath == null ? file : new File(basePath, path)).toPath()
+            .toAbsolutePath().normalize();
+    }
+
+    /**
+     * Compiles the filters against paths on disk, for code that reads schema files without the virtual file system.
+     */
+    public static @NotNull Map<Path, SchemaGlobMatcher> compile(@Nullable String basePath,
+                                                                @NotNull SchemaSettings settings) {
+        Map<Path, SchemaGlobMatcher> filters = new LinkedHashMap<>();
+        for (SchemaSettings.PathFilter filter : settings.pathFilters) {
+            filters.put(resolve(basePath, filter.path), new SchemaGlobMatcher(filter.includes, filter.excludes));
+        }
+        return filters;
+    }
+
+    public static boolean accepts(@NotNull Map<Path, SchemaGlobMatcher> filters, @NotNull Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        for (Map.Entry<Path, SchemaGlobMatcher> entry : filters.entrySet()) {
+            if (absolute.startsWith(entry.getKey()) &&
+                !entry.getValue().matches(entry.getKey().relativize(absolute).toString().replace('\\', '/'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return matchers.isEmpty();
+    }
+
+    public boolean accepts(@NotNull VirtualFile file) {
+        for (Map.Entry<VirtualFile, SchemaGlobMatcher> entry : matchers.entrySet()) {
+            String relativePath = VfsUtilCore.getRelativePath(file, entry.getKey(), '/');
+            if (relativePath != null && !entry.getValue().matches(relativePath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public @NotNull Iterable<VirtualFile> getFilteredRoots() {
+        return matchers.keySet();
+    }
+
+    public @NotNull GlobalSearchScope restrict(@NotNull GlobalSearchScope scope) {
+        if (isEmpty()) {
+            return scope;
+        }
+        return new DelegatingGlobalSearchScope(scope) {
+            @Override
+            public boolean contains(@NotNull VirtualFile file) {
+                return super.contains(file) && accepts(file);
+            }
+        };
+    }
+}
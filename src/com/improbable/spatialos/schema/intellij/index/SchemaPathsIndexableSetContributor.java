@@ -0,0 +1,114 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.IndexableSetContributor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes the configured schema paths part of the indexed file set, so that schema outside the project content roots
+ * (e.g. the SDK standard library) is indexed once in the background and watched for changes. Roots with a verified
+ * {@link SchemaPrebuiltIndex} are left out, and under a filtered path only the directories whose schema files are all
+ * accepted and the accepted files of the other directories are returned, so excluded files are never indexed. Files
+ * in the project content are indexed by the platform regardless, and are left out of lookups by the search scope.
+ */
+public class SchemaPathsIndexableSetContributor extends IndexableSetContributor {
+    @Override
+    public @NotNull Set<VirtualFile> getAdditionalRootsToIndex() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public @NotNull Set<VirtualFile> getAdditionalProjectRootsToIndex(@NotNull Project project) {
+        Set<VirtualFile> roots = findSchemaRoots(project, SchemaProjectProperties.getSettings(project).schemaPaths,
+                                                 false);
+        SchemaPrebuiltIndexes prebuiltIndexes = SchemaPrebuiltIndexes.getInstance(project);
+        roots.removeIf(prebuiltIndexes::isPrebuilt);
+        SchemaPathFilters filters = SchemaPathFilters.getInstance(project);
+        if (filters.isEmpty()) {
+            return roots;
+        }
+        Set<VirtualFile> acceptedRoots = new LinkedHashSet<>();
+        for (VirtualFile root : roots) {
+            List<VirtualFile> accepted = new ArrayList<>();
+            if (collectAccepted(filters, root, accepted)) {
+                acceptedRoots.add(root);
+            } else {
+                acceptedRoots.addAll(accepted);
+            }
+        }
+        return acceptedRoots;
+    }
+
+    /**
+     * Returns whether every schema file under {@code file} is accepted. If not, adds the accepted schema files and the
+     * largest fully accepted directories under it to {@code accepted}. Directories no filter applies to are not walked.
+     */
+    private static boolean collectAccepted(@NotNull SchemaPathFilters filters, @NotNull VirtualFile file,
+                                           @NotNull List<VirtualFile> accepted) {
+        if (!file.isDirectory()) {
+            return file.getFileType() != SchemaFileType.SCHEMA_FILE_TYPE || filters.accepts(file);
+        }
+        if (!isFiltered(filters, file)) {
+            return true;
+        }
+        List<VirtualFile> acceptedChildren = new ArrayList<>();
+        boolean allAccepted = true;
+        for (VirtualFile child : file.getChildren()) {
+            List<VirtualFile> acceptedBelow = new ArrayList<>();
+            if (collectAccepted(filters, child, acceptedBelow)) {
+                if (child.isDirectory() || child.getFileType() == SchemaFileType.SCHEMA_FILE_TYPE) {
+                    acceptedChildren.add(child);
+                }
+            } else {
+                allAccepted = false;
+                acceptedChildren.addAll(acceptedBelow);
+            }
+        }
+        if (!allAccepted) {
+            accepted.addAll(acceptedChildren);
+        }
+        return allAccepted;
+    }
+
+    private static boolean isFiltered(@NotNull SchemaPathFilters filters, @NotNull VirtualFile directory) {
+        for (VirtualFile filteredRoot : filters.getFilteredRoots()) {
+            if (VfsUtilCore.isAncestor(directory, filteredRoot, false) ||
+                VfsUtilCore.isAncestor(filteredRoot, directory, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static @NotNull Set<VirtualFile> findSchemaRoots(@NotNull Project project, @NotNull List<String> schemaPaths,
+                                                            boolean refresh) {
+        Set<VirtualFile> roots = new LinkedHashSet<>();
+        for (String schemaPath : schemaPaths) {
+            File file = new File(schemaPath);
+            if (!file.isAbsolute() && project.getBasePath() != null) {
+                file = new File(project.getBasePath(), schemaPath);
+            }
+            String path = FileUtil.toSystemIndependentName(file.getPath());
+            VirtualFile root = refresh ?
+                LocalFileSystem.getInstance().refreshAndFindFileByPath(path) :
+                LocalFileSystem.getInstance().findFileByPath(path);
+            if (root != null && root.isValid()) {
+                roots.add(root);
+            }
+        }
+        return roots;
+    }
+}
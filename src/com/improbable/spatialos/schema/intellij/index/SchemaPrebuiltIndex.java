@@ -0,0 +1,113 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaSummaryExternalizer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A prebuilt summary archive for one schema root, such as the SDK standard library, stored in the root as
+ * {@link #FILE_NAME}. Every file is recorded with a hash of its content, so the archive can stand in for indexing the
+ * root only while the root still matches it exactly.
+ */
+public class SchemaPrebuiltIndex {
+    public static final String FILE_NAME = ".schema-index";
+    private static final int MAGIC = 0x53504958;
+    private static final int FORMAT_VERSION = 1;
+
+    public static class Entry {
+        public final String hash;
+        public final SchemaFileSummary summary;
+
+        public Entry(@NotNull String hash, @NotNull SchemaFileSummary summary) {
+            this.hash = hash;
+            this.summary = summary;
+        }
+    }
+
+    /** A label chosen by whoever built the archive, e.g. the SDK version. */
+    public final String version;
+    /** The files of the root by '/'-separated relative path. */
+    public final Map<String, Entry> files;
+
+    public SchemaPrebuiltIndex(@NotNull String version, @NotNull Map<String, Entry> files) {
+        this.version = version;
+        this.files = Collections.unmodifiableMap(files);
+    }
+
+    public static @NotNull SchemaPrebuiltIndex build(@NotNull Path root, @NotNull String version) throws IOException {
+        String extension = "." + SchemaFileType.SCHEMA_FILE_TYPE.getDefaultExtension();
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().endsWith(extension))
+                .forEach(paths::add);
+        }
+        Map<String, Entry> files = new TreeMap<>();
+        for (Path path : paths) {
+            String text = normalize(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            files.put(root.relativize(path).toString().replace('\\', '/'), new Entry(
+                SchemaSummaryCache.hash(text), SchemaSummaryBuilder.build(text)));
+        }
+        return new SchemaPrebuiltIndex(version, files);
+    }
+
+    /**
+     * Converts file content to the form the IDE loads it in, without a byte order mark and with '\n' line
+     * separators, so hashes and offsets match.
+     */
+    static @NotNull String normalize(@NotNull String text) {
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        return text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    public void write(@NotNull OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(SchemaSummaryExternalizer.VERSION);
+        out.writeUTF(version);
+        SchemaSummaryExternalizer.writeVarInt(out, files.size());
+        for (Map.Entry<String, Entry> entry : files.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue().hash);
+            SchemaSummaryExternalizer.write(out, entry.getValue().summary);
+        }
+        out.flush();
+    }
+
+    public static @NotNull SchemaPrebuiltIndex read(@NotNull InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a prebuilt schema index.");
+        }
+        int formatVersion = in.readInt();
+        int summaryVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION || summaryVersion != SchemaSummaryExternalizer.VERSION) {
+            throw new IOException("Unsupported prebuilt schema index version " + formatVersion + "." +
+                                  summaryVersion + ".");
+        }
+        String version = in.readUTF();
+        int count = SchemaSummaryExternalizer.readVarInt(in);
+        Map<String, Entry> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; ++i) {
+            String path = in.readUTF();
+            String hash = in.readUTF();
+            files.put(path, new Entry(hash, SchemaSummaryExternalizer.read(in)));
+        }
+        return new SchemaPrebuiltIndex(version, files);
+    }
+}
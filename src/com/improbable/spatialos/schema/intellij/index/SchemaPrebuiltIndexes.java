@@ -0,0 +1,314 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The schema roots of a project that ship a verified {@link SchemaPrebuiltIndex}. Such roots are left out of the
+ * indexed file set, and definition, component ID and file lookups answer for them from the archives instead. An
+ * archive is only used if the root holds exactly the files it lists, each with the recorded content hash; any change
+ * under a root during the session drops its archive and indexes the root normally.
+ * <p>
+ * Verifying hashes every file under a root, so it runs on a pooled thread, at most once per archive timestamp, and
+ * only when the schema paths or path filters change or an archive appears or changes. Until it finishes, no root is
+ * treated as prebuilt.
+ */
+public class SchemaPrebuiltIndexes implements Disposable {
+    private static final Logger LOG = Logger.getInstance(SchemaPrebuiltIndexes.class);
+    private static final Key<SchemaPrebuiltIndexes> KEY = Key.create("spatialos.schema.prebuiltIndexes");
+    private static final Key<Map<String, Verification>> VERIFICATIONS =
+        Key.create("spatialos.schema.prebuiltIndexVerifications");
+
+    /**
+     * The outcome of verifying the archive at a path with a given timestamp; {@code index} is null if it was rejected.
+     */
+    private static class Verification {
+        final long archiveTimeStamp;
+        final SchemaPrebuiltIndex index;
+
+        Verification(long archiveTimeStamp, SchemaPrebuiltIndex index) {
+            this.archiveTimeStamp = archiveTimeStamp;
+            this.index = index;
+        }
+    }
+
+    private final Project project;
+    private final List<String> schemaPaths;
+    private final List<SchemaSettings.PathFilter> pathFilters;
+    private volatile boolean dropped = false;
+    private final Map<VirtualFile, SchemaPrebuiltIndex> roots = new LinkedHashMap<>();
+    private final List<VirtualFile> files = new ArrayList<>();
+    private final Map<String, List<VirtualFile>> definingFiles = new HashMap<>();
+    private final Map<Integer, List<SchemaComponentIdIndex.Match>> components = new HashMap<>();
+
+    private SchemaPrebuiltIndexes(@NotNull Project project, @NotNull List<String> schemaPaths,
+                                  @NotNull List<SchemaSettings.PathFilter> pathFilters) {
+        this.project = project;
+        this.schemaPaths = schemaPaths;
+        this.pathFilters = pathFilters;
+        Disposer.register(project, this);
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES,
+                                                        new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                dropChangedRoots(events);
+            }
+        });
+    }
+
+    /**
+     * Returns the published instance if it was built for the current schema paths and filters. Otherwise publishes
+     * one without prebuilt roots through a compare-and-set and verifies the archives in the background; nothing is
+     * verified on the calling thread or under a lock.
+     */
+    public static @NotNull SchemaPrebuiltIndexes getInstance(@NotNull Project project) {
+        UserDataHolderEx holder = (UserDataHolderEx) project;
+        while (true) {
+            SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+            SchemaPrebuiltIndexes indexes = project.getUserData(KEY);
+            if (indexes != null) {
+                if (!indexes.dropped && indexes.schemaPaths.equals(settings.schemaPaths) &&
+                    indexes.pathFilters.equals(settings.pathFilters)) {
+                    return indexes;
+                }
+                indexes.drop();
+                continue;
+            }
+            SchemaPrebuiltIndexes pending = new SchemaPrebuiltIndexes(project, settings.schemaPaths,
+                                                                      settings.pathFilters);
+            if (holder.putUserDataIfAbsent(KEY, pending) == pending) {
+                pending.verifyInBackground();
+                return pending;
+            }
+            Disposer.dispose(pending);
+        }
+    }
+
+    static void invalidate(@NotNull Project project) {
+        SchemaPrebuiltIndexes indexes = project.getUserData(KEY);
+        if (indexes != null) {
+            indexes.drop();
+        }
+    }
+
+    public boolean isPrebuilt(@NotNull VirtualFile root) {
+        return roots.containsKey(root);
+    }
+
+    public @NotNull List<VirtualFile> getFiles() {
+        return files;
+    }
+
+    public @NotNull List<VirtualFile> getDefiningFiles(@NotNull String qualifiedName) {
+        List<VirtualFile> result = definingFiles.get(qualifiedName);
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    public @NotNull List<SchemaComponentIdIndex.Match> findComponents(int componentId) {
+        List<SchemaComponentIdIndex.Match> result = components.get(componentId);
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    public @NotNull Collection<Integer> getComponentIds() {
+        return components.keySet();
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private void verifyInBackground() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            if (project.isDisposed() || dropped) {
+                return;
+            }
+            SchemaPrebuiltIndexes verified = new SchemaPrebuiltIndexes(project, schemaPaths, pathFilters);
+            verified.loadArchives();
+            if (!verified.roots.isEmpty() && !dropped && ((UserDataHolderEx) project).replace(KEY, this, verified)) {
+                Disposer.dispose(this);
+                SchemaRootsReindexer.fireRootsChanged(project);
+            } else {
+                Disposer.dispose(verified);
+            }
+        });
+    }
+
+    private void loadArchives() {
+        Map<String, Verification> verifications = getVerifications(project);
+        SchemaPathFilters filters = SchemaPathFilters.getInstance(project);
+        Set<VirtualFile> schemaRoots = ApplicationManager.getApplication().runReadAction(
+            (Computable<Set<VirtualFile>>) () ->
+                SchemaPathsIndexableSetContributor.findSchemaRoots(project, schemaPaths, false));
+        for (VirtualFile root : schemaRoots) {
+            if (project.isDisposed() || dropped) {
+                return;
+            }
+            VirtualFile archive = root.findChild(SchemaPrebuiltIndex.FILE_NAME);
+            if (archive == null || archive.isDirectory()) {
+                continue;
+            }
+            if (isFiltered(filters, root)) {
+                LOG.info("Ignoring prebuilt schema index in " + root.getPresentableUrl() + " because the root has " +
+                         "path filters.");
+                continue;
+            }
+            Verification verification = verifications.get(archive.getPath());
+            if (verification == null || verification.archiveTimeStamp != archive.getTimeStamp()) {
+                verification = ApplicationManager.getApplication().runReadAction(
+                    (Computable<Verification>) () -> verify(root, archive));
+                verifications.put(archive.getPath(), verification);
+            }
+            if (verification.index != null) {
+                add(root, verification.index);
+            }
+        }
+    }
+
+    private static @NotNull Verification verify(@NotNull VirtualFile root, @NotNull VirtualFile archive) {
+        long timeStamp = archive.getTimeStamp();
+        try (InputStream input = archive.getInputStream()) {
+            SchemaPrebuiltIndex index = SchemaPrebuiltIndex.read(input);
+            if (matches(root, index)) {
+                LOG.info("Using prebuilt schema index " + index.version + " for " + root.getPresentableUrl());
+                return new Verification(timeStamp, index);
+            }
+            LOG.info("Ignoring stale prebuilt schema index " + index.version + " in " + root.getPresentableUrl());
+        } catch (IOException e) {
+            LOG.info("Ignoring unreadable prebuilt schema index in " + root.getPresentableUrl(), e);
+        }
+        return new Verification(timeStamp, null);
+    }
+
+    private static @NotNull Map<String, Verification> getVerifications(@NotNull Project project) {
+        Map<String, Verification> verifications = project.getUserData(VERIFICATIONS);
+        return verifications != null ? verifications :
+            ((UserDataHolderEx) project).putUserDataIfAbsent(VERIFICATIONS, new ConcurrentHashMap<>());
+    }
+
+    private static boolean isFiltered(@NotNull SchemaPathFilters filters, @NotNull VirtualFile root) {
+        for (VirtualFile filteredRoot : filters.getFilteredRoots()) {
+            if (VfsUtilCore.isAncestor(root, filteredRoot, false) ||
+                VfsUtilCore.isAncestor(filteredRoot, root, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(@NotNull VirtualFile root, @NotNull SchemaPrebuiltIndex index) {
+        Map<String, VirtualFile> found = collectSchemaFiles(root);
+        if (!found.keySet().equals(index.files.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, VirtualFile> entry : found.entrySet()) {
+            if (!SchemaSummaryCache.hash(LoadTextUtil.loadText(entry.getValue()))
+                    .equals(index.files.get(entry.getKey()).hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static @NotNull Map<String, VirtualFile> collectSchemaFiles(@NotNull VirtualFile root) {
+        Map<String, VirtualFile> found = new HashMap<>();
+        VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor() {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                if (!file.isDirectory() && file.getFileType() == SchemaFileType.SCHEMA_FILE_TYPE) {
+                    found.put(VfsUtilCore.getRelativePath(file, root, '/'), file);
+                }
+                return true;
+            }
+        });
+        return found;
+    }
+
+    private void add(@NotNull VirtualFile root, @NotNull SchemaPrebuiltIndex index) {
+        roots.put(root, index);
+        SchemaSummaryCache cache = SchemaSummaryCache.getInstance(project);
+        for (Map.Entry<String, SchemaPrebuiltIndex.Entry> entry : index.files.entrySet()) {
+            VirtualFile file = root.findFileByRelativePath(entry.getKey());
+            if (file == null) {
+                continue;
+            }
+            SchemaFileSummary summary = entry.getValue().summary;
+            cache.addSummary(file, entry.getValue().hash, summary);
+            files.add(file);
+            for (SchemaDefinition definition : summary.definitions) {
+                String qualifiedName = definition.getQualifiedName(summary.packageName);
+                definingFiles.computeIfAbsent(qualifiedName, name -> new ArrayList<>()).add(file);
+                if (definition.componentId != SchemaDefinition.NO_COMPONENT_ID) {
+                    components.computeIfAbsent(definition.componentId, id -> new ArrayList<>()).add(
+                        new SchemaComponentIdIndex.Match(file, new SchemaComponentIdIndex.Location(
+                            qualifiedName, definition.offset)));
+                }
+            }
+        }
+    }
+
+    private void dropChangedRoots(@NotNull List<? extends VFileEvent> events) {
+        boolean changed = false;
+        Map<String, Verification> verifications = getVerifications(project);
+        for (VFileEvent event : events) {
+            // An archive that appears, changes or goes away is verified again by the next instance.
+            if (event.getPath().endsWith("/" + SchemaPrebuiltIndex.FILE_NAME)) {
+                changed = true;
+                continue;
+            }
+            for (Map.Entry<VirtualFile, SchemaPrebuiltIndex> entry : roots.entrySet()) {
+                VirtualFile root = entry.getKey();
+                if (FileUtil.isAncestor(root.getPath(), event.getPath(), false)) {
+                    // The files no longer match the archive, which stays rejected until the archive itself changes.
+                    VirtualFile archive = root.findChild(SchemaPrebuiltIndex.FILE_NAME);
+                    if (archive != null) {
+                        verifications.put(archive.getPath(), new Verification(archive.getTimeStamp(), null));
+                    }
+                    changed = true;
+                }
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        boolean hadRoots = !roots.isEmpty();
+        drop();
+        if (hadRoots) {
+            SchemaRootsReindexer.fireRootsChanged(project);
+        }
+    }
+
+    /**
+     * Unpublishes the instance and marks it out of date, so that it is replaced even if it is still being published.
+     */
+    private void drop() {
+        dropped = true;
+        if (((UserDataHolderEx) project).replace(KEY, this, null)) {
+            Disposer.dispose(this);
+        }
+    }
+}
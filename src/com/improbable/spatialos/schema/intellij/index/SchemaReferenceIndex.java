@@ -0,0 +1,71 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypes;
+import com.intellij.lang.ASTNode;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps every dot-separated segment of the type names written in a file to that file, so that the files which might
+ * refer to a definition or package can be found without parsing the rest of the project.
+ */
+public class SchemaReferenceIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("spatialos.schema.references");
+
+    @Override
+    public @NotNull ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> result = new HashMap<>();
+            addReferences(inputData.getPsiFile().getNode(), result);
+            return result;
+        };
+    }
+
+    private static void addReferences(@NotNull ASTNode node, @NotNull Map<String, Void> result) {
+        if (SchemaResolver.isTypeReference(node)) {
+            String text = node.getText();
+            if (!SchemaTypes.isBuiltIn(text)) {
+                for (String segment : text.split("\\.")) {
+                    if (!segment.isEmpty()) {
+                        result.put(segment, null);
+                    }
+                }
+            }
+            return;
+        }
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            addReferences(child, result);
+        }
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(SchemaFileType.SCHEMA_FILE_TYPE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+}
@@ -0,0 +1,138 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypes;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves names in the syntax tree of a schema file against the definition index.
+ */
+public class SchemaResolver {
+    private final Project project;
+    private final GlobalSearchScope scope;
+    private final SchemaPrebuiltIndexes prebuiltIndexes;
+
+    public SchemaResolver(@NotNull Project project) {
+        this.project = project;
+        this.scope = SchemaFiles.getSchemaScope(project);
+        this.prebuiltIndexes = SchemaPrebuiltIndexes.getInstance(project);
+    }
+
+    public @NotNull Project getProject() {
+        return project;
+    }
+
+    public @NotNull GlobalSearchScope getScope() {
+        return scope;
+    }
+
+    public boolean exists(@NotNull String qualifiedName) {
+        return !getDefiningFiles(qualifiedName).isEmpty();
+    }
+
+    public @NotNull Collection<VirtualFile> getDefiningFiles(@NotNull String qualifiedName) {
+        Collection<VirtualFile> files =
+            FileBasedIndex.getInstance().getContainingFiles(SchemaDefinitionIndex.NAME, qualifiedName, scope);
+        List<VirtualFile> prebuiltFiles = prebuiltIndexes.getDefiningFiles(qualifiedName);
+        if (prebuiltFiles.isEmpty()) {
+            return files;
+        }
+        Set<VirtualFile> result = new LinkedHashSet<>(files);
+        result.addAll(prebuiltFiles);
+        return result;
+    }
+
+    /**
+     * Resolves a TYPE_NAME or TYPE_PARAMETER_NAME node to the fully qualified name of a user-defined type.
+     */
+    public @Nullable String resolveReference(@NotNull ASTNode reference) {
+        return resolveReference(reference, reference.getText());
+    }
+
+    public @Nullable String resolveReference(@NotNull ASTNode reference, @NotNull String typeName) {
+        if (SchemaTypes.isBuiltIn(typeName)) {
+            return null;
+        }
+        return SchemaTypeResolver.resolve(getPackageName(reference), getScopeName(reference), typeName,
+                                          this::exists);
+    }
+
+    public static boolean isTypeReference(@NotNull ASTNode node) {
+        IElementType type = node.getElementType();
+        return type == SchemaParser.TYPE_NAME || type == SchemaParser.TYPE_PARAMETER_NAME;
+    }
+
+    /**
+     * Returns the TYPE_NAME of a field, data or event definition. Only generic types are wrapped in a FIELD_TYPE.
+     */
+    public static @Nullable ASTNode getFieldTypeName(@NotNull ASTNode definition) {
+        ASTNode typeName = definition.findChildByType(SchemaParser.TYPE_NAME);
+        if (typeName != null) {
+            return typeName;
+        }
+        ASTNode fieldType = definition.findChildByType(SchemaParser.FIELD_TYPE);
+        return fieldType == null ? null : fieldType.findChildByType(SchemaParser.TYPE_NAME);
+    }
+
+    public static boolean isDefinition(@NotNull ASTNode node) {
+        return SchemaSummaryBuilder.getDefinitionKind(node.getElementType()) != null;
+    }
+
+    public static @NotNull String getPackageName(@NotNull ASTNode node) {
+        ASTNode file = node;
+        while (file.getTreeParent() != null) {
+            file = file.getTreeParent();
+        }
+        for (ASTNode child = file.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == SchemaParser.PACKAGE_DEFINITION) {
+                ASTNode name = child.findChildByType(SchemaParser.PACKAGE_NAME);
+                return name == null ? "" : name.getText();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Returns the dotted name of the definitions enclosing the node, e.g. "Outer.Inner".
+     */
+    public static @NotNull String getScopeName(@NotNull ASTNode node) {
+        String scopeName = "";
+        for (ASTNode parent = node.getTreeParent(); parent != null; parent = parent.getTreeParent()) {
+            if (isDefinition(parent)) {
+                ASTNode name = parent.findChildByType(SchemaParser.DEFINITION_NAME);
+                if (name != null) {
+                    scopeName = scopeName.isEmpty() ? name.getText() : name.getText() + "." + scopeName;
+                }
+            }
+        }
+        return scopeName;
+    }
+
+    /**
+     * Returns the fully qualified name of the definition whose DEFINITION_NAME is the given node.
+     */
+    public static @Nullable String getDefinitionQualifiedName(@NotNull ASTNode definitionName) {
+        ASTNode definition = definitionName.getTreeParent();
+        if (definition == null || !isDefinition(definition)) {
+            return null;
+        }
+        return join(getPackageName(definitionName), join(getScopeName(definition), definitionName.getText()));
+    }
+
+    public static @NotNull String join(@NotNull String prefix, @NotNull String name) {
+        return prefix.isEmpty() ? name : prefix + "." + name;
+    }
+}
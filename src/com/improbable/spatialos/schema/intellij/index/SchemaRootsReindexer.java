@@ -0,0 +1,103 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ex.ProjectRootManagerEx;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Updates the indexed file set when the configured schema roots change, by firing a roots change only if a root was
+ * actually added or removed. A change to the path filters always fires one, since it changes which parts of the roots
+ * {@link SchemaPathsIndexableSetContributor} returns.
+ */
+public class SchemaRootsReindexer {
+    private static final Key<Set<LocalFileSystem.WatchRequest>> WATCH_REQUESTS =
+        Key.create("spatialos.schema.watchRequests");
+
+    /**
+     * Finding the new roots refreshes them from disk, which must not block the dispatch thread, so it runs on a pooled
+     * thread; only the roots change itself goes back to the dispatch thread.
+     */
+    public static void reindexChangedRoots(@NotNull Project project, @NotNull List<String> oldSchemaPaths,
+                                           @NotNull List<String> newSchemaPaths) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            Set<VirtualFile> oldRoots =
+                SchemaPathsIndexableSetContributor.findSchemaRoots(project, oldSchemaPaths, false);
+            Set<VirtualFile> newRoots =
+                SchemaPathsIndexableSetContributor.findSchemaRoots(project, newSchemaPaths, true);
+            Set<VirtualFile> changedRoots = new LinkedHashSet<>();
+            for (VirtualFile root : oldRoots) {
+                if (!newRoots.contains(root)) {
+                    changedRoots.add(root);
+                }
+            }
+            for (VirtualFile root : newRoots) {
+                if (!oldRoots.contains(root)) {
+                    changedRoots.add(root);
+                }
+            }
+            if (!changedRoots.isEmpty() && !project.isDisposed()) {
+                fireRootsChanged(project);
+            }
+        });
+    }
+
+    /**
+     * Makes the platform query {@link SchemaPathsIndexableSetContributor} again, so that added roots are indexed and
+     * removed ones dropped, and watches the current roots.
+     */
+    public static void fireRootsChanged(@NotNull Project project) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            watchSchemaRoots(project);
+            ApplicationManager.getApplication().runWriteAction(
+                () -> ProjectRootManagerEx.getInstanceEx(project).makeRootsChange(EmptyRunnable.getInstance(),
+                                                                                  false, true));
+        }, project.getDisposed());
+    }
+
+    /**
+     * Watches the configured schema roots for changes made outside the IDE. Roots outside the content roots are not
+     * watched by the platform on its own.
+     */
+    public static void watchSchemaRoots(@NotNull Project project) {
+        List<String> paths = new ArrayList<>();
+        for (VirtualFile root : SchemaPathsIndexableSetContributor.findSchemaRoots(
+                project, SchemaProjectProperties.getSettings(project).schemaPaths, false)) {
+            paths.add(root.getPath());
+        }
+        synchronized (WATCH_REQUESTS) {
+            if (project.isDisposed()) {
+                return;
+            }
+            Set<LocalFileSystem.WatchRequest> requests = project.getUserData(WATCH_REQUESTS);
+            if (requests == null) {
+                requests = Collections.emptySet();
+                Disposer.register(project, () -> {
+                    synchronized (WATCH_REQUESTS) {
+                        Set<LocalFileSystem.WatchRequest> current = project.getUserData(WATCH_REQUESTS);
+                        if (current != null) {
+                            LocalFileSystem.getInstance().removeWatchedRoots(current);
+                        }
+                    }
+                });
+            }
+            project.putUserData(WATCH_REQUESTS, LocalFileSystem.getInstance().replaceWatchedRoots(requests, paths,
+                                                                                                  null));
+        }
+    }
+}
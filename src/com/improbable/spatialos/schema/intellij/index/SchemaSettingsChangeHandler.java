@@ -0,0 +1,40 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettingsListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Invalidates what depends on the part of the settings that changed: the prebuilt indexes and indexed roots when the
+ * schema paths or filters change, and the trees of open files when the large-file threshold changes.
+ */
+public class SchemaSettingsChangeHandler implements SchemaSettingsListener {
+    private final Project project;
+
+    public SchemaSettingsChangeHandler(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void settingsChanged(@NotNull SchemaSettings oldSettings, @NotNull SchemaSettings newSettings) {
+        boolean filesChanged = oldSettings.hasDifferentFiles(newSettings);
+        if (filesChanged) {
+            SchemaPrebuiltIndexes.invalidate(project);
+        }
+        if (!oldSettings.pathFilters.equals(newSettings.pathFilters)) {
+            // The filters decide which files under the roots are indexed, so the roots change even if no root was
+            // added or removed.
+            SchemaRootsReindexer.fireRootsChanged(project);
+        } else if (filesChanged) {
+            SchemaRootsReindexer.reindexChangedRoots(project, oldSettings.schemaPaths, newSettings.schemaPaths);
+        }
+        if (oldSettings.largeFileThresholdKb != newSettings.largeFileThresholdKb) {
+            // Settings can be reloaded off the dispatch thread, while reparsing must happen on it.
+            ApplicationManager.getApplication().invokeLater(() -> SchemaLargeFileMode.reparseOpenFiles(project),
+                                                            project.getDisposed());
+        }
+    }
+}
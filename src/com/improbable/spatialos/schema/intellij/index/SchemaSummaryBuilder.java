@@ -0,0 +1,202 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.parser.SchemaEventParser;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds a {@link SchemaFileSummary} from the syntax tree of a schema file, or from its text without building a tree.
+ * Both give the same summary. Incomplete definitions are summarised as far as they were parsed.
+ */
+public class SchemaSummaryBuilder {
+    public static @NotNull SchemaFileSummary build(@NotNull ASTNode file) {
+        String packageName = "";
+        List<String> imports = new ArrayList<>();
+        List<SchemaDefinition> definitions = new ArrayList<>();
+        for (ASTNode child = file.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (type == SchemaParser.PACKAGE_DEFINITION) {
+                ASTNode name = child.findChildByType(SchemaParser.PACKAGE_NAME);
+                if (name != null) {
+                    packageName = name.getText();
+                }
+            } else if (type == SchemaParser.IMPORT_DEFINITION) {
+                ASTNode filename = child.findChildByType(SchemaParser.IMPORT_FILENAME);
+                if (filename != null) {
+                    imports.add(unquote(filename.getText()));
+                }
+            } else {
+                addDefinition(child, "", definitions);
+            }
+        }
+        return new SchemaFileSummary(packageName, imports, definitions);
+    }
+
+    /**
+     * Builds the summary with {@link SchemaEventParser}, for bulk tools that have the text but no tree.
+     */
+    public static @NotNull SchemaFileSummary build(@NotNull CharSequence text) {
+        EventBuilder builder = new EventBuilder();
+        SchemaEventParser.parse(text, builder);
+        return new SchemaFileSummary(builder.packageName, builder.imports, builder.definitions);
+    }
+
+    public static @Nullable SchemaDefinition.Kind getDefinitionKind(@NotNull IElementType type) {
+        if (type == SchemaParser.ENUM_DEFINITION) {
+            return SchemaDefinition.Kind.ENUM;
+        }
+        if (type == SchemaParser.TYPE_DEFINITION) {
+            return SchemaDefinition.Kind.TYPE;
+        }
+        if (type == SchemaParser.COMPONENT_DEFINITION) {
+            return SchemaDefinition.Kind.COMPONENT;
+        }
+        return null;
+    }
+
+    public static @NotNull String unquote(@NotNull String text) {
+        int start = text.startsWith("\"") ? 1 : 0;
+        int end = text.length() > start && text.endsWith("\"") ? text.length() - 1 : text.length();
+        return text.substring(start, end);
+    }
+
+    private static void addDefinition(@NotNull ASTNode node, @NotNull String outerName,
+                                      @NotNull List<SchemaDefinition> definitions) {
+        SchemaDefinition.Kind kind = getDefinitionKind(node.getElementType());
+        ASTNode nameNode = node.findChildByType(SchemaParser.DEFINITION_NAME);
+        if (kind == null || nameNode == null) {
+            return;
+        }
+        String name = outerName + nameNode.getText();
+        int componentId = SchemaDefinition.NO_COMPONENT_ID;
+        List<SchemaField> fields = new ArrayList<>();
+        List<SchemaDefinition> nested = new ArrayList<>();
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (type == SchemaParser.COMPONENT_ID_DEFINITION) {
+                componentId = getNumber(child);
+            } else if (type == SchemaParser.FIELD_DEFINITION) {
+                addField(child, SchemaField.Kind.FIELD, fields);
+            } else if (type == SchemaParser.DATA_DEFINITION) {
+                addField(child, SchemaField.Kind.DATA, fields);
+            } else if (type == SchemaParser.EVENT_DEFINITION) {
+                addField(child, SchemaField.Kind.EVENT, fields);
+            } else if (type == SchemaParser.ENUM_VALUE_DEFINITION) {
+                addField(child, SchemaField.Kind.ENUM_VALUE, fields);
+            } else if (getDefinitionKind(type) != null) {
+                addDefinition(child, name + ".", nested);
+            }
+        }
+        definitions.add(new SchemaDefinition(kind, name, componentId, node.getStartOffset(), fields));
+        definitions.addAll(nested);
+    }
+
+    private static void addField(@NotNull ASTNode node, @NotNull SchemaField.Kind kind,
+                                 @NotNull List<SchemaField> fields) {
+        ASTNode nameNode = node.findChildByType(SchemaParser.FIELD_NAME);
+        ASTNode typeNameNode = SchemaResolver.getFieldTypeName(node);
+        ASTNode typeNode = node.findChildByType(SchemaParser.FIELD_TYPE);
+        String typeName = typeNameNode == null ? null : typeNameNode.getText();
+        List<String> typeParameters = new ArrayList<>();
+        if (typeNode != null) {
+            for (ASTNode child = typeNode.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+                if (child.getElementType() == SchemaParser.TYPE_PARAMETER_NAME) {
+                    typeParameters.add(child.getText());
+                }
+            }
+        }
+        String name = nameNode == null ? "" : nameNode.getText();
+        fields.add(new SchemaField(kind, name, getNumber(node), typeName, typeParameters));
+    }
+
+    private static int getNumber(@NotNull ASTNode node) {
+        ASTNode numberNode = node.findChildByType(SchemaParser.FIELD_NUMBER);
+        if (numberNode == null) {
+            return SchemaField.NO_NUMBER;
+        }
+        try {
+            return Integer.parseInt(numberNode.getText());
+        } catch (NumberFormatException e) {
+            return SchemaField.NO_NUMBER;
+        }
+    }
+
+    /**
+     * Collects the events into the same shape as the tree walk: each definition is followed by its nested ones, so
+     * its place in the list is reserved when it begins and filled in when it ends.
+     */
+    private static class EventBuilder extends SchemaEventParser.Adapter {
+        private static class OpenDefinition {
+            final SchemaDefinition.Kind kind;
+            final String name;
+            final int offset;
+            final int index;
+            final List<SchemaField> fields = new ArrayList<>();
+            int componentId = SchemaDefinition.NO_COMPONENT_ID;
+
+            OpenDefinition(@NotNull SchemaDefinition.Kind kind, @NotNull String name, int offset, int index) {
+                this.kind = kind;
+                this.name = name;
+                this.offset = offset;
+                this.index = index;
+            }
+        }
+
+        String packageName = "";
+        final List<String> imports = new ArrayList<>();
+        final List<SchemaDefinition> definitions = new ArrayList<>();
+        private final Deque<OpenDefinition> open = new ArrayDeque<>();
+
+        @Override
+        public void packageDefinition(@NotNull String name, int offset) {
+            packageName = name;
+        }
+
+        @Override
+        public void importDefinition(@NotNull String path, int offset) {
+            imports.add(path);
+        }
+
+        @Override
+        public void beginDefinition(@NotNull SchemaDefinition.Kind kind, @NotNull String name, int offset) {
+            OpenDefinition outer = open.peek();
+            open.push(new OpenDefinition(kind, outer == null ? name : outer.name + "." + name, offset,
+                                         definitions.size()));
+            definitions.add(null);
+        }
+
+        @Override
+        public void endDefinition(int offset) {
+            OpenDefinition definition = open.pop();
+            definitions.set(definition.index, new SchemaDefinition(definition.kind, definition.name,
+                                                                   definition.componentId, definition.offset,
+                                                                   definition.fields));
+        }
+
+        @Override
+        public void componentId(int componentId, int offset) {
+            if (!open.isEmpty()) {
+                open.peek().componentId = componentId;
+            }
+        }
+
+        @Override
+        public void field(@NotNull SchemaField.Kind kind, @Nullable String typeName,
+                          @NotNull List<String> typeParameters, @NotNull String name, int number, int offset) {
+            if (!open.isEmpty()) {
+                open.peek().fields.add(new SchemaField(kind, name, number, typeName, typeParameters));
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaSummaryExternalizer;
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The summary of each schema file, kept up to date as files change and persisted between sessions so that
+ * cross-file features can start from a cache load rather than a re-parse of every file. A summary is reused while the
+ * document or file modification stamp is unchanged; after a change the content is hashed and only re-parsed if the
+ * hash differs. Only the current summary of each file is kept and saved.
+ */
+public class SchemaSummaryCache implements Disposable {
+    private static final Logger LOG = Logger.getInstance(SchemaSummaryCache.class);
+    private static final int MAGIC = 0x53434846;
+    private static final long SAVE_INTERVAL_MINUTES = 5;
+
+    private static class Entry {
+        final long stamp;
+        final String hash;
+        final SchemaFileSummary summary;
+
+        Entry(long stamp, @NotNull String hash, @NotNull SchemaFileSummary summary) {
+            this.stamp = stamp;
+            this.hash = hash;
+            this.summary = summary;
+        }
+    }
+
+    private final Project project;
+    private final Map<VirtualFile, Entry> entries = new ConcurrentHashMap<>();
+    /** Entries loaded from disk by file path, until the file is first asked for. */
+    private final Map<String, Entry> loadedEntries = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> saveTask;
+    private volatile boolean loaded = false;
+    private volatile boolean dirty = false;
+
+    public SchemaSummaryCache(@NotNull Project project) {
+        this.project = project;
+        saveTask = JobScheduler.getScheduler().scheduleWithFixedDelay(
+            this::saveIfDirty, SAVE_INTERVAL_MINUTES, SAVE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        Disposer.register(project, this);
+    }
+
+    public static @NotNull SchemaSummaryCache getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, SchemaSummaryCache.class);
+    }
+
+    public @Nullable SchemaFileSummary getSummary(@NotNull VirtualFile file) {
+        ensureLoaded();
+        Entry entry = entries.get(file);
+        long stamp = ApplicationManager.getApplication().runReadAction((Computable<Long>) () -> getStamp(file));
+        if (entry != null && entry.stamp == stamp) {
+            return entry.summary;
+        }
+        CharSequence text = ApplicationManager.getApplication().runReadAction((Computable<CharSequence>) () -> {
+            if (!file.isValid()) {
+                return null;
+            }
+            Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+            return document != null ? document.getImmutableCharSequence() : LoadTextUtil.loadText(file);
+        });
+        if (text == null) {
+            entries.remove(file);
+            return null;
+        }
+        String hash = hash(text);
+        if (entry == null) {
+            entry = loadedEntries.remove(file.getPath());
+        }
+        SchemaFileSummary summary;
+        if (entry != null && entry.hash.equals(hash)) {
+            summary = entry.summary;
+        } else {
+            summary = ApplicationManager.getApplication().runReadAction((Computable<SchemaFileSummary>) () -> {
+                PsiFile psiFile = PsiFileFactory.getInstance(project).createFileFromText(
+                    file.getName(), SchemaLanguage.SCHEMA_LANGUAGE, text, false, false);
+                return SchemaSummaryBuilder.build(psiFile.getNode());
+            });
+            dirty = true;
+        }
+        entries.put(file, new Entry(stamp, hash, summary));
+        return summary;
+    }
+
+    /**
+     * Adds a summary built elsewhere, e.g. from a {@link SchemaPrebuiltIndex}, for the current content of the file,
+     * whose hash is given.
+     */
+    public void addSummary(@NotNull VirtualFile file, @NotNull String hash, @NotNull SchemaFileSummary summary) {
+        entries.put(file, new Entry(file.getModificationStamp(), hash, summary));
+    }
+
+    public @NotNull Map<VirtualFile, SchemaFileSummary> getAllSummaries() {
+        Map<VirtualFile, SchemaFileSummary> result = new LinkedHashMap<>();
+        for (VirtualFile file : ApplicationManager.getApplication().runReadAction(
+                (Computable<Collection<VirtualFile>>) () -> SchemaFiles.getAllSchemaFiles(project))) {
+            SchemaFileSummary summary = getSummary(file);
+            if (summary != null) {
+                result.put(file, summary);
+            }
+        }
+        // Files that are gone or no longer schema files are dropped, so the cache follows the project.
+        if (entries.keySet().retainAll(result.keySet())) {
+            dirty = true;
+        }
+        return result;
+    }
+
+    @Override
+    public void dispose() {
+        saveTask.cancel(false);
+        saveIfDirty();
+    }
+
+    private static long getStamp(@NotNull VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File cacheFile = getCacheFile();
+        if (!cacheFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != SchemaSummaryExternalizer.VERSION) {
+                return;
+            }
+            int count = SchemaSummaryExternalizer.readVarInt(in);
+            for (int i = 0; i < count; ++i) {
+                String path = in.readUTF();
+                String hash = in.readUTF();
+                loadedEntries.put(path, new Entry(-1, hash, SchemaSummaryExternalizer.read(in)));
+            }
+        } catch (IOException e) {
+            LOG.info("Discarding unreadable schema summary cache " + cacheFile, e);
+            loadedEntries.clear();
+        }
+    }
+
+    private synchronized void saveIfDirty() {
+        if (!dirty || !loaded) {
+            return;
+        }
+        dirty = false;
+        Map<String, Entry> current = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> entry : loadedEntries.entrySet()) {
+            if (new File(entry.getKey()).isFile()) {
+                current.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<VirtualFile, Entry> entry : entries.entrySet()) {
+            if (entry.getKey().isValid()) {
+                current.put(entry.getKey().getPath(), entry.getValue());
+            }
+        }
+        File cacheFile = getCacheFile();
+        if (!cacheFile.getParentFile().isDirectory() && !cacheFile.getParentFile().mkdirs()) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(SchemaSummaryExternalizer.VERSION);
+            SchemaSummaryExternalizer.writeVarInt(out, current.size());
+            for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().hash);
+                SchemaSummaryExternalizer.write(out, entry.getValue().summary);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write schema summary cache " + cacheFile, e);
+        }
+    }
+
+    private @NotNull File getCacheFile() {
+        return new File(PathManager.getSystemPath(), "spatialos-schema/" + project.getLocationHash() + ".summaries");
+    }
+
+    /**
+     * Returns the SHA-1 of the UTF-8 encoding of the text, encoding it in chunks rather than copying it to a string.
+     */
+    public static @NotNull String hash(@NotNull CharSequence text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer input = CharBuffer.wrap(text);
+            ByteBuffer output = ByteBuffer.allocate(8192);
+            while (true) {
+                CoderResult result = encoder.encode(input, output, true);
+                output.flip();
+                digest.update(output);
+                output.clear();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            while (encoder.flush(output).isOverflow()) {
+                output.flip();
+                digest.update(output);
+                output.clear();
+            }
+            output.flip();
+            digest.update(output);
+            byte[] bytes = digest.digest();
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
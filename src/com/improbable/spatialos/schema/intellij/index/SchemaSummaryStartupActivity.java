@@ -0,0 +1,24 @@
+package com.improbable.spatialos.schema.intellij.index;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Watches the configured schema roots and warms the {@link SchemaSummaryCache} in the background once indexing has
+ * finished.
+ */
+public class SchemaSummaryStartupActivity implements StartupActivity {
+    @Override
+    public void runActivity(@NotNull Project project) {
+        SchemaRootsReindexer.watchSchemaRoots(project);
+        DumbService.getInstance(project).runWhenSmart(() -> ApplicationManager.getApplication().executeOnPooledThread(
+            () -> {
+                if (!project.isDisposed()) {
+                    SchemaSummaryCache.getInstance(project).getAllSummaries();
+                }
+            }));
+    }
+}
@@ -0,0 +1,99 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.ui.components.JBCheckBox;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.BorderLayout;
+import java.util.regex.Pattern;
+
+/**
+ * Reports list and map fields in component data. Every update to such a field resends the whole collection, so
+ * frequently updated components are better off sending incremental changes as events.
+ */
+public class SchemaComponentCollectionInspection extends SchemaFieldTypeInspection {
+    /** Components that are updated often; an empty pattern checks every component. */
+    public String componentNamePattern = "";
+    /** Whether to also report collections in the type named by a component's {@code data} definition. */
+    public boolean checkDataTypes = true;
+
+    @Override
+    protected void checkField(@NotNull PsiFile file, @NotNull ASTNode field, @NotNull ASTNode typeName,
+                              @NotNull Context context) {
+        ASTNode component = field.getTreeParent();
+        if (component == null || component.getElementType() != SchemaParser.COMPONENT_DEFINITION) {
+            return;
+        }
+        ASTNode componentName = component.findChildByType(SchemaParser.DEFINITION_NAME);
+        Pattern pattern = getPattern(componentNamePattern);
+        if (componentName == null || (pattern != null && !pattern.matcher(componentName.getText()).find())) {
+            return;
+        }
+        if (field.getElementType() == SchemaParser.FIELD_DEFINITION && isCollection(typeName.getText())) {
+            context.report(typeName, "Every update to '" + getFieldName(field) + "' resends the whole " +
+                typeName.getText() + "; consider an event for incremental changes to '" + componentName.getText() +
+                "'.");
+        } else if (field.getElementType() == SchemaParser.DATA_DEFINITION && checkDataTypes &&
+                   !DumbService.isDumb(file.getProject())) {
+            SchemaField collection = findCollectionField(new SchemaResolver(file.getProject()), typeName);
+            if (collection != null) {
+                context.report(typeName, "Every update to '" + collection.name + "' in '" + typeName.getText() +
+                    "' resends the whole " + collection.typeName + "; consider an event for incremental changes to '" +
+                    componentName.getText() + "'.");
+            }
+        }
+    }
+
+    private static boolean isCollection(@Nullable String typeName) {
+        return "list".equals(typeName) || "map".equals(typeName);
+    }
+
+    private static @Nullable SchemaField findCollectionField(@NotNull SchemaResolver resolver,
+                                                             @NotNull ASTNode typeName) {
+        String qualifiedName = resolver.resolveReference(typeName);
+        if (qualifiedName == null) {
+            return null;
+        }
+        for (VirtualFile file : resolver.getDefiningFiles(qualifiedName)) {
+            SchemaFileSummary summary = SchemaSummaryCache.getInstance(resolver.getProject()).getSummary(file);
+            if (summary == null) {
+                continue;
+            }
+            for (SchemaDefinition definition : summary.definitions) {
+                if (definition.getQualifiedName(summary.packageName).equals(qualifiedName)) {
+                    for (SchemaField field : definition.fields) {
+                        if (field.kind == SchemaField.Kind.FIELD && isCollection(field.typeName)) {
+                            return field;
+                        }
+                    }
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public JComponent createOptionsPanel() {
+        JBCheckBox dataTypes = new JBCheckBox("Check types named by 'data'", checkDataTypes);
+        dataTypes.addActionListener(e -> checkDataTypes = dataTypes.isSelected());
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(createTextOption("Component name pattern (empty for all components):", componentNamePattern,
+                                   value -> componentNamePattern = value), BorderLayout.NORTH);
+        panel.add(dataTypes, BorderLayout.CENTER);
+        JPanel wrapper = new JPanel(new BorderLayout());
+        wrapper.add(panel, BorderLayout.NORTH);
+        return wrapper;
+    }
+}
@@ -0,0 +1,38 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+/**
+ * Reports {@code double} and {@code Vector3d} fields whose name suggests a local position, rotation or scale, where
+ * single precision is usually enough and halves the encoded size. {@code Coordinates} is left alone, since world
+ * positions need double precision.
+ */
+public class SchemaDoublePrecisionInspection extends SchemaFieldTypeInspection {
+    /** Field names for which single precision is usually enough; an empty pattern reports every such field. */
+    public String fieldNamePattern = "^[xyz]$|offset|rotation|angle|heading|yaw|pitch|roll|scale|direction";
+
+    @Override
+    protected void checkField(@NotNull PsiFile file, @NotNull ASTNode field, @NotNull ASTNode typeName,
+                              @NotNull Context context) {
+        forEachType(field, typeName, fieldNamePattern, (type, name) -> check(type, name, context));
+    }
+
+    private static void check(@NotNull ASTNode type, @NotNull String name, @NotNull Context context) {
+        String text = type.getText();
+        String replacement = text.equals("double") ? "float" : text.equals("Vector3d") ? "Vector3f" : null;
+        if (replacement != null) {
+            context.report(type, "'" + replacement + "' is usually precise enough for '" + name +
+                "' and takes half the bytes of '" + text + "'.", new SchemaReplaceTypeFix(replacement));
+        }
+    }
+
+    @Override
+    public JComponent createOptionsPanel() {
+        return createTextOption("Field name pattern (empty for all fields):", fieldNamePattern,
+                                value -> fieldNamePattern = value);
+    }
+}
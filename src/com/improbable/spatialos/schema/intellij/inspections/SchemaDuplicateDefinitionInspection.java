@@ -0,0 +1,64 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports definitions whose fully qualified name is also defined in another file. Each definition costs a single
+ * lookup in the definition index.
+ */
+public class SchemaDuplicateDefinitionInspection extends LocalInspectionTool {
+    @Override
+    public @Nullable ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager,
+                                                   boolean isOnTheFly) {
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        if (virtualFile == null || DumbService.isDumb(file.getProject()) || SchemaLargeFileMode.isLimited(file)) {
+            return null;
+        }
+        SchemaResolver resolver = new SchemaResolver(file.getProject());
+        List<ProblemDescriptor> problems = new ArrayList<>();
+        long start = SchemaMetrics.SCHEMA_METRICS.start();
+        checkDefinitions(file.getNode(), virtualFile, resolver, manager, isOnTheFly, problems);
+        SchemaMetrics.SCHEMA_METRICS.record(SchemaMetrics.Stage.INSPECT, SchemaMetrics.getFileName(file), start,
+                                            problems.size());
+        return problems.toArray(new ProblemDescriptor[0]);
+    }
+
+    private static void checkDefinitions(@NotNull ASTNode node, @NotNull VirtualFile file,
+                                         @NotNull SchemaResolver resolver, @NotNull InspectionManager manager,
+                                         boolean isOnTheFly, @NotNull List<ProblemDescriptor> problems) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (!SchemaResolver.isDefinition(child)) {
+                continue;
+            }
+            ASTNode name = child.findChildByType(SchemaParser.DEFINITION_NAME);
+            String qualifiedName = name == null ? null : SchemaResolver.getDefinitionQualifiedName(name);
+            if (qualifiedName != null) {
+                for (VirtualFile other : resolver.getDefiningFiles(qualifiedName)) {
+                    if (!other.equals(file)) {
+                        problems.add(manager.createProblemDescriptor(
+                            name.getPsi(), "'" + qualifiedName + "' is also defined in " + other.getPresentableUrl() +
+                                ".", isOnTheFly, null, ProblemHighlightType.GENERIC_ERROR));
+                        break;
+                    }
+                }
+            }
+            checkDefinitions(child, file, resolver, manager, isOnTheFly, problems);
+        }
+    }
+}
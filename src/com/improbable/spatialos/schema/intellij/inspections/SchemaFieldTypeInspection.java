@@ -0,0 +1,179 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Base for inspections that look at the declared type of each field, data and event definition. Options are public
+ * fields, so they are stored in the inspection profile and can differ per project.
+ */
+public abstract class SchemaFieldTypeInspection extends LocalInspectionTool {
+    private static final Pattern NOTHING = Pattern.compile("(?!)");
+
+    protected static class Context {
+        final InspectionManager manager;
+        final boolean isOnTheFly;
+        final List<ProblemDescriptor> problems = new ArrayList<>();
+
+        Context(@NotNull InspectionManager manager, boolean isOnTheFly) {
+            this.manager = manager;
+            this.isOnTheFly = isOnTheFly;
+        }
+
+        void report(@NotNull ASTNode node, @NotNull String message, LocalQuickFix... fixes) {
+            problems.add(manager.createProblemDescriptor(
+                node.getPsi(), message, isOnTheFly, fixes, ProblemHighlightType.GENERIC_ERROR_OR_WARNING));
+        }
+    }
+
+    private static class CompiledPattern {
+        final String source;
+        final Pattern pattern;
+
+        CompiledPattern(@Nullable String source, @Nullable Pattern pattern) {
+            this.source = source;
+            this.pattern = pattern;
+        }
+    }
+
+    /** The last pattern option compiled, so that it is compiled again only when the option is edited. */
+    private volatile CompiledPattern compiledPattern;
+
+    @Override
+    public @Nullable ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager,
+                                                   boolean isOnTheFly) {
+        if (SchemaLargeFileMode.isLimited(file)) {
+            return null;
+        }
+        long start = SchemaMetrics.SCHEMA_METRICS.start();
+        Context context = new Context(manager, isOnTheFly);
+        checkFields(file, file.getNode(), context);
+        SchemaMetrics.SCHEMA_METRICS.record(SchemaMetrics.Stage.INSPECT, SchemaMetrics.getFileName(file), start,
+                                            context.problems.size());
+        return context.problems.toArray(new ProblemDescriptor[0]);
+    }
+
+    private void checkFields(@NotNull PsiFile file, @NotNull ASTNode node, @NotNull Context context) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (type == SchemaParser.FIELD_DEFINITION || type == SchemaParser.DATA_DEFINITION ||
+                type == SchemaParser.EVENT_DEFINITION) {
+                ASTNode typeName = SchemaResolver.getFieldTypeName(child);
+                if (typeName != null) {
+                    checkField(file, child, typeName, context);
+                }
+            } else if (SchemaResolver.isDefinition(child)) {
+                checkFields(file, child, context);
+            }
+        }
+    }
+
+    /**
+     * Checks one field, data or event definition. {@code typeName} is its TYPE_NAME node.
+     */
+    protected abstract void checkField(@NotNull PsiFile file, @NotNull ASTNode field, @NotNull ASTNode typeName,
+                                       @NotNull Context context);
+
+    /**
+     * Calls {@code check} with the type name and each type parameter of the field, if the field name matches the
+     * pattern or the pattern is empty.
+     */
+    protected void forEachType(@NotNull ASTNode field, @NotNull ASTNode typeName, @Nullable String fieldNamePattern,
+                               @NotNull BiConsumer<ASTNode, String> check) {
+        String name = getFieldName(field);
+        Pattern pattern = getPattern(fieldNamePattern);
+        if (pattern != null && !pattern.matcher(name).find()) {
+            return;
+        }
+        check.accept(typeName, name);
+        ASTNode fieldType = field.findChildByType(SchemaParser.FIELD_TYPE);
+        if (fieldType != null) {
+            for (ASTNode child = fieldType.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+                if (child.getElementType() == SchemaParser.TYPE_PARAMETER_NAME) {
+                    check.accept(child, name);
+                }
+            }
+        }
+    }
+
+    protected static @NotNull String getFieldName(@NotNull ASTNode field) {
+        ASTNode name = field.findChildByType(SchemaParser.FIELD_NAME);
+        return name == null ? "" : name.getText();
+    }
+
+    /**
+     * Returns the case-insensitive pattern compiled from an option, or null if it is empty. An invalid pattern matches
+     * nothing, so a typo silences the inspection rather than flooding the file. Inspections have one pattern option,
+     * whose compiled form is kept until the option changes.
+     */
+    protected @Nullable Pattern getPattern(@Nullable String option) {
+        CompiledPattern compiled = compiledPattern;
+        if (compiled == null || !Objects.equals(compiled.source, option)) {
+            compiled = new CompiledPattern(option, compile(option));
+            compiledPattern = compiled;
+        }
+        return compiled.pattern;
+    }
+
+    private static @Nullable Pattern compile(@Nullable String pattern) {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(pattern.trim(), Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            return NOTHING;
+        }
+    }
+
+    protected static @NotNull JComponent createTextOption(@NotNull String label, @NotNull String value,
+                                                          @NotNull Consumer<String> setter) {
+        JTextField field = new JTextField(value);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                setter.accept(field.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                setter.accept(field.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                setter.accept(field.getText());
+            }
+        });
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JLabel(label), BorderLayout.NORTH);
+        panel.add(field, BorderLayout.CENTER);
+        JPanel wrapper = new JPanel(new BorderLayout());
+        wrapper.add(panel, BorderLayout.NORTH);
+        return wrapper;
+    }
+}
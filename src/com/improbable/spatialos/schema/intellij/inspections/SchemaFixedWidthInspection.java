@@ -0,0 +1,49 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reports fixed-width integer fields whose name suggests small values, which a varint encodes in one or two bytes
+ * instead of four or eight.
+ */
+public class SchemaFixedWidthInspection extends SchemaFieldTypeInspection {
+    private static final Map<String, String> REPLACEMENTS = new HashMap<>();
+
+    static {
+        REPLACEMENTS.put("fixed32", "uint32");
+        REPLACEMENTS.put("fixed64", "uint64");
+        REPLACEMENTS.put("sfixed32", "sint32");
+        REPLACEMENTS.put("sfixed64", "sint64");
+    }
+
+    /** Field names that usually hold small values; an empty pattern reports every fixed-width field. */
+    public String fieldNamePattern = "count|index|level|kind|type|state|flags|version";
+
+    @Override
+    protected void checkField(@NotNull PsiFile file, @NotNull ASTNode field, @NotNull ASTNode typeName,
+                              @NotNull Context context) {
+        forEachType(field, typeName, fieldNamePattern, (type, name) -> check(type, name, context));
+    }
+
+    private static void check(@NotNull ASTNode type, @NotNull String name, @NotNull Context context) {
+        String text = type.getText();
+        String replacement = REPLACEMENTS.get(text);
+        if (replacement != null) {
+            context.report(type, "'" + text + "' always takes " + (text.endsWith("32") ? 4 : 8) + " bytes; '" +
+                replacement + "' takes one or two for small values of '" + name + "'.",
+                new SchemaReplaceTypeFix(replacement));
+        }
+    }
+
+    @Override
+    public JComponent createOptionsPanel() {
+        return createTextOption("Field name pattern (empty for all fields):", fieldNamePattern,
+                                value -> fieldNamePattern = value);
+    }
+}
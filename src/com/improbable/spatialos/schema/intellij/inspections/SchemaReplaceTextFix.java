@@ -0,0 +1,55 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Applies a {@link SchemaProblem.Fix}, provided the text it was computed against is unchanged.
+ */
+public class SchemaReplaceTextFix implements IntentionAction {
+    private final SchemaProblem.Fix fix;
+    private final String originalText;
+
+    public SchemaReplaceTextFix(@NotNull SchemaProblem.Fix fix, @NotNull String originalText) {
+        this.fix = fix;
+        this.originalText = originalText;
+    }
+
+    @Override
+    public @NotNull String getText() {
+        return fix.name;
+    }
+
+    @Override
+    public @NotNull String getFamilyName() {
+        return "SpatialOS schema";
+    }
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, PsiFile file) {
+        Document document = editor == null ? null : editor.getDocument();
+        return document != null && fix.end <= document.getTextLength() &&
+            document.getCharsSequence().subSequence(fix.start, fix.end).toString().equals(originalText);
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
+        if (!isAvailable(project, editor, file)) {
+            return;
+        }
+        editor.getDocument().replaceString(fix.start, fix.end, fix.replacement);
+        PsiDocumentManager.getInstance(project).commitDocument(editor.getDocument());
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Replaces the type name a problem was reported on with another built-in type.
+ */
+public class SchemaReplaceTypeFix implements LocalQuickFix {
+    private final String replacement;
+
+    public SchemaReplaceTypeFix(@NotNull String replacement) {
+        this.replacement = replacement;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "Replace with '" + replacement + "'";
+    }
+
+    @Override
+    public @NotNull String getFamilyName() {
+        return "Replace field type";
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiElement element = descriptor.getPsiElement();
+        if (element == null || !element.isValid()) {
+            return;
+        }
+        Document document = PsiDocumentManager.getInstance(project).getDocument(element.getContainingFile());
+        if (document == null) {
+            return;
+        }
+        TextRange range = element.getTextRange();
+        document.replaceString(range.getStartOffset(), range.getEndOffset(), replacement);
+        PsiDocumentManager.getInstance(project).commitDocument(document);
+    }
+}
@@ -0,0 +1,37 @@
+package com.improbable.spatialos.schema.intellij.inspections;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+/**
+ * Reports {@code int32} and {@code int64} fields whose name suggests they hold negative values. Those are encoded as
+ * ten-byte varints, where the zigzag encoding of {@code sint32} and {@code sint64} keeps small magnitudes small.
+ */
+public class SchemaSignedVarintInspection extends SchemaFieldTypeInspection {
+    /** Field names that usually hold signed values; an empty pattern reports every int32 and int64 field. */
+    public String fieldNamePattern = "delta|offset|diff|change|velocity|balance|adjust";
+
+    @Override
+    protected void checkField(@NotNull PsiFile file, @NotNull ASTNode field, @NotNull ASTNode typeName,
+                              @NotNull Context context) {
+        forEachType(field, typeName, fieldNamePattern, (type, name) -> check(type, name, context));
+    }
+
+    private static void check(@NotNull ASTNode type, @NotNull String name, @NotNull Context context) {
+        String text = type.getText();
+        if (text.equals("int32") || text.equals("int64")) {
+            String replacement = "s" + text;
+            context.report(type, "'" + text + "' encodes every negative value of '" + name + "' in ten bytes; '" +
+                replacement + "' keeps small negative values small.", new SchemaReplaceTypeFix(replacement));
+        }
+    }
+
+    @Override
+    public JComponent createOptionsPanel() {
+        return createTextOption("Field name pattern (empty for all fields):", fieldNamePattern,
+                                value -> fieldNamePattern = value);
+    }
+}
@@ -0,0 +1,271 @@
+package com.improbable.spatialos.schema.intellij.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A language server for schema files: diagnostics, go to definition and type name completion. Documents are synced
+ * incrementally; each change reparses only the edited file and re-checks it together with its dependents.
+ */
+public class SchemaLanguageServer {
+    private static final int TEXT_DOCUMENT_SYNC_INCREMENTAL = 2;
+    private static final int COMPLETION_KIND_CLASS = 7;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INTERNAL_ERROR = -32603;
+
+    private final SchemaLspConnection connection;
+    private final SchemaWorkspace workspace = new SchemaWorkspace();
+    private boolean shutdown = false;
+
+    public SchemaLanguageServer(@NotNull SchemaLspConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Parses every accepted schema file under the given roots in parallel and checks them all.
+     */
+    public void load(@NotNull Collection<Path> roots, @NotNull Predicate<Path> accept) throws IOException {
+        Set<Path> paths = new LinkedHashSet<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    walk.filter(path -> path.toString().endsWith(".schema") && accept.test(path))
+                        .forEach(path -> paths.add(path.toAbsolutePath().normalize()));
+                }
+            }
+        }
+        workspace.addAll(paths.parallelStream().map(path -> {
+            try {
+                return SchemaWorkspace.createFile(path.toUri().toString(),
+                                                  new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                return null;
+            }
+        }).filter(file -> file != null).collect(Collectors.toList()));
+    }
+
+    /**
+     * Serves requests until the client sends 'exit' or closes the stream, and returns the process exit code.
+     */
+    public int run() throws IOException {
+        while (true) {
+            JsonObject message = connection.read();
+            if (message == null) {
+                return shutdown ? 0 : 1;
+            }
+            String method = message.has("method") ? message.get("method").getAsString() : "";
+            JsonElement id = message.get("id");
+            JsonObject params = message.has("params") && message.get("params").isJsonObject() ?
+                message.getAsJsonObject("params") : new JsonObject();
+            if (method.equals("exit")) {
+                return shutdown ? 0 : 1;
+            }
+            try {
+                JsonElement result = handle(method, params);
+                if (id != null) {
+                    if (result == null && !isKnownRequest(method)) {
+                        connection.sendError(id, METHOD_NOT_FOUND, "Unsupported method " + method + ".");
+                    } else {
+                        connection.sendResponse(id, result == null ? JsonNull.INSTANCE : result);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (id != null) {
+                    connection.sendError(id, INTERNAL_ERROR, String.valueOf(e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private static boolean isKnownRequest(@NotNull String method) {
+        return method.equals("shutdown") || method.equals("textDocument/definition");
+    }
+
+    private @Nullable JsonElement handle(@NotNull String method, @NotNull JsonObject params) throws IOException {
+        switch (method) {
+            case "initialize":
+                return initialize();
+            case "shutdown":
+                shutdown = true;
+                return null;
+            case "textDocument/didOpen": {
+                JsonObject document = params.getAsJsonObject("textDocument");
+                publish(workspace.update(document.get("uri").getAsString(), document.get("text").getAsString()));
+                return null;
+            }
+            case "textDocument/didChange":
+                didChange(params);
+                return null;
+            case "textDocument/didClose":
+                didClose(params.getAsJsonObject("textDocument").get("uri").getAsString());
+                return null;
+            case "textDocument/definition":
+                return definition(params);
+            case "textDocument/completion":
+                return completion(params);
+            default:
+                return null;
+        }
+    }
+
+    private @NotNull JsonObject initialize() {
+        JsonObject sync = new JsonObject();
+        sync.addProperty("openClose", true);
+        sync.addProperty("change", TEXT_DOCUMENT_SYNC_INCREMENTAL);
+        JsonObject capabilities = new JsonObject();
+        capabilities.add("textDocumentSync", sync);
+        capabilities.addProperty("definitionProvider", true);
+        capabilities.add("completionProvider", new JsonObject());
+        JsonObject result = new JsonObject();
+        result.add("capabilities", capabilities);
+        return result;
+    }
+
+    private void didChange(@NotNull JsonObject params) throws IOException {
+        String uri = params.getAsJsonObject("textDocument").get("uri").getAsString();
+        SchemaWorkspace.FileState file = workspace.get(uri);
+        StringBuilder text = new StringBuilder(file == null ? "" : file.text);
+        for (JsonElement element : params.getAsJsonArray("contentChanges")) {
+            JsonObject change = element.getAsJsonObject();
+            String newText = change.get("text").getAsString();
+            if (!change.has("range") || file == null) {
+                text.setLength(0);
+                text.append(newText);
+            } else {
+                JsonObject range = change.getAsJsonObject("range");
+                int start = getOffset(text, range.getAsJsonObject("start"));
+                int end = getOffset(text, range.getAsJsonObject("end"));
+                text.replace(start, Math.max(start, end), newText);
+            }
+        }
+        publish(workspace.update(uri, text.toString()));
+    }
+
+    /**
+     * Once the editor closes a document the file on disk is the truth again.
+     */
+    private void didClose(@NotNull String uri) throws IOException {
+        Path path;
+        try {
+            path = Paths.get(URI.create(uri));
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            publish(workspace.remove(uri));
+            return;
+        }
+        if (Files.isRegularFile(path)) {
+            publish(workspace.update(uri, new String(Files.readAllBytes(path), StandardCharsets.UTF_8)));
+        } else {
+            publish(workspace.remove(uri));
+        }
+    }
+
+    private @Nullable JsonElement definition(@NotNull JsonObject params) {
+        SchemaWorkspace.FileState file = workspace.get(params.getAsJsonObject("textDocument").get("uri").getAsString());
+        if (file == null) {
+            return null;
+        }
+        SchemaWorkspace.Location location = workspace.findDefinition(file, getOffset(file, params));
+        if (location == null) {
+            return null;
+        }
+        JsonObject result = new JsonObject();
+        result.addProperty("uri", location.file.uri);
+        result.add("range", toRange(location.file, location.start, location.end));
+        return result;
+    }
+
+    private @NotNull JsonElement completion(@NotNull JsonObject params) {
+        JsonArray items = new JsonArray();
+        SchemaWorkspace.FileState file = workspace.get(params.getAsJsonObject("textDocument").get("uri").getAsString());
+        if (file != null) {
+            for (String name : workspace.complete(file, getOffset(file, params))) {
+                JsonObject item = new JsonObject();
+                item.addProperty("label", name);
+                item.addProperty("kind", COMPLETION_KIND_CLASS);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private void publish(@NotNull Set<String> uris) throws IOException {
+        for (String uri : uris) {
+            SchemaWorkspace.FileState file = workspace.get(uri);
+            JsonArray diagnostics = new JsonArray();
+            if (file != null) {
+                for (SchemaWorkspace.Diagnostic diagnostic : file.getDiagnostics()) {
+                    JsonObject item = new JsonObject();
+                    item.add("range", toRange(file, diagnostic.start, diagnostic.end));
+                    item.addProperty("severity", toLspSeverity(diagnostic.severity));
+                    item.addProperty("source", "spatialos-schema");
+                    item.addProperty("message", diagnostic.message);
+                    diagnostics.add(item);
+                }
+            }
+            JsonObject params = new JsonObject();
+            params.addProperty("uri", uri);
+            params.add("diagnostics", diagnostics);
+            connection.sendNotification("textDocument/publishDiagnostics", params);
+        }
+    }
+
+    private static int toLspSeverity(@NotNull SchemaProblem.Severity severity) {
+        switch (severity) {
+            case ERROR:
+                return 1;
+            case WARNING:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static int getOffset(@NotNull SchemaWorkspace.FileState file, @NotNull JsonObject params) {
+        JsonObject position = params.getAsJsonObject("position");
+        return file.getOffset(position.get("line").getAsInt(), position.get("character").getAsInt());
+    }
+
+    private static int getOffset(@NotNull CharSequence text, @NotNull JsonObject position) {
+        int line = position.get("line").getAsInt();
+        int offset = 0;
+        for (int i = 0; i < line && offset < text.length(); ++offset) {
+            if (text.charAt(offset) == '\n') {
+                ++i;
+            }
+        }
+        return Math.min(text.length(), offset + position.get("character").getAsInt());
+    }
+
+    private static @NotNull JsonObject toRange(@NotNull SchemaWorkspace.FileState file, int start, int end) {
+        JsonObject range = new JsonObject();
+        range.add("start", toPosition(file, start));
+        range.add("end", toPosition(file, Math.min(end, file.text.length())));
+        return range;
+    }
+
+    private static @NotNull JsonObject toPosition(@NotNull SchemaWorkspace.FileState file, int offset) {
+        JsonObject position = new JsonObject();
+        position.addProperty("line", file.getLine(offset));
+        position.addProperty("character", file.getColumn(offset));
+        return position;
+    }
+}
@@ -0,0 +1,116 @@
+package com.improbable.spatialos.schema.intellij.lsp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes JSON-RPC messages framed with Content-Length headers, as the language server protocol specifies.
+ * Writes are synchronized so diagnostics can be published from any thread.
+ */
+public class SchemaLspConnection {
+    private static final String CONTENT_LENGTH = "Content-Length:";
+
+    private final InputStream input;
+    private final OutputStream output;
+
+    public SchemaLspConnection(@NotNull InputStream input, @NotNull OutputStream output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * Returns the next message, or null at the end of the input.
+     */
+    public @Nullable JsonObject read() throws IOException {
+        int contentLength = -1;
+        while (true) {
+            String header = readHeaderLine();
+            if (header == null) {
+                return null;
+            }
+            if (header.isEmpty()) {
+                if (contentLength >= 0) {
+                    break;
+                }
+                continue;
+            }
+            if (header.regionMatches(true, 0, CONTENT_LENGTH, 0, CONTENT_LENGTH.length())) {
+                contentLength = Integer.parseInt(header.substring(CONTENT_LENGTH.length()).trim());
+            }
+        }
+        byte[] content = new byte[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int count = input.read(content, read, contentLength - read);
+            if (count < 0) {
+                return null;
+            }
+            read += count;
+        }
+        return new JsonParser().parse(new String(content, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    public synchronized void write(@NotNull JsonObject message) throws IOException {
+        message.addProperty("jsonrpc", "2.0");
+        byte[] content = message.toString().getBytes(StandardCharsets.UTF_8);
+        output.write((CONTENT_LENGTH + " " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        output.write(content);
+        output.flush();
+    }
+
+    public void sendResponse(@NotNull JsonElement id, @Nullable JsonElement result) throws IOException {
+        JsonObject response = new JsonObject();
+        response.add("id", id);
+        response.add("result", result);
+        write(response);
+    }
+
+    public void sendError(@NotNull JsonElement id, int code, @NotNull String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        JsonObject response = new JsonObject();
+        response.add("id", id);
+        response.add("error", error);
+        write(response);
+    }
+
+    public void sendNotification(@NotNull String method, @NotNull JsonElement params) throws IOException {
+        JsonObject notification = new JsonObject();
+        notification.addProperty("method", method);
+        notification.add("params", params);
+        write(notification);
+    }
+
+    public void sendRequest(int id, @NotNull String method, @NotNull JsonElement params) throws IOException {
+        JsonObject request = new JsonObject();
+        request.addProperty("id", id);
+        request.addProperty("method", method);
+        request.add("params", params);
+        write(request);
+    }
+
+    private @Nullable String readHeaderLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int c = input.read();
+            if (c < 0) {
+                return null;
+            }
+            if (c == '\n') {
+                String text = new String(line.toByteArray(), StandardCharsets.US_ASCII);
+                return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+            }
+            line.write(c);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.improbable.spatialos.schema.intellij.lsp;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaFileSnapshot;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaSemanticChecker;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaSnapshotBuilder;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypes;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLexer;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParserDefinition;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.psi.PsiErrorElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The language server's in-memory model of every schema file under the schema paths. Each file keeps only its text,
+ * summary, snapshot and diagnostics; syntax trees are dropped after parsing. Reverse maps from defined qualified names
+ * and referenced simple names to files let an update re-check just the changed file and the files that depend on it.
+ */
+public class SchemaWorkspace {
+    private static final SchemaParserDefinition PARSER_DEFINITION = new SchemaParserDefinition();
+
+    public static class Diagnostic {
+        public final int start;
+        public final int end;
+        public final SchemaProblem.Severity severity;
+        public final String message;
+
+        public Diagnostic(int start, int end, @NotNull SchemaProblem.Severity severity, @NotNull String message) {
+            this.start = start;
+            this.end = end;
+            this.severity = severity;
+            this.message = message;
+        }
+    }
+
+    public static class Location {
+        public final FileState file;
+        public final int start;
+        public final int end;
+
+        public Location(@NotNull FileState file, int start, int end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class FileState {
+        public final String uri;
+        public final String text;
+        public final SchemaFileSummary summary;
+        public final SchemaFileSnapshot snapshot;
+        private final int[] lineStarts;
+        private final List<Diagnostic> syntaxErrors = new ArrayList<>();
+        private List<Diagnostic> diagnostics = Collections.emptyList();
+
+        FileState(@NotNull String uri, @NotNull String text) {
+            this.uri = uri;
+            this.text = text;
+            ASTNode root = parse(text);
+            this.summary = SchemaSummaryBuilder.build(root);
+            this.snapshot = SchemaSnapshotBuilder.build(root);
+            this.lineStarts = computeLineStarts(text);
+            collectSyntaxErrors(root);
+        }
+
+        public @NotNull List<Diagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        public int getLine(int offset) {
+            int line = Arrays.binarySearch(lineStarts, offset);
+            return line >= 0 ? line : -line - 2;
+        }
+
+        public int getColumn(int offset) {
+            return offset - lineStarts[getLine(offset)];
+        }
+
+        public int getOffset(int line, int column) {
+            if (line >= lineStarts.length) {
+                return text.length();
+            }
+            int lineEnd = line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : text.length();
+            return Math.min(lineStarts[Math.max(0, line)] + column, lineEnd);
+        }
+
+        private void collectSyntaxErrors(@NotNull ASTNode node) {
+            if (node instanceof PsiErrorElement) {
+                int start = node.getStartOffset();
+                syntaxErrors.add(new Diagnostic(start, Math.max(start + 1, start + node.getTextLength()),
+                                                SchemaProblem.Severity.ERROR,
+                                                ((PsiErrorElement) node).getErrorDescription()));
+            }
+            for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+                collectSyntaxErrors(child);
+            }
+        }
+    }
+
+    private final Map<String, FileState> files = new HashMap<>();
+    private final Map<String, Set<String>> definingFiles = new HashMap<>();
+    private final Map<String, Set<String>> referencingFiles = new HashMap<>();
+
+    public static @NotNull ASTNode parse(@NotNull CharSequence text) {
+        return SchemaParser.SCHEMA_PARSER.parse(SchemaParser.SCHEMA_FILE, PsiBuilderFactory.getInstance().createBuilder(
+            PARSER_DEFINITION, new SchemaLexer(), text));
+    }
+
+    public synchronized @Nullable FileState get(@NotNull String uri) {
+        return files.get(uri);
+    }
+
+    public synchronized @NotNull Collection<String> getUris() {
+        return new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * Adds files parsed elsewhere (e.g. in parallel at startup) and checks all of them.
+     */
+    public synchronized void addAll(@NotNull Collection<FileState> parsed) {
+        for (FileState file : parsed) {
+            FileState old = files.put(file.uri, file);
+            if (old != null) {
+                unregister(old);
+            }
+            register(file);
+        }
+        for (FileState file : files.values()) {
+            check(file);
+        }
+    }
+
+    /**
+     * Replaces the text of a file and returns the files whose diagnostics were recomputed.
+     */
+    public synchronized @NotNull Set<String> update(@NotNull String uri, @NotNull String text) {
+        return replace(uri, new FileState(uri, text));
+    }
+
+    public synchronized @NotNull Set<String> remove(@NotNull String uri) {
+        return replace(uri, null);
+    }
+
+    public static @NotNull FileState createFile(@NotNull String uri, @NotNull String text) {
+        return new FileState(uri, text);
+    }
+
+    private @NotNull Set<String> replace(@NotNull String uri, @Nullable FileState file) {
+        FileState old = files.remove(uri);
+        Set<String> affected = new LinkedHashSet<>();
+        affected.add(uri);
+        if (old != null) {
+            unregister(old);
+            collectDependents(old, affected);
+        }
+        if (file != null) {
+            files.put(uri, file);
+            register(file);
+            collectDependents(file, affected);
+        }
+        for (String affectedUri : affected) {
+            FileState affectedFile = files.get(affectedUri);
+            if (affectedFile != null) {
+                check(affectedFile);
+            }
+        }
+        return affected;
+    }
+
+    public synchronized @Nullable Location findDefinition(@NotNull FileState file, int offset) {
+        for (SchemaFileSnapshot.Reference reference : file.snapshot.references) {
+            if (offset < reference.range.start || offset > reference.range.end) {
+                continue;
+            }
+            String qualifiedName = SchemaTypeResolver.resolve(file.snapshot.packageName, reference.scopeName,
+                                                              reference.text, definingFiles::containsKey);
+            Set<String> uris = qualifiedName == null ? null : definingFiles.get(qualifiedName);
+            if (uris == null || uris.isEmpty()) {
+                return null;
+            }
+            FileState target = files.get(uris.iterator().next());
+            for (SchemaFileSnapshot.Scope scope : target.snapshot.scopes) {
+                if (scope.nameRange != null &&
+                    qualifiedName.equals(SchemaResolver.join(target.snapshot.packageName, scope.name))) {
+                    return new Location(target, scope.nameRange.start, scope.nameRange.end);
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type names that can be written at the given offset and start with the text before it.
+     */
+    public synchronized @NotNull List<String> complete(@NotNull FileState file, int offset) {
+        int start = offset;
+        while (start > 0 && (Character.isLetterOrDigit(file.text.charAt(start - 1)) ||
+                             file.text.charAt(start - 1) == '_' || file.text.charAt(start - 1) == '.')) {
+            --start;
+        }
+        String prefix = file.text.substring(start, offset);
+        Set<String> names = new TreeSet<>();
+        names.addAll(SchemaTypes.BUILT_IN_TYPES);
+        names.addAll(SchemaTypes.BUILT_IN_GENERIC_TYPES);
+        String packagePrefix = file.snapshot.packageName.isEmpty() ? "" : file.snapshot.packageName + ".";
+        for (String qualifiedName : definingFiles.keySet()) {
+            names.add(qualifiedName);
+            if (!packagePrefix.isEmpty() && qualifiedName.startsWith(packagePrefix)) {
+                names.add(qualifiedName.substring(packagePrefix.length()));
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            if (name.startsWith(prefix)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    private void register(@NotNull FileState file) {
+        for (SchemaDefinition definition : file.summary.definitions) {
+            definingFiles.computeIfAbsent(definition.getQualifiedName(file.summary.packageName),
+                                          name -> new LinkedHashSet<>()).add(file.uri);
+        }
+        for (SchemaFileSnapshot.Reference reference : file.snapshot.references) {
+            referencingFiles.computeIfAbsent(getSimpleName(reference.text), name -> new HashSet<>()).add(file.uri);
+        }
+    }
+
+    private void unregister(@NotNull FileState file) {
+        for (SchemaDefinition definition : file.summary.definitions) {
+            removeFromSet(definingFiles, definition.getQualifiedName(file.summary.packageName), file.uri);
+        }
+        for (SchemaFileSnapshot.Reference reference : file.snapshot.references) {
+            removeFromSet(referencingFiles, getSimpleName(reference.text), file.uri);
+        }
+    }
+
+    /**
+     * Adds the files that refer to, or also define, any name the given file defines.
+     */
+    private void collectDependents(@NotNull FileState file, @NotNull Set<String> affected) {
+        for (SchemaDefinition definition : file.summary.definitions) {
+            affected.addAll(referencingFiles.getOrDefault(getSimpleName(definition.name), Collections.emptySet()));
+            affected.addAll(definingFiles.getOrDefault(definition.getQualifiedName(file.summary.packageName),
+                                                       Collections.emptySet()));
+        }
+    }
+
+    private void check(@NotNull FileState file) {
+        List<Diagnostic> diagnostics = new ArrayList<>(file.syntaxErrors);
+        for (SchemaProblem problem : SchemaSemanticChecker.check(file.snapshot, new WorkspaceContext())) {
+            diagnostics.add(new Diagnostic(problem.start, problem.end, problem.severity, problem.message));
+        }
+        for (SchemaFileSnapshot.Scope scope : file.snapshot.scopes) {
+            if (scope.nameRange == null) {
+                continue;
+            }
+            String qualifiedName = SchemaResolver.join(file.snapshot.packageName, scope.name);
+            for (String other : definingFiles.getOrDefault(qualifiedName, Collections.emptySet())) {
+                if (!other.equals(file.uri)) {
+                    diagnostics.add(new Diagnostic(scope.nameRange.start, scope.nameRange.end,
+                                                   SchemaProblem.Severity.ERROR,
+                                                   "'" + qualifiedName + "' is also defined in " + other + "."));
+                    break;
+                }
+            }
+        }
+        file.diagnostics = diagnostics;
+    }
+
+    private class WorkspaceContext implements SchemaSemanticChecker.Context {
+        @Override
+        public boolean exists(@NotNull String qualifiedName) {
+            return definingFiles.containsKey(qualifiedName);
+        }
+
+        @Override
+        public @Nullable int[] getFieldNumbers(@NotNull String qualifiedName) {
+            Set<String> uris = definingFiles.get(qualifiedName);
+            if (uris == null || uris.isEmpty()) {
+                return null;
+            }
+            SchemaFileSummary summary = files.get(uris.iterator().next()).summary;
+            String packagePrefix = summary.packageName.isEmpty() ? "" : summary.packageName + ".";
+            SchemaDefinition definition = summary.findDefinition(qualifiedName.substring(packagePrefix.length()));
+            if (definition == null) {
+                return null;
+            }
+            return definition.fields.stream()
+                .filter(field -> field.kind == SchemaField.Kind.FIELD).mapToInt(field -> field.number).toArray();
+        }
+
+        @Override
+        public void checkCanceled() {
+        }
+    }
+
+    private static void removeFromSet(@NotNull Map<String, Set<String>> map, @NotNull String key,
+                                      @NotNull String uri) {
+        Set<String> uris = map.get(key);
+        if (uris != null) {
+            uris.remove(uri);
+            if (uris.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static @NotNull String getSimpleName(@NotNull String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static @NotNull int[] computeLineStarts(@NotNull String text) {
+        int count = 1;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n') {
+                ++count;
+            }
+        }
+        int[] lineStarts = new int[count];
+        int line = 1;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n') {
+                lineStarts[line++] = i + 1;
+            }
+        }
+        return lineStarts;
+    }
+}
@@ -0,0 +1,214 @@
+package com.improbable.spatialos.schema.intellij.metrics;
+
+import com.improbable.spatialos.schema.intellij.util.JsonStrings;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters for the lexer, parser, annotator and formatter. When disabled, {@link #start()} returns
+ * {@link #DISABLED} and {@link #record} returns immediately, so instrumented code pays for one volatile read.
+ */
+public class SchemaMetrics {
+    public static final SchemaMetrics SCHEMA_METRICS =
+        new SchemaMetrics(Boolean.getBoolean("spatialos.schema.metrics"));
+    public static final long DISABLED = -1;
+
+    public enum Stage {
+        LEX("Lex"),
+        PARSE("Parse"),
+        ANNOTATE("Annotate"),
+        ANALYZE("Analyze"),
+        INSPECT("Inspect"),
+        FORMAT("Format");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public static class Counters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder items = new LongAdder();
+
+        private void add(long nanos, int itemCount) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            items.add(itemCount);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getItems() {
+            return items.sum();
+        }
+    }
+
+    public static class Row {
+        public final String file;
+        public final Stage stage;
+        public final long count;
+        public final long totalNanos;
+        public final long maxNanos;
+        public final long items;
+
+        private Row(String file, Stage stage, Counters counters) {
+            this.file = file;
+            this.stage = stage;
+            this.count = counters.getCount();
+            this.totalNanos = counters.getTotalNanos();
+            this.maxNanos = counters.getMaxNanos();
+            this.items = counters.getItems();
+        }
+    }
+
+    private static class LexPass {
+        long nanos;
+        int tokens;
+        boolean pending;
+    }
+
+    private static final String ALL_FILES = "<all files>";
+
+    private volatile boolean enabled;
+    private final Map<String, Counters[]> fileCounters = new ConcurrentHashMap<>();
+    private final ThreadLocal<LexPass> lastLexPass = ThreadLocal.withInitial(LexPass::new);
+
+    private SchemaMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    public void record(@NotNull Stage stage, @Nullable String file, long start, int items) {
+        if (start == DISABLED || !enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        getCounters(ALL_FILES)[stage.ordinal()].add(nanos, items);
+        if (file != null) {
+            getCounters(file)[stage.ordinal()].add(nanos, items);
+        }
+    }
+
+    /**
+     * Records a full lexer pass for all files. The lexer does not know which file it reads, so the pass is also kept
+     * for {@link #attributeLexPass}: PsiBuilder lexes the whole text on the parsing thread just before the parser runs.
+     */
+    public void recordLexPass(long start, int tokens) {
+        if (start == DISABLED || !enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        getCounters(ALL_FILES)[Stage.LEX.ordinal()].add(nanos, tokens);
+        LexPass pass = lastLexPass.get();
+        pass.nanos = nanos;
+        pass.tokens = tokens;
+        pass.pending = true;
+    }
+
+    /**
+     * Adds this thread's last lexer pass, if it has not been claimed yet, to the counters of {@code file}.
+     */
+    public void attributeLexPass(@Nullable String file) {
+        if (!enabled) {
+            return;
+        }
+        LexPass pass = lastLexPass.get();
+        if (pass.pending && file != null) {
+            getCounters(file)[Stage.LEX.ordinal()].add(pass.nanos, pass.tokens);
+        }
+        pass.pending = false;
+    }
+
+    public void reset() {
+        fileCounters.clear();
+    }
+
+    public @NotNull List<Row> snapshot() {
+        List<Row> rows = new ArrayList<>();
+        for (Map.Entry<String, Counters[]> entry : new TreeMap<>(fileCounters).entrySet()) {
+            for (Stage stage : Stage.values()) {
+                Counters counters = entry.getValue()[stage.ordinal()];
+                if (counters.getCount() > 0) {
+                    rows.add(new Row(entry.getKey(), stage, counters));
+                }
+            }
+        }
+        return rows;
+    }
+
+    public @NotNull String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"enabled\": ").append(enabled).append(",\n  \"metrics\": [");
+        String separator = "\n";
+        for (Row row : snapshot()) {
+            json.append(separator).append("    {\"file\": ");
+            JsonStrings.append(json, row.file);
+            json.append(", \"stage\": \"").append(row.stage.name().toLowerCase())
+                .append("\", \"count\": ").append(row.count)
+                .append(", \"totalNanos\": ").append(row.totalNanos)
+                .append(", \"maxNanos\": ").append(row.maxNanos)
+                .append(", \"items\": ").append(row.items).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    public static @Nullable String getFileName(@Nullable PsiFile file) {
+        if (file == null) {
+            return null;
+        }
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        return virtualFile == null ? file.getName() : virtualFile.getPath();
+    }
+
+    private @NotNull Counters[] getCounters(@NotNull String file) {
+        return fileCounters.computeIfAbsent(file, key -> {
+            Counters[] counters = new Counters[Stage.values().length];
+            for (int i = 0; i < counters.length; ++i) {
+                counters[i] = new Counters();
+            }
+            return counters;
+        });
+    }
+}
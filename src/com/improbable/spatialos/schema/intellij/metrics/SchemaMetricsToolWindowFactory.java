@@ -0,0 +1,130 @@
+package com.improbable.spatialos.schema.intellij.metrics;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.fileChooser.FileSaverDialog;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchemaMetricsToolWindowFactory implements ToolWindowFactory {
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        Content content = ContentFactory.SERVICE.getInstance().createContent(new Gui(project), "", false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    private static class MetricsTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"File", "Stage", "Count", "Total (ms)", "Max (ms)", "Tokens/nodes"};
+
+        private List<SchemaMetrics.Row> rows = new ArrayList<>();
+
+        public void refresh() {
+            rows = SchemaMetrics.SCHEMA_METRICS.snapshot();
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column < 2) {
+                return String.class;
+            }
+            return column == 3 || column == 4 ? Double.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int column) {
+            SchemaMetrics.Row row = rows.get(rowIndex);
+            switch (column) {
+                case 0: return row.file;
+                case 1: return row.stage.getDisplayName();
+                case 2: return row.count;
+                case 3: return row.totalNanos / 1e6;
+                case 4: return row.maxNanos / 1e6;
+                default: return row.items;
+            }
+        }
+    }
+
+    private static class Gui extends JPanel {
+        private final Project project;
+        private final MetricsTableModel model = new MetricsTableModel();
+
+        public Gui(@NotNull Project project) {
+            super(new BorderLayout());
+            this.project = project;
+
+            JCheckBox enabled = new JCheckBox("Record metrics", SchemaMetrics.SCHEMA_METRICS.isEnabled());
+            enabled.addActionListener(e -> SchemaMetrics.SCHEMA_METRICS.setEnabled(enabled.isSelected()));
+            JButton refresh = new JButton("Refresh");
+            refresh.addActionListener(e -> model.refresh());
+            JButton reset = new JButton("Reset");
+            reset.addActionListener(e -> {
+                SchemaMetrics.SCHEMA_METRICS.reset();
+                model.refresh();
+            });
+            JButton export = new JButton("Export JSON...");
+            export.addActionListener(e -> exportJson());
+
+            JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            toolbar.add(enabled);
+            toolbar.add(refresh);
+            toolbar.add(reset);
+            toolbar.add(export);
+
+            JBTable table = new JBTable(model);
+            table.setAutoCreateRowSorter(true);
+            add(toolbar, BorderLayout.NORTH);
+            add(new JBScrollPane(table), BorderLayout.CENTER);
+            model.refresh();
+        }
+
+        private void exportJson() {
+            FileSaverDialog dialog = FileChooserFactory.getInstance().createSaveFileDialog(
+                new FileSaverDescriptor("Export Schema Metrics", "Save a JSON snapshot of the schema metrics.", "json"),
+                project);
+            VirtualFileWrapper target = dialog.save(null, "schema-metrics.json");
+            if (target == null) {
+                return;
+            }
+            try {
+                Files.write(target.getFile().toPath(),
+                            SchemaMetrics.SCHEMA_METRICS.toJson().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                Messages.showErrorDialog(project, e.getMessage(), "Export Schema Metrics");
+            }
+        }
+    }
+}
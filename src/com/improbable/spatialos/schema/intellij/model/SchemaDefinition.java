@@ -0,0 +1,51 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaDefinition {
+    public enum Kind {
+        ENUM,
+        TYPE,
+        COMPONENT,
+    }
+
+    public static final int NO_COMPONENT_ID = -1;
+
+    public final Kind kind;
+    /** The name relative to the package, with nested definitions separated by '.'. */
+    public final String name;
+    public final int componentId;
+    public final int offset;
+    public final List<SchemaField> fields;
+
+    public SchemaDefinition(@NotNull Kind kind, @NotNull String name, int componentId, int offset,
+                            @NotNull List<SchemaField> fields) {
+        this.kind = kind;
+        this.name = name;
+        this.componentId = componentId;
+        this.offset = offset;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    public @NotNull String getQualifiedName(@NotNull String packageName) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SchemaDefinition)) {
+            return false;
+        }
+        SchemaDefinition definition = (SchemaDefinition) other;
+        return kind == definition.kind && name.equals(definition.name) && componentId == definition.componentId &&
+            offset == definition.offset && fields.equals(definition.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((kind.hashCode() * 31 + name.hashCode()) * 31 + componentId) * 31 + fields.hashCode();
+    }
+}
@@ -0,0 +1,56 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaField {
+    public enum Kind {
+        FIELD,
+        DATA,
+        EVENT,
+        ENUM_VALUE,
+    }
+
+    public static final int NO_NUMBER = -1;
+
+    public final Kind kind;
+    public final String name;
+    public final int number;
+    public final @Nullable String typeName;
+    public final List<String> typeParameters;
+
+    public SchemaField(@NotNull Kind kind, @NotNull String name, int number, @Nullable String typeName,
+                       @NotNull List<String> typeParameters) {
+        this.kind = kind;
+        this.name = name;
+        this.number = number;
+        this.typeName = typeName;
+        this.typeParameters = Collections.unmodifiableList(typeParameters);
+    }
+
+    public @NotNull String getTypeText() {
+        if (typeName == null) {
+            return "";
+        }
+        return typeParameters.isEmpty() ? typeName : typeName + "<" + String.join(", ", typeParameters) + ">";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SchemaField)) {
+            return false;
+        }
+        SchemaField field = (SchemaField) other;
+        return kind == field.kind && name.equals(field.name) && number == field.number &&
+            (typeName == null ? field.typeName == null : typeName.equals(field.typeName)) &&
+            typeParameters.equals(field.typeParameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((kind.hashCode() * 31 + name.hashCode()) * 31 + number) * 31 + getTypeText().hashCode();
+    }
+}
@@ -0,0 +1,47 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything other files need to know about a schema file, without its syntax tree.
+ */
+public class SchemaFileSummary {
+    public final String packageName;
+    public final List<String> imports;
+    public final List<SchemaDefinition> definitions;
+
+    public SchemaFileSummary(@NotNull String packageName, @NotNull List<String> imports,
+                             @NotNull List<SchemaDefinition> definitions) {
+        this.packageName = packageName;
+        this.imports = Collections.unmodifiableList(imports);
+        this.definitions = Collections.unmodifiableList(definitions);
+    }
+
+    public @Nullable SchemaDefinition findDefinition(@NotNull String name) {
+        for (SchemaDefinition definition : definitions) {
+            if (definition.name.equals(name)) {
+                return definition;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SchemaFileSummary)) {
+            return false;
+        }
+        SchemaFileSummary summary = (SchemaFileSummary) other;
+        return packageName.equals(summary.packageName) && imports.equals(summary.imports) &&
+            definitions.equals(summary.definitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return (packageName.hashCode() * 31 + imports.hashCode()) * 31 + definitions.hashCode();
+    }
+}
@@ -0,0 +1,96 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link SchemaFileSummary}. Counts and numbers are written as varints.
+ */
+public class SchemaSummaryExternalizer {
+    public static final int VERSION = 1;
+
+    public static void write(@NotNull DataOutput out, @NotNull SchemaFileSummary summary) throws IOException {
+        out.writeUTF(summary.packageName);
+        writeVarInt(out, summary.imports.size());
+        for (String importName : summary.imports) {
+            out.writeUTF(importName);
+        }
+        writeVarInt(out, summary.definitions.size());
+        for (SchemaDefinition definition : summary.definitions) {
+            out.writeByte(definition.kind.ordinal());
+            out.writeUTF(definition.name);
+            writeVarInt(out, definition.componentId + 1);
+            writeVarInt(out, definition.offset);
+            writeVarInt(out, definition.fields.size());
+            for (SchemaField field : definition.fields) {
+                out.writeByte(field.kind.ordinal());
+                out.writeUTF(field.name);
+                writeVarInt(out, field.number + 1);
+                out.writeUTF(field.typeName == null ? "" : field.typeName);
+                writeVarInt(out, field.typeParameters.size());
+                for (String typeParameter : field.typeParameters) {
+                    out.writeUTF(typeParameter);
+                }
+            }
+        }
+    }
+
+    public static @NotNull SchemaFileSummary read(@NotNull DataInput in) throws IOException {
+        String packageName = in.readUTF();
+        int importCount = readVarInt(in);
+        List<String> imports = new ArrayList<>(importCount);
+        for (int i = 0; i < importCount; ++i) {
+            imports.add(in.readUTF());
+        }
+        int definitionCount = readVarInt(in);
+        List<SchemaDefinition> definitions = new ArrayList<>(definitionCount);
+        for (int i = 0; i < definitionCount; ++i) {
+            SchemaDefinition.Kind kind = SchemaDefinition.Kind.values()[in.readByte()];
+            String name = in.readUTF();
+            int componentId = readVarInt(in) - 1;
+            int offset = readVarInt(in);
+            int fieldCount = readVarInt(in);
+            List<SchemaField> fields = new ArrayList<>(fieldCount);
+            for (int j = 0; j < fieldCount; ++j) {
+                SchemaField.Kind fieldKind = SchemaField.Kind.values()[in.readByte()];
+                String fieldName = in.readUTF();
+                int number = readVarInt(in) - 1;
+                String typeName = in.readUTF();
+                int parameterCount = readVarInt(in);
+                List<String> typeParameters = new ArrayList<>(parameterCount);
+                for (int k = 0; k < parameterCount; ++k) {
+                    typeParameters.add(in.readUTF());
+                }
+                fields.add(new SchemaField(fieldKind, fieldName, number, typeName.isEmpty() ? null : typeName,
+                                           typeParameters));
+            }
+            definitions.add(new SchemaDefinition(kind, name, componentId, offset, fields));
+        }
+        return new SchemaFileSummary(packageName, imports, definitions);
+    }
+
+    public static void writeVarInt(@NotNull DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(@NotNull DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+}
@@ -0,0 +1,108 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Resolves type names written in a schema file to fully qualified definition names. A name is looked up in the
+ * enclosing definition, then in each enclosing scope outwards through the package, and finally as an absolute name.
+ */
+public class SchemaTypeResolver {
+    public static class Entry {
+        public final SchemaFileSummary file;
+        public final SchemaDefinition definition;
+
+        private Entry(SchemaFileSummary file, SchemaDefinition definition) {
+            this.file = file;
+            this.definition = definition;
+        }
+    }
+
+    private final Map<String, Entry> definitions = new HashMap<>();
+
+    public SchemaTypeResolver(@NotNull Collection<SchemaFileSummary> files) {
+        for (SchemaFileSummary file : files) {
+            for (SchemaDefinition definition : file.definitions) {
+                definitions.putIfAbsent(definition.getQualifiedName(file.packageName), new Entry(file, definition));
+            }
+        }
+    }
+
+    public @Nullable Entry get(@NotNull String qualifiedName) {
+        return definitions.get(qualifiedName);
+    }
+
+    public @NotNull Collection<String> getQualifiedNames() {
+        return definitions.keySet();
+    }
+
+    public @Nullable String resolve(@NotNull String packageName, @NotNull String scopeName, @NotNull String typeName) {
+        return resolve(packageName, scopeName, typeName, definitions::containsKey);
+    }
+
+    public static @Nullable String resolve(@NotNull String packageName, @NotNull String scopeName,
+                                           @NotNull String typeName, @NotNull Predicate<String> exists) {
+        if (typeName.startsWith(".")) {
+            String absolute = typeName.substring(1);
+            return exists.test(absolute) ? absolute : null;
+        }
+        String scope = packageName.isEmpty() ? scopeName : scopeName.isEmpty() ? packageName :
+            packageName + "." + scopeName;
+        while (true) {
+            String candidate = scope.isEmpty() ? typeName : scope + "." + typeName;
+            if (exists.test(candidate)) {
+                return candidate;
+            }
+            if (scope.isEmpty()) {
+                return null;
+            }
+            int dot = scope.lastIndexOf('.');
+            scope = dot < 0 ? "" : scope.substring(0, dot);
+        }
+    }
+
+    /**
+     * Returns the type name fully qualified with a leading '.', or unchanged if it is built in or does not resolve.
+     */
+    public @Nullable String qualify(@NotNull SchemaFileSummary file, @NotNull SchemaDefinition definition,
+                                    @Nullable String typeName) {
+        if (typeName == null || SchemaTypes.isBuiltIn(typeName)) {
+            return typeName;
+        }
+        String qualifiedName = resolve(file.packageName, definition.name, typeName);
+        return qualifiedName == null ? typeName : "." + qualifiedName;
+    }
+
+    /**
+     * Returns the fully qualified names of the user-defined types referenced by the fields of the definition.
+     */
+    public @NotNull List<String> getDependencies(@NotNull SchemaFileSummary file,
+                                                 @NotNull SchemaDefinition definition) {
+        List<String> dependencies = new ArrayList<>();
+        for (SchemaField field : definition.fields) {
+            addDependency(file, definition, field.typeName, dependencies);
+            for (String typeParameter : field.typeParameters) {
+                addDependency(file, definition, typeParameter, dependencies);
+            }
+        }
+        return dependencies;
+    }
+
+    private void addDependency(@NotNull SchemaFileSummary file, @NotNull SchemaDefinition definition,
+                               @Nullable String typeName, @NotNull List<String> dependencies) {
+        if (typeName == null || SchemaTypes.isBuiltIn(typeName)) {
+            return;
+        }
+        String resolved = resolve(file.packageName, definition.name, typeName);
+        if (resolved != null && !dependencies.contains(resolved)) {
+            dependencies.add(resolved);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.improbable.spatialos.schema.intellij.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class SchemaTypes {
+    public static final Set<String> BUILT_IN_GENERIC_TYPES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("option", "list", "map")));
+    public static final Set<String> BUILT_IN_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "double", "float", "string", "bytes", "int32", "int64", "uint32", "uint64", "sint32", "sint64",
+        "fixed32", "fixed64", "sfixed32", "sfixed64", "bool", "EntityId", "EntityPosition", "Coordinates",
+        "Vector3d", "Vector3f")));
+
+    public static boolean isBuiltIn(String typeName) {
+        return BUILT_IN_TYPES.contains(typeName) || BUILT_IN_GENERIC_TYPES.contains(typeName);
+    }
+}
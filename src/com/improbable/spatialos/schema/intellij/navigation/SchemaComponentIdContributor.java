@@ -0,0 +1,50 @@
+package com.improbable.spatialos.schema.intellij.navigation;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaComponentIdIndex;
+import com.intellij.navigation.ChooseByNameContributor;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Makes component IDs searchable from Go to Symbol and Search Everywhere. Names and items come straight from
+ * {@link SchemaComponentIdIndex}.
+ */
+public class SchemaComponentIdContributor implements ChooseByNameContributor {
+    @Override
+    public @NotNull String[] getNames(Project project, boolean includeNonProjectItems) {
+        Collection<Integer> componentIds = SchemaComponentIdIndex.getAllComponentIds(project);
+        String[] names = new String[componentIds.size()];
+        int i = 0;
+        for (int componentId : componentIds) {
+            names[i++] = Integer.toString(componentId);
+        }
+        return names;
+    }
+
+    @Override
+    public @NotNull NavigationItem[] getItemsByName(String name, String pattern, Project project,
+                                                    boolean includeNonProjectItems) {
+        int componentId = parseComponentId(name);
+        if (componentId < 0) {
+            return NavigationItem.EMPTY_NAVIGATION_ITEM_ARRAY;
+        }
+        List<NavigationItem> items = new ArrayList<>();
+        for (SchemaComponentIdIndex.Match match : SchemaComponentIdIndex.find(project, componentId)) {
+            items.add(new SchemaComponentNavigationItem(project, componentId, match));
+        }
+        return items.toArray(new NavigationItem[items.size()]);
+    }
+
+    public static int parseComponentId(@NotNull String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
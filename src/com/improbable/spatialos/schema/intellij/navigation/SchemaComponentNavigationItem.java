@@ -0,0 +1,68 @@
+package com.improbable.spatialos.schema.intellij.navigation;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaComponentIdIndex;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * A component found through {@link SchemaComponentIdIndex}. Navigating opens the file at the stored offset, so the
+ * file is never parsed to build the item.
+ */
+public class SchemaComponentNavigationItem implements NavigationItem, ItemPresentation {
+    private final Project project;
+    private final int componentId;
+    private final SchemaComponentIdIndex.Match match;
+
+    public SchemaComponentNavigationItem(@NotNull Project project, int componentId,
+                                         @NotNull SchemaComponentIdIndex.Match match) {
+        this.project = project;
+        this.componentId = componentId;
+        this.match = match;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return Integer.toString(componentId);
+    }
+
+    @Override
+    public @NotNull ItemPresentation getPresentation() {
+        return this;
+    }
+
+    @Override
+    public @NotNull String getPresentableText() {
+        return componentId + " " + match.location.qualifiedName;
+    }
+
+    @Override
+    public @NotNull String getLocationString() {
+        return "(" + match.file.getPresentableUrl() + ")";
+    }
+
+    @Override
+    public @Nullable Icon getIcon(boolean unused) {
+        return null;
+    }
+
+    @Override
+    public void navigate(boolean requestFocus) {
+        new OpenFileDescriptor(project, match.file, match.location.offset).navigate(requestFocus);
+    }
+
+    @Override
+    public boolean canNavigate() {
+        return match.file.isValid();
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+        return canNavigate();
+    }
+}
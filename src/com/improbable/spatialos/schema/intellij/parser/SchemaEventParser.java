@@ -0,0 +1,371 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the contents of a schema file as a stream of events instead of building a tree, for bulk tools that only
+ * read each definition once. It runs the grammar of {@link SchemaParser} straight over the lexer, so it accepts the
+ * same files, reports the same errors and recovers from them in the same way, while holding nothing but the
+ * statement being parsed and a reused marker per level of nesting.
+ * <p>
+ * Statements cut short by an error are still reported as far as they were parsed, like the tree keeps them, and the
+ * error follows. A definition whose name was parsed is always closed with {@link Listener#endDefinition}.
+ */
+public class SchemaEventParser {
+    public interface Listener {
+        void packageDefinition(@NotNull String name, int offset);
+
+        /**
+         * {@code path} is the imported path without the quotes.
+         */
+        void importDefinition(@NotNull String path, int offset);
+
+        void beginDefinition(@NotNull SchemaDefinition.Kind kind, @NotNull String name, int offset);
+
+        void endDefinition(int offset);
+
+        void option(@NotNull String name, @Nullable String value, int offset);
+
+        /**
+         * {@code componentId} is {@link SchemaDefinition#NO_COMPONENT_ID} if it is missing or out of range.
+         */
+        void componentId(int componentId, int offset);
+
+        /**
+         * Reports a field, data, event or enum value definition. {@code name} is empty and {@code number} is
+         * {@link SchemaField#NO_NUMBER} if they are missing or out of range.
+         */
+        void field(@NotNull SchemaField.Kind kind, @Nullable String typeName, @NotNull List<String> typeParameters,
+                   @NotNull String name, int number, int offset);
+
+        void error(@NotNull String message, int startOffset, int endOffset);
+    }
+
+    public static class Adapter implements Listener {
+        @Override
+        public void packageDefinition(@NotNull String name, int offset) {
+        }
+
+        @Override
+        public void importDefinition(@NotNull String path, int offset) {
+        }
+
+        @Override
+        public void beginDefinition(@NotNull SchemaDefinition.Kind kind, @NotNull String name, int offset) {
+        }
+
+        @Override
+        public void endDefinition(int offset) {
+        }
+
+        @Override
+        public void option(@NotNull String name, @Nullable String value, int offset) {
+        }
+
+        @Override
+        public void componentId(int componentId, int offset) {
+        }
+
+        @Override
+        public void field(@NotNull SchemaField.Kind kind, @Nullable String typeName,
+                          @NotNull List<String> typeParameters, @NotNull String name, int number, int offset) {
+        }
+
+        @Override
+        public void error(@NotNull String message, int startOffset, int endOffset) {
+        }
+    }
+
+    public static void parse(@NotNull CharSequence text, @NotNull Listener listener) {
+        new Instance(text, listener).parseSchemaFile(SchemaParser.SCHEMA_FILE);
+    }
+
+    /**
+     * An open marker. Markers are closed in the reverse order they were opened in, so they are kept on a stack and
+     * reused.
+     */
+    private static class Mark {
+        int start;
+        boolean begun;
+    }
+
+    private static class Instance extends SchemaParser.Instance<Mark> {
+        private static final int NONE = -1;
+
+        private final CharSequence text;
+        private final Listener listener;
+        private final SchemaLexer lexer = new SchemaLexer();
+        private final List<Mark> marks = new ArrayList<>();
+        private int depth = 0;
+
+        // The current token and the one after it, both skipping whitespace and comments.
+        private IElementType tokenType;
+        private int tokenStart;
+        private int tokenEnd;
+        private IElementType nextType;
+        private int nextStart;
+        private int nextEnd;
+        private int previousTokenEnd = 0;
+
+        // The parts of the statement being parsed, as offsets into the text.
+        private int keywordStart = NONE;
+        private int keywordEnd;
+        private int nameStart = NONE;
+        private int nameEnd;
+        private int valueStart = NONE;
+        private int valueEnd;
+        private int typeNameStart = NONE;
+        private int typeNameEnd;
+        private List<String> typeParameters = null;
+        private boolean hasFieldType = false;
+
+        public Instance(@NotNull CharSequence text, @NotNull Listener listener) {
+            this.text = text;
+            this.listener = listener;
+            lexer.start(text, 0, text.length(), 0);
+            skipIgnoredTokens();
+            nextType = lexer.getTokenType();
+            nextStart = lexer.getTokenStart();
+            nextEnd = lexer.getTokenEnd();
+            advanceLexer();
+        }
+
+        private void skipIgnoredTokens() {
+            while (lexer.getTokenType() == TokenType.WHITE_SPACE || lexer.getTokenType() == SchemaLexer.COMMENT) {
+                lexer.advance();
+            }
+        }
+
+        @Override
+        protected @Nullable IElementType getTokenType() {
+            return tokenType;
+        }
+
+        @Override
+        protected @Nullable IElementType lookAhead() {
+            return nextType;
+        }
+
+        @Override
+        protected boolean eof() {
+            return tokenType == null;
+        }
+
+        @Override
+        protected int getCurrentOffset() {
+            return tokenStart;
+        }
+
+        @Override
+        protected int getTokenEnd() {
+            return tokenEnd;
+        }
+
+        @Override
+        protected @NotNull CharSequence getOriginalText() {
+            return text;
+        }
+
+        @Override
+        protected void advanceLexer() {
+            if (tokenType != null) {
+                previousTokenEnd = tokenEnd;
+            }
+            tokenType = nextType;
+            tokenStart = nextStart;
+            tokenEnd = nextEnd;
+            if (nextType != null) {
+                lexer.advance();
+                skipIgnoredTokens();
+                nextType = lexer.getTokenType();
+                nextStart = lexer.getTokenStart();
+                nextEnd = lexer.getTokenEnd();
+            }
+        }
+
+        @Override
+        protected void consumeTokenAs(@Nullable IElementType nodeType) {
+            if (nodeType == SchemaParser.KEYWORD) {
+                keywordStart = tokenStart;
+                keywordEnd = tokenEnd;
+            } else if (nodeType == SchemaParser.PACKAGE_NAME || nodeType == SchemaParser.IMPORT_FILENAME ||
+                       nodeType == SchemaParser.OPTION_NAME || nodeType == SchemaParser.FIELD_NAME) {
+                nameStart = tokenStart;
+                nameEnd = tokenEnd;
+            } else if (nodeType == SchemaParser.OPTION_VALUE || nodeType == SchemaParser.FIELD_NUMBER) {
+                valueStart = tokenStart;
+                valueEnd = tokenEnd;
+            } else if (nodeType == SchemaParser.TYPE_NAME) {
+                typeNameStart = tokenStart;
+                typeNameEnd = tokenEnd;
+            } else if (nodeType == SchemaParser.TYPE_PARAMETER_NAME) {
+                if (typeParameters == null) {
+                    typeParameters = new ArrayList<>(2);
+                }
+                typeParameters.add(getText(tokenStart, tokenEnd));
+            } else if (nodeType == SchemaParser.DEFINITION_NAME) {
+                beginDefinition();
+            }
+            advanceLexer();
+        }
+
+        private void beginDefinition() {
+            SchemaDefinition.Kind kind = getDefinitionKind();
+            if (kind != null) {
+                Mark mark = marks.get(depth - 1);
+                mark.begun = true;
+                listener.beginDefinition(kind, getText(tokenStart, tokenEnd), mark.start);
+            }
+            clearStatement();
+        }
+
+        private @Nullable SchemaDefinition.Kind getDefinitionKind() {
+            if (keywordStart == NONE) {
+                return null;
+            }
+            if (matches(keywordStart, keywordEnd, SchemaParser.KEYWORD_ENUM)) {
+                return SchemaDefinition.Kind.ENUM;
+            }
+            if (matches(keywordStart, keywordEnd, SchemaParser.KEYWORD_TYPE)) {
+                return SchemaDefinition.Kind.TYPE;
+            }
+            if (matches(keywordStart, keywordEnd, SchemaParser.KEYWORD_COMPONENT)) {
+                return SchemaDefinition.Kind.COMPONENT;
+            }
+            return null;
+        }
+
+        @Override
+        protected @NotNull Mark mark() {
+            if (depth == marks.size()) {
+                marks.add(new Mark());
+            }
+            Mark mark = marks.get(depth++);
+            mark.start = tokenStart;
+            mark.begun = false;
+            return mark;
+        }
+
+        @Override
+        protected void done(@NotNull Mark marker, @NotNull IElementType elementType) {
+            --depth;
+            if (elementType == SchemaParser.FIELD_TYPE) {
+                hasFieldType = true;
+                return;
+            }
+            if (elementType == SchemaParser.PACKAGE_DEFINITION) {
+                if (nameStart != NONE) {
+                    listener.packageDefinition(getText(nameStart, nameEnd), marker.start);
+                }
+            } else if (elementType == SchemaParser.IMPORT_DEFINITION) {
+                if (nameStart != NONE) {
+                    listener.importDefinition(unquote(nameStart, nameEnd), marker.start);
+                }
+            } else if (elementType == SchemaParser.OPTION_DEFINITION) {
+                if (nameStart != NONE) {
+                    listener.option(getText(nameStart, nameEnd),
+                                    valueStart == NONE ? null : getText(valueStart, valueEnd), marker.start);
+                }
+            } else if (elementType == SchemaParser.COMPONENT_ID_DEFINITION) {
+                listener.componentId(getNumber(), marker.start);
+            } else if (elementType == SchemaParser.FIELD_DEFINITION) {
+                reportField(SchemaField.Kind.FIELD, marker);
+            } else if (elementType == SchemaParser.DATA_DEFINITION) {
+                reportField(SchemaField.Kind.DATA, marker);
+            } else if (elementType == SchemaParser.EVENT_DEFINITION) {
+                reportField(SchemaField.Kind.EVENT, marker);
+            } else if (elementType == SchemaParser.ENUM_VALUE_DEFINITION) {
+                reportField(SchemaField.Kind.ENUM_VALUE, marker);
+            } else if (marker.begun) {
+                listener.endDefinition(previousTokenEnd);
+            }
+            clearStatement();
+        }
+
+        @Override
+        protected void drop(@NotNull Mark marker) {
+            --depth;
+            // Only type markers are dropped, and the tree then keeps their type parameters outside any field type.
+            typeParameters = null;
+        }
+
+        @Override
+        protected void markError(@NotNull Mark marker, @NotNull String message) {
+            --depth;
+            listener.error(message, marker.start, Math.max(marker.start, previousTokenEnd));
+        }
+
+        private void reportField(@NotNull SchemaField.Kind kind, @NotNull Mark marker) {
+            List<String> parameters =
+                hasFieldType && typeParameters != null ? typeParameters : Collections.emptyList();
+            listener.field(kind, typeNameStart == NONE ? null : getText(typeNameStart, typeNameEnd), parameters,
+                           nameStart == NONE ? "" : getText(nameStart, nameEnd), getNumber(), marker.start);
+        }
+
+        private void clearStatement() {
+            keywordStart = NONE;
+            nameStart = NONE;
+            valueStart = NONE;
+            typeNameStart = NONE;
+            typeParameters = null;
+            hasFieldType = false;
+        }
+
+        private @NotNull String getText(int start, int end) {
+            return text.subSequence(start, end).toString();
+        }
+
+        private @NotNull String unquote(int start, int end) {
+            if (start < end && text.charAt(start) == '"') {
+                ++start;
+            }
+            if (end > start && text.charAt(end - 1) == '"') {
+                --end;
+            }
+            return getText(start, end);
+        }
+
+        private boolean matches(int start, int end, @NotNull String keyword) {
+            if (end - start != keyword.length()) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length(); ++i) {
+                if (text.charAt(start + i) != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the value of the number in the statement, or -1, which is both {@link SchemaField#NO_NUMBER} and
+         * {@link SchemaDefinition#NO_COMPONENT_ID}, if it is missing or does not fit in an int.
+         */
+        private int getNumber() {
+            if (valueStart == NONE) {
+                return SchemaField.NO_NUMBER;
+            }
+            long value = 0;
+            for (int i = valueStart; i < valueEnd; ++i) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return SchemaField.NO_NUMBER;
+                }
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return SchemaField.NO_NUMBER;
+                }
+            }
+            return (int) value;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.analysis.SchemaFileSnapshot;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaProblem;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaSemanticChecker;
+import com.improbable.spatialos.schema.intellij.analysis.SchemaSnapshotBuilder;
+import com.improbable.spatialos.schema.intellij.index.SchemaPathFilters;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.improbable.spatialos.schema.intellij.inspections.SchemaReplaceTextFix;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.intellij.lang.annotation.Annotation;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.ExternalAnnotator;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the semantic checks for a whole file on a background thread. The file is copied into a
+ * {@link SchemaFileSnapshot} up front and the results are applied in one batch; the daemon cancels and restarts the
+ * pass when the document changes.
+ */
+public class SchemaExternalAnnotator extends ExternalAnnotator<SchemaExternalAnnotator.Input, List<SchemaProblem>> {
+    public static class Input {
+        final Project project;
+        final SchemaFileSnapshot snapshot;
+        final String fileName;
+
+        Input(Project project, SchemaFileSnapshot snapshot, String fileName) {
+            this.project = project;
+            this.snapshot = snapshot;
+            this.fileName = fileName;
+        }
+    }
+
+    @Override
+    public @Nullable Input collectInformation(@NotNull PsiFile file) {
+        if (DumbService.isDumb(file.getProject())) {
+            return null;
+        }
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        if ((virtualFile != null && !SchemaPathFilters.accepts(file.getProject(), virtualFile)) ||
+            SchemaLargeFileMode.isLimited(file)) {
+            return null;
+        }
+        return new Input(file.getProject(), SchemaSnapshotBuilder.build(file.getNode()),
+                         SchemaMetrics.getFileName(file));
+    }
+
+    @Override
+    public @Nullable List<SchemaProblem> doAnnotate(Input input) {
+        if (input == null) {
+            return Collections.emptyList();
+        }
+        // Give way to write actions instead of blocking them for the whole check: the read action is cancelled as
+        // soon as a write is pending, and the check is run again once it has finished unless the pass was cancelled.
+        Ref<List<SchemaProblem>> problems = Ref.create();
+        while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> problems.set(check(input)))) {
+            ProgressManager.checkCanceled();
+            ApplicationManager.getApplication().runReadAction(EmptyRunnable.getInstance());
+        }
+        return problems.get();
+    }
+
+    private static @NotNull List<SchemaProblem> check(@NotNull Input input) {
+        if (input.project.isDisposed() || DumbService.isDumb(input.project)) {
+            return Collections.emptyList();
+        }
+        long start = SchemaMetrics.SCHEMA_METRICS.start();
+        List<SchemaProblem> problems = SchemaSemanticChecker.check(input.snapshot, new IndexContext(input.project));
+        SchemaMetrics.SCHEMA_METRICS.record(SchemaMetrics.Stage.ANALYZE, input.fileName, start, problems.size());
+        return problems;
+    }
+
+    @Override
+    public void apply(@NotNull PsiFile file, List<SchemaProblem> problems, @NotNull AnnotationHolder holder) {
+        applyProblems(file, problems, holder);
+    }
+
+    public static void applyProblems(@NotNull PsiFile file, @NotNull List<SchemaProblem> problems,
+                                     @NotNull AnnotationHolder holder) {
+        CharSequence text = file.getViewProvider().getContents();
+        for (SchemaProblem problem : problems) {
+            if (problem.end > text.length()) {
+                continue;
+            }
+            TextRange range = new TextRange(problem.start, problem.end);
+            Annotation annotation;
+            switch (problem.severity) {
+                case ERROR:
+                    annotation = holder.createErrorAnnotation(range, problem.message);
+                    break;
+                case WARNING:
+                    annotation = holder.createWarningAnnotation(range, problem.message);
+                    break;
+                default:
+                    annotation = holder.createWeakWarningAnnotation(range, problem.message);
+                    break;
+            }
+            SchemaProblem.Fix fix = problem.fix;
+            if (fix != null && fix.end <= text.length()) {
+                annotation.registerFix(
+                    new SchemaReplaceTextFix(fix, text.subSequence(fix.start, fix.end).toString()));
+            }
+        }
+    }
+
+    private static class IndexContext implements SchemaSemanticChecker.Context {
+        private final Project project;
+        private final SchemaResolver resolver;
+
+        IndexContext(@NotNull Project project) {
+            this.project = project;
+            this.resolver = new SchemaResolver(project);
+        }
+
+        @Override
+        public boolean exists(@NotNull String qualifiedName) {
+            return resolver.exists(qualifiedName);
+        }
+
+        @Override
+        public @Nullable int[] getFieldNumbers(@NotNull String qualifiedName) {
+            for (VirtualFile file : resolver.getDefiningFiles(qualifiedName)) {
+                SchemaFileSummary summary = SchemaSummaryCache.getInstance(project).getSummary(file);
+                if (summary == null) {
+                    continue;
+                }
+                for (SchemaDefinition definition : summary.definitions) {
+                    if (definition.getQualifiedName(summary.packageName).equals(qualifiedName)) {
+                        int[] numbers = new int[definition.fields.size()];
+                        int count = 0;
+                        for (SchemaField field : definition.fields) {
+                            if (field.kind == SchemaField.Kind.FIELD) {
+                                numbers[count++] = field.number;
+                            }
+                        }
+                        return Arrays.copyOf(numbers, count);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void checkCanceled() {
+            // Also throws when the read action is cancelled for a pending write.
+            ProgressManager.checkCanceled();
+        }
+    }
+}
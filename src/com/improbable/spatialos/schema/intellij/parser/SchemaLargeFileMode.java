@@ -0,0 +1,91 @@
+package com.improbable.spatialos.schema.intellij.parser;
+
+import com.improbable.spatialos.schema.intellij.SchemaFileType;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.ui.EditorNotifications;
+import com.intellij.util.FileContentUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Physical schema files above the project's size threshold are parsed into a flat list of tokens, so they only get
+ * lexer highlighting and the annotators, inspections and formatter have nothing to work on. Indexes and summaries
+ * parse their own non-physical copies of the text, so navigation keeps working. Full analysis can be turned back on
+ * for a file for the rest of the session.
+ */
+public class SchemaLargeFileMode {
+    private static final Key<Boolean> FULL_ANALYSIS = Key.create("spatialos.schema.fullAnalysis");
+    private static final SchemaParserDefinition PARSER_DEFINITION = new SchemaParserDefinition();
+
+    public static int getThresholdKb(@NotNull Project project) {
+        return SchemaProjectProperties.getSettings(project).largeFileThresholdKb;
+    }
+
+    public static boolean isLarge(@NotNull Project project, long length) {
+        int thresholdKb = getThresholdKb(project);
+        return thresholdKb > 0 && length > thresholdKb * 1024L;
+    }
+
+    /**
+     * Returns whether the file gets a flat tree instead of a full parse.
+     */
+    public static boolean isLimited(@NotNull PsiFile file) {
+        return isLimited(file, file.getViewProvider().getContents().length());
+    }
+
+    static boolean isLimited(@NotNull PsiFile file, int length) {
+        if (!file.isPhysical() || !isLarge(file.getProject(), length)) {
+            return false;
+        }
+        VirtualFile virtualFile = file.getViewProvider().getVirtualFile();
+        return virtualFile.getUserData(FULL_ANALYSIS) == null;
+    }
+
+    public static boolean isFullAnalysisEnabled(@NotNull VirtualFile file) {
+        return file.getUserData(FULL_ANALYSIS) != null;
+    }
+
+    public static void setFullAnalysisEnabled(@NotNull Project project, @NotNull VirtualFile file, boolean enabled) {
+        file.putUserData(FULL_ANALYSIS, enabled ? Boolean.TRUE : null);
+        FileContentUtil.reparseFiles(project, Collections.singletonList(file), false);
+        EditorNotifications.getInstance(project).updateNotifications(file);
+    }
+
+    /**
+     * Reparses the open schema files, for when the threshold changes.
+     */
+    public static void reparseOpenFiles(@NotNull Project project) {
+        List<VirtualFile> files = new ArrayList<>();
+        for (VirtualFile file : FileEditorManager.getInstance(project).getOpenFiles()) {
+            if (file.getFileType() == SchemaFileType.SCHEMA_FILE_TYPE) {
+                files.add(file);
+            }
+        }
+        if (!files.isEmpty()) {
+            FileContentUtil.reparseFiles(project, files, false);
+        }
+        EditorNotifications.getInstance(project).updateAllNotifications();
+    }
+
+    /**
+     * Returns the full syntax tree of the file, parsing a detached copy of its text if the file itself only has a
+     * flat tree. Offsets in the copy match the file.
+     */
+    public static @NotNull ASTNode getFullTree(@NotNull PsiFile file) {
+        if (!isLimited(file)) {
+            return file.getNode();
+        }
+        return SchemaParser.SCHEMA_PARSER.parse(SchemaParser.SCHEMA_FILE, PsiBuilderFactory.getInstance().createBuilder(
+            PARSER_DEFINITION, new SchemaLexer(), file.getViewProvider().getContents()));
+    }
+}
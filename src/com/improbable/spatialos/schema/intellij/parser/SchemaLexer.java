@@ -1,6 +1,7 @@
 package com.improbable.spatialos.schema.intellij.parser;
 
 import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
 import com.intellij.lexer.Lexer;
 import com.intellij.lexer.LexerPosition;
 import com.intellij.psi.TokenType;
@@ -11,7 +12,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class SchemaLexer extends Lexer {
-    public static final SchemaLexer SCHEMA_LEXER = new SchemaLexer();
     public static final IElementType COMMENT = new Token("Comment");
     public static final IElementType IDENTIFIER = new Token("Identifier");
     public static final IElementType INTEGER = new Token("Integer");
@@ -25,12 +25,7 @@ public class SchemaLexer extends Lexer {
     public static final IElementType COMMA = new Token(",");
     public static final IElementType SEMICOLON = new Token(";");
 
-    private static final String IDENTIFIER_PATTERN_STR = "[_a-zA-Z][_a-zA-Z0-9]*(\\.([_a-zA-Z][_a-zA-Z0-9]*)?)*";
-    private static final Pattern IDENTIFIER_PATTERN =
-        Pattern.compile("\\.(" + IDENTIFIER_PATTERN_STR + ")?|" + IDENTIFIER_PATTERN_STR);
-
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
-    private static final Pattern COMMENT_PATTERN = Pattern.compile("//[^\n]*|/\\*([^*]|\\*([^/]|$))*(\\*/|$)");
     private static final Pattern INTEGER_PATTERN = Pattern.compile("[0-9]+");
     private static final Pattern STRING_PATTERN = Pattern.compile("\"[^\n\"]*\"?");
     private static final Pattern LBRACE_PATTERN = Pattern.compile("\\{");
@@ -54,15 +49,23 @@ public class SchemaLexer extends Lexer {
     private int currentTokenStart = 0;
     private int currentTokenEnd = 0;
 
+    private long passStart = SchemaMetrics.DISABLED;
+    private int passTokens = 0;
+
     private void computeCurrentToken() {
         if (currentTokenStart >= endOffset) {
             currentTokenEnd = endOffset;
             currentToken = null;
+            if (passStart != SchemaMetrics.DISABLED) {
+                SchemaMetrics.SCHEMA_METRICS.recordLexPass(passStart, passTokens);
+                passStart = SchemaMetrics.DISABLED;
+            }
             return;
         }
+        ++passTokens;
         if (!checkCurrentToken(WHITESPACE_PATTERN, TokenType.WHITE_SPACE) &&
-            !checkCurrentToken(COMMENT_PATTERN, COMMENT) &&
-            !checkCurrentToken(IDENTIFIER_PATTERN, IDENTIFIER) &&
+            !checkCurrentToken(scanComment(), COMMENT) &&
+            !checkCurrentToken(scanIdentifier(), IDENTIFIER) &&
             !checkCurrentToken(INTEGER_PATTERN, INTEGER) &&
             !checkCurrentToken(STRING_PATTERN, STRING) &&
             !checkCurrentToken(LBRACE_PATTERN, LBRACE) &&
@@ -88,10 +91,77 @@ public class SchemaLexer extends Lexer {
         return false;
     }
 
+    private boolean checkCurrentToken(int tokenEnd, IElementType token) {
+        if (tokenEnd > currentTokenStart) {
+            currentTokenEnd = tokenEnd;
+            currentToken = token;
+            return true;
+        }
+        return false;
+    }
+
+    // Comments and identifiers are scanned by hand: the equivalent regular expressions recurse once per repetition
+    // and overflow the stack on long block comments or long dotted names.
+    private int scanComment() {
+        if (currentTokenStart + 1 >= endOffset || buffer.charAt(currentTokenStart) != '/') {
+            return currentTokenStart;
+        }
+        char next = buffer.charAt(currentTokenStart + 1);
+        int offset = currentTokenStart + 2;
+        if (next == '/') {
+            while (offset < endOffset && buffer.charAt(offset) != '\n') {
+                ++offset;
+            }
+            return offset;
+        }
+        if (next != '*') {
+            return currentTokenStart;
+        }
+        while (offset + 1 < endOffset) {
+            if (buffer.charAt(offset) == '*' && buffer.charAt(offset + 1) == '/') {
+                return offset + 2;
+            }
+            ++offset;
+        }
+        return endOffset;
+    }
+
+    /**
+     * Matches an optionally dot-prefixed name whose segments are separated by dots, such as {@code a.b.C} or
+     * {@code .a.b}. Empty segments are allowed, but a segment cannot start with a digit.
+     */
+    private int scanIdentifier() {
+        int offset = currentTokenStart;
+        if (offset < endOffset && buffer.charAt(offset) == '.') {
+            ++offset;
+        }
+        if (offset >= endOffset || !isIdentifierStart(buffer.charAt(offset))) {
+            return offset;
+        }
+        boolean afterDot = false;
+        for (++offset; offset < endOffset; ++offset) {
+            char c = buffer.charAt(offset);
+            if (c == '.') {
+                afterDot = true;
+            } else if (isIdentifierStart(c) || (!afterDot && c >= '0' && c <= '9')) {
+                afterDot = false;
+            } else {
+                break;
+            }
+        }
+        return offset;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
     @Override
     public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
         this.buffer = buffer;
         this.endOffset = endOffset;
+        passStart = SchemaMetrics.SCHEMA_METRICS.start();
+        passTokens = 0;
         currentTokenStart = startOffset;
         computeCurrentToken();
     }
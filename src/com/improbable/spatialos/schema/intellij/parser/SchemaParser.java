@@ -1,16 +1,25 @@
 package com.improbable.spatialos.schema.intellij.parser;
 
 import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.metrics.SchemaMetrics;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.PsiBuilder;
 import com.intellij.lang.PsiParser;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.resolve.FileContextUtil;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.IFileElementType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Builds a lean tree by default: keywords, names, numbers and non-generic type names are single tokens, so they are
+ * retyped in place as leaves instead of being wrapped in a composite node, and FIELD_TYPE only wraps generic types.
+ * The full tree, with a composite around every such token, is still available for comparison. Physical files in
+ * {@link SchemaLargeFileMode} get a flat list of tokens instead.
+ */
 public class SchemaParser implements PsiParser {
-    public static final SchemaParser SCHEMA_PARSER = new SchemaParser();
+    public static final SchemaParser SCHEMA_PARSER = new SchemaParser(true);
 
     public static final String KEYWORD_PACKAGE = "package";
     public static final String KEYWORD_IMPORT = "import";
@@ -61,98 +70,261 @@ public class SchemaParser implements PsiParser {
         }
     }
 
+    private final boolean leanTree;
+
+    public SchemaParser(boolean leanTree) {
+        this.leanTree = leanTree;
+    }
+
     @Override
     public @NotNull ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
-        Instance instance = new Instance(builder);
-        instance.parseSchemaFile(root);
-        return builder.getTreeBuilt();
+        long start = SchemaMetrics.SCHEMA_METRICS.start();
+        PsiFile file = builder.getUserDataUnprotected(FileContextUtil.CONTAINING_FILE_KEY);
+        if (file != null && SchemaLargeFileMode.isLimited(file, builder.getOriginalText().length())) {
+            PsiBuilder.Marker marker = builder.mark();
+            while (!builder.eof()) {
+                builder.advanceLexer();
+            }
+            marker.done(root);
+        } else {
+            new BuilderInstance(builder, leanTree).parseSchemaFile(root);
+        }
+        ASTNode tree = builder.getTreeBuilt();
+        if (start != SchemaMetrics.DISABLED) {
+            String fileName = SchemaMetrics.getFileName(file);
+            SchemaMetrics.SCHEMA_METRICS.attributeLexPass(fileName);
+            SchemaMetrics.SCHEMA_METRICS.record(SchemaMetrics.Stage.PARSE, fileName, start, countNodes(tree));
+        }
+        return tree;
+    }
+
+    private static int countNodes(@NotNull ASTNode node) {
+        int count = 1;
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    /**
+     * Drives the grammar through a {@link PsiBuilder} to build the lean or full tree.
+     */
+    private static class BuilderInstance extends Instance<PsiBuilder.Marker> {
+        private final PsiBuilder builder;
+        private final boolean leanTree;
+
+        public BuilderInstance(@NotNull PsiBuilder builder, boolean leanTree) {
+            this.builder = builder;
+            this.leanTree = leanTree;
+        }
+
+        @Override
+        protected @Nullable IElementType getTokenType() {
+            return builder.getTokenType();
+        }
+
+        @Override
+        protected @Nullable IElementType lookAhead() {
+            return builder.lookAhead(1);
+        }
+
+        @Override
+        protected boolean eof() {
+            return builder.eof();
+        }
+
+        @Override
+        protected int getCurrentOffset() {
+            return builder.getCurrentOffset();
+        }
+
+        @Override
+        protected int getTokenEnd() {
+            return builder.rawTokenTypeStart(1);
+        }
+
+        @Override
+        protected @NotNull CharSequence getOriginalText() {
+            return builder.getOriginalText();
+        }
+
+        @Override
+        protected void advanceLexer() {
+            builder.advanceLexer();
+        }
+
+        @Override
+        protected void consumeTokenAs(@Nullable IElementType nodeType) {
+            if (leanTree && nodeType != null) {
+                builder.remapCurrentToken(nodeType);
+                builder.advanceLexer();
+                return;
+            }
+            PsiBuilder.Marker marker = nodeType == null ? null : builder.mark();
+            builder.advanceLexer();
+            if (marker != null) {
+                marker.done(nodeType);
+            }
+        }
+
+        @Override
+        protected @NotNull PsiBuilder.Marker mark() {
+            return builder.mark();
+        }
+
+        @Override
+        protected void done(@NotNull PsiBuilder.Marker marker, @NotNull IElementType elementType) {
+            marker.done(elementType);
+        }
+
+        @Override
+        protected void drop(@NotNull PsiBuilder.Marker marker) {
+            marker.drop();
+        }
+
+        @Override
+        protected void markError(@NotNull PsiBuilder.Marker marker, @NotNull String message) {
+            marker.error(message);
+        }
+
+        @Override
+        protected void doneSimpleType(@NotNull PsiBuilder.Marker typeMarker) {
+            if (leanTree) {
+                typeMarker.drop();
+            } else {
+                typeMarker.done(FIELD_TYPE);
+            }
+        }
     }
 
-    private static class Instance {
-        private PsiBuilder builder;
+    /**
+     * The grammar, written against an abstract token stream and markers so that it can build a tree through a
+     * {@link PsiBuilder} or report events straight from the lexer, as {@link SchemaEventParser} does. Markers are
+     * always closed in the reverse order they were opened in. Parses without building any strings on the success
+     * path. Error messages quote the source text, which is cut from the recorded start offsets only once an error is
+     * actually reported.
+     */
+    abstract static class Instance<M> {
         private enum Construct {
             STATEMENT,
             BRACES,
             TOP_LEVEL,
         }
 
-        public Instance(@NotNull PsiBuilder builder) {
-            this.builder = builder;
-        }
+        /** Returns the type of the current token, skipping whitespace and comments, or null at the end. */
+        protected abstract @Nullable IElementType getTokenType();
+
+        /** Returns the type of the token after the current one. */
+        protected abstract @Nullable IElementType lookAhead();
+
+        protected abstract boolean eof();
+
+        protected abstract int getCurrentOffset();
+
+        protected abstract int getTokenEnd();
+
+        protected abstract @NotNull CharSequence getOriginalText();
 
-        private void error(@Nullable PsiBuilder.Marker marker, IElementType elementType, Construct construct,
+        protected abstract void advanceLexer();
+
+        /**
+         * Consumes the current token, which the tree records as a node of {@code nodeType} if it is not null.
+         */
+        protected abstract void consumeTokenAs(@Nullable IElementType nodeType);
+
+        protected abstract @NotNull M mark();
+
+        protected abstract void done(@NotNull M marker, @NotNull IElementType elementType);
+
+        protected abstract void drop(@NotNull M marker);
+
+        protected abstract void markError(@NotNull M marker, @NotNull String message);
+
+        private void error(@Nullable M marker, IElementType elementType, Construct construct,
                            String s, Object... args) {
             if (marker != null) {
-                marker.done(elementType);
+                done(marker, elementType);
             }
             String errorMessage = String.format(s, args);
-            PsiBuilder.Marker errorMarker = builder.mark();
+            M errorMarker = mark();
 
-            while (builder.getTokenType() != null && !builder.eof()) {
+            while (getTokenType() != null && !eof()) {
                 if ((construct == Construct.STATEMENT || construct == Construct.TOP_LEVEL) &&
                     isToken(SchemaLexer.SEMICOLON)) {
-                    errorMarker.error(errorMessage);
-                    builder.advanceLexer();
+                    markError(errorMarker, errorMessage);
+                    advanceLexer();
                     return;
                 }
                 if ((construct == Construct.BRACES || construct == Construct.TOP_LEVEL) &&
                     isToken(SchemaLexer.RBRACE)) {
-                    errorMarker.error(errorMessage);
-                    builder.advanceLexer();
+                    markError(errorMarker, errorMessage);
+                    advanceLexer();
                     return;
                 }
                 if (construct == Construct.STATEMENT && isToken(SchemaLexer.RBRACE)) {
-                    errorMarker.error(errorMessage);
+                    markError(errorMarker, errorMessage);
                     return;
                 }
-                builder.advanceLexer();
+                advanceLexer();
             }
-            errorMarker.error(errorMessage);
+            markError(errorMarker, errorMessage);
         }
 
         private String getTokenText() {
-            return builder.getTokenText() == null ? "<EOF>" : builder.getTokenText();
+            return getTokenType() == null ? "<EOF>" :
+                getOriginalText().subSequence(getCurrentOffset(), getTokenEnd()).toString();
         }
 
-        private String getIdentifier() {
-            return builder.getTokenText() == null ? "" : builder.getTokenText();
+        /**
+         * Returns the source text from {@code start} up to the current token, with whitespace collapsed. Only used to
+         * build error messages.
+         */
+        private @NotNull String getTextFrom(int start) {
+            CharSequence text = getOriginalText().subSequence(start, getCurrentOffset());
+            return text.toString().replaceAll("\\s+", " ").trim();
         }
 
-        private int getInteger() {
-            if (builder.getTokenText() == null) {
-                return 0;
-            }
-            try {
-                return Integer.parseInt(builder.getTokenText());
-            } catch (NumberFormatException e) {
-                return 0;
-            }
-        }
-
-        private String getString() {
-            String text = builder.getTokenText();
-            return text == null ? "" : text.substring(1, text.length() - 2);
+        /**
+         * Returns the identifier starting at {@code offset}. Only used to build error messages.
+         */
+        private @NotNull String getIdentifierAt(int offset) {
+            CharSequence text = getOriginalText();
+            int end = offset;
+            while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_' ||
+                                           text.charAt(end) == '.')) {
+                ++end;
+            }
+            return text.subSequence(offset, end).toString();
         }
 
         private boolean isToken(IElementType token) {
-            return builder.getTokenType() == token;
+            return getTokenType() == token;
         }
 
         private boolean isIdentifier(@NotNull String identifier) {
-            return builder.getTokenType() == SchemaLexer.IDENTIFIER &&
-                    builder.getTokenText() != null && builder.getTokenText().equals(identifier);
+            if (getTokenType() != SchemaLexer.IDENTIFIER) {
+                return false;
+            }
+            int start = getCurrentOffset();
+            if (getTokenEnd() - start != identifier.length()) {
+                return false;
+            }
+            CharSequence text = getOriginalText();
+            for (int i = 0; i < identifier.length(); ++i) {
+                if (text.charAt(start + i) != identifier.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
 
-        private void consumeTokenAs(@Nullable IElementType nodeType) {
-            PsiBuilder.Marker marker = nodeType == null ? null : builder.mark();
-            builder.advanceLexer();
-            if (marker != null) {
-                marker.done(nodeType);
-            }
+        private boolean isOptionDefinition() {
+            return isIdentifier(KEYWORD_OPTION) && lookAhead() != SchemaLexer.LANGLE;
         }
 
         private void parsePackageDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, PACKAGE_DEFINITION, Construct.STATEMENT,
@@ -162,178 +334,168 @@ public class SchemaParser implements PsiParser {
             consumeTokenAs(PACKAGE_NAME);
             if (!isToken(SchemaLexer.SEMICOLON)) {
                 error(marker, PACKAGE_DEFINITION, Construct.STATEMENT,
-                      "Expected ';' after %s definition.", KEYWORD_PACKAGE);
+                      "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(PACKAGE_DEFINITION);
+            done(marker, PACKAGE_DEFINITION);
         }
 
         private void parseImportDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.STRING)) {
                 error(marker, IMPORT_DEFINITION, Construct.STATEMENT,
                       "Expected a quoted filename after '%s'.", KEYWORD_IMPORT);
                 return;
             }
-            String filename = getString();
             consumeTokenAs(IMPORT_FILENAME);
             if (!isToken(SchemaLexer.SEMICOLON)) {
-                error(marker, IMPORT_DEFINITION, Construct.STATEMENT,
-                      "Expected ';' after '%s \"%s\"'.", KEYWORD_IMPORT, filename);
+                error(marker, IMPORT_DEFINITION, Construct.STATEMENT, "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(IMPORT_DEFINITION);
+            done(marker, IMPORT_DEFINITION);
         }
 
         private void parseOptionDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, OPTION_DEFINITION, Construct.STATEMENT,
                       "Expected identifier after '%s'.", KEYWORD_OPTION);
                 return;
             }
-            String name = getIdentifier();
             consumeTokenAs(OPTION_NAME);
             if (!isToken(SchemaLexer.EQUALS)) {
-                error(marker, OPTION_DEFINITION, Construct.STATEMENT,
-                      "Expected '=' after '%s %s'.", KEYWORD_OPTION, name);
+                error(marker, OPTION_DEFINITION, Construct.STATEMENT, "Expected '=' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, OPTION_DEFINITION, Construct.STATEMENT,
-                      "Expected option value after '%s %s = '.", KEYWORD_OPTION, name);
+                      "Expected option value after '%s'.", getTextFrom(start));
                 return;
             }
-            String value = getIdentifier();
             consumeTokenAs(OPTION_VALUE);
             if (!isToken(SchemaLexer.SEMICOLON)) {
-                error(marker, OPTION_DEFINITION, Construct.STATEMENT,
-                      "Expected ';' after '%s %s = %s'.", KEYWORD_OPTION, name, value);
+                error(marker, OPTION_DEFINITION, Construct.STATEMENT, "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(OPTION_DEFINITION);
+            done(marker, OPTION_DEFINITION);
+        }
+
+        /**
+         * Closes the marker around a type name that has no type parameters.
+         */
+        protected void doneSimpleType(@NotNull M typeMarker) {
+            drop(typeMarker);
         }
 
-        private @Nullable String parseTypeName(@NotNull PsiBuilder.Marker marker) {
-            PsiBuilder.Marker typeMarker = builder.mark();
-            String name = getIdentifier();
+        private boolean parseTypeName(@NotNull M marker) {
+            int start = getCurrentOffset();
+            M typeMarker = mark();
             consumeTokenAs(TYPE_NAME);
             if (!isToken(SchemaLexer.LANGLE)) {
-                typeMarker.done(FIELD_TYPE);
-                return name;
+                doneSimpleType(typeMarker);
+                return true;
             }
-            name = name + '<';
             consumeTokenAs(null);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
-                typeMarker.drop();
-                error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Expected typename after '%s'.", name);
-                return null;
+                drop(typeMarker);
+                error(marker, FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected typename after '%s'.", getTextFrom(start));
+                return false;
             }
-            name = name + getIdentifier();
             consumeTokenAs(TYPE_PARAMETER_NAME);
             while (true) {
                 if (isToken(SchemaLexer.RANGLE)) {
-                    name = name + '>';
                     consumeTokenAs(null);
-                    typeMarker.done(FIELD_TYPE);
-                    return name;
+                    done(typeMarker, FIELD_TYPE);
+                    return true;
                 }
                 if (isToken(SchemaLexer.COMMA)) {
-                    name = name + ", ";
                     consumeTokenAs(null);
                     if (!isToken(SchemaLexer.IDENTIFIER)) {
-                        typeMarker.drop();
+                        drop(typeMarker);
                         error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Expected typename after ','.");
-                        return null;
+                        return false;
                     }
-                    name = name + getIdentifier();
                     consumeTokenAs(TYPE_PARAMETER_NAME);
                     continue;
                 }
-                typeMarker.drop();
+                drop(typeMarker);
                 error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Invalid '%s' inside <>.", getTokenText());
-                return null;
+                return false;
             }
         }
 
         private void parseFieldDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
-            String typeName = parseTypeName(marker);
-            if (typeName == null) {
+            int start = getCurrentOffset();
+            M marker = mark();
+            if (!parseTypeName(marker)) {
                 return;
             }
             if (!isToken(SchemaLexer.IDENTIFIER)) {
-                error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Expected field name after '%s'.", typeName);
+                error(marker, FIELD_DEFINITION, Construct.STATEMENT,
+                      "Expected field name after '%s'.", getTextFrom(start));
                 return;
             }
-            String fieldName = getIdentifier();
             consumeTokenAs(FIELD_NAME);
             if (!isToken(SchemaLexer.EQUALS)) {
-                error(marker, FIELD_DEFINITION, Construct.STATEMENT,
-                      "Expected '=' after '%s %s'.", typeName, fieldName);
+                error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Expected '=' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
             if (!isToken(SchemaLexer.INTEGER)) {
                 error(marker, FIELD_DEFINITION, Construct.STATEMENT,
-                      "Expected field number after '%s %s = '.", typeName, fieldName);
+                      "Expected field number after '%s'.", getTextFrom(start));
                 return;
             }
-            int fieldNumber = getInteger();
             consumeTokenAs(FIELD_NUMBER);
             if (!isToken(SchemaLexer.SEMICOLON)) {
-                error(marker, FIELD_DEFINITION, Construct.STATEMENT,
-                      "Expected ';' after '%s %s = %d'.", typeName, fieldName, fieldNumber);
+                error(marker, FIELD_DEFINITION, Construct.STATEMENT, "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(FIELD_DEFINITION);
+            done(marker, FIELD_DEFINITION);
         }
 
         private void parseEnumContents() {
             while (isToken(SchemaLexer.IDENTIFIER)) {
-                PsiBuilder.Marker marker = builder.mark();
-                String name = getIdentifier();
+                int start = getCurrentOffset();
+                M marker = mark();
                 consumeTokenAs(FIELD_NAME);
                 if (!isToken(SchemaLexer.EQUALS)) {
-                    error(marker, ENUM_VALUE_DEFINITION, Construct.STATEMENT, "Expected '=' after '%s'.", name);
+                    error(marker, ENUM_VALUE_DEFINITION, Construct.STATEMENT,
+                          "Expected '=' after '%s'.", getTextFrom(start));
                     continue;
                 }
                 consumeTokenAs(null);
                 if (!isToken(SchemaLexer.INTEGER)) {
                     error(marker, ENUM_VALUE_DEFINITION, Construct.STATEMENT,
-                          "Expected integer enum value after '%s = '.", name);
+                          "Expected integer enum value after '%s'.", getTextFrom(start));
                     continue;
                 }
-                int value = getInteger();
                 consumeTokenAs(FIELD_NUMBER);
                 if (!isToken(SchemaLexer.SEMICOLON)) {
                     error(marker, ENUM_VALUE_DEFINITION, Construct.STATEMENT,
-                          "Expected ';' after '%s = %d'.", name, value);
+                          "Expected ';' after '%s'.", getTextFrom(start));
                     continue;
                 }
                 consumeTokenAs(null);
-                marker.done(ENUM_VALUE_DEFINITION);
+                done(marker, ENUM_VALUE_DEFINITION);
             }
         }
 
         private void parseTypeContents() {
             while (true) {
-                if (isIdentifier(KEYWORD_OPTION)) {
-                    PsiBuilder.Marker marker = builder.mark();
-                    builder.advanceLexer();
-                    boolean lookaheadIsOption = !isToken(SchemaLexer.LANGLE);
-                    marker.rollbackTo();
-                    if (lookaheadIsOption) {
-                        parseOptionDefinition();
-                        continue;
-                    }
+                if (isOptionDefinition()) {
+                    parseOptionDefinition();
+                    continue;
                 }
                 if (isIdentifier(KEYWORD_ENUM)) {
                     parseEnumDefinition();
@@ -352,7 +514,8 @@ public class SchemaParser implements PsiParser {
         }
 
         private void parseComponentIdDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.EQUALS)) {
                 error(marker, COMPONENT_ID_DEFINITION, Construct.STATEMENT,
@@ -362,78 +525,68 @@ public class SchemaParser implements PsiParser {
             consumeTokenAs(null);
             if (!isToken(SchemaLexer.INTEGER)) {
                 error(marker, COMPONENT_ID_DEFINITION, Construct.STATEMENT,
-                      "Expected integer ID value after '%s = '.", KEYWORD_ID);
+                      "Expected integer ID value after '%s'.", getTextFrom(start));
                 return;
             }
-            int value = getInteger();
             consumeTokenAs(FIELD_NUMBER);
             if (!isToken(SchemaLexer.SEMICOLON)) {
                 error(marker, COMPONENT_ID_DEFINITION, Construct.STATEMENT,
-                      "Expected ';' after '%s = %d'.", KEYWORD_ID, value);
+                      "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(COMPONENT_ID_DEFINITION);
+            done(marker, COMPONENT_ID_DEFINITION);
         }
 
         private void parseDataDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, DATA_DEFINITION, Construct.STATEMENT, "Expected typename after '%s'.", KEYWORD_DATA);
                 return;
             }
-            String typeName = parseTypeName(marker);
-            if (typeName == null) {
+            if (!parseTypeName(marker)) {
                 return;
             }
             if (!isToken(SchemaLexer.SEMICOLON)) {
-                error(marker, DATA_DEFINITION, Construct.STATEMENT,
-                        "Expected ';' after '%s %s'.", KEYWORD_DATA, typeName);
+                error(marker, DATA_DEFINITION, Construct.STATEMENT, "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(DATA_DEFINITION);
+            done(marker, DATA_DEFINITION);
         }
 
         private void parseEventDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, EVENT_DEFINITION, Construct.STATEMENT, "Expected typename after '%s'.", KEYWORD_EVENT);
                 return;
             }
-            String typeName = parseTypeName(marker);
-            if (typeName == null) {
+            if (!parseTypeName(marker)) {
                 return;
             }
             if (!isToken(SchemaLexer.IDENTIFIER)) {
                 error(marker, EVENT_DEFINITION, Construct.STATEMENT,
-                      "Expected field name after '%s %s'.", KEYWORD_EVENT, typeName);
+                      "Expected field name after '%s'.", getTextFrom(start));
                 return;
             }
-            String fieldName = getIdentifier();
             consumeTokenAs(FIELD_NAME);
             if (!isToken(SchemaLexer.SEMICOLON)) {
-                error(marker, EVENT_DEFINITION, Construct.STATEMENT,
-                        "Expected ';' after '%s %s %s'.", KEYWORD_EVENT, typeName, fieldName);
+                error(marker, EVENT_DEFINITION, Construct.STATEMENT, "Expected ';' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(EVENT_DEFINITION);
+            done(marker, EVENT_DEFINITION);
         }
 
         private void parseComponentContents() {
             while (true) {
-                if (isIdentifier(KEYWORD_OPTION)) {
-                    PsiBuilder.Marker marker = builder.mark();
-                    builder.advanceLexer();
-                    boolean lookaheadIsOption = !isToken(SchemaLexer.LANGLE);
-                    marker.rollbackTo();
-                    if (lookaheadIsOption) {
-                        parseOptionDefinition();
-                        continue;
-                    }
+                if (isOptionDefinition()) {
+                    parseOptionDefinition();
+                    continue;
                 }
                 if (isIdentifier(KEYWORD_ID)) {
                     parseComponentIdDefinition();
@@ -456,77 +609,46 @@ public class SchemaParser implements PsiParser {
         }
 
         private void parseEnumDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
-            consumeTokenAs(KEYWORD);
-            if (!isToken(SchemaLexer.IDENTIFIER)) {
-                error(marker, ENUM_DEFINITION, Construct.BRACES, "Expected identifier after '%s'.", KEYWORD_ENUM);
-                return;
-            }
-            String name = getIdentifier();
-            consumeTokenAs(DEFINITION_NAME);
-            if (!isToken(SchemaLexer.LBRACE)) {
-                error(marker, ENUM_DEFINITION, Construct.BRACES, "Expected '{' after '%s %s'.", KEYWORD_ENUM, name);
-                return;
-            }
-            consumeTokenAs(null);
-            parseEnumContents();
-            if (!isToken(SchemaLexer.RBRACE)) {
-                error(marker, ENUM_DEFINITION, Construct.BRACES,
-                      "Invalid '%s' inside %s %s.", getTokenText(), KEYWORD_ENUM, name);
-                return;
-            }
-            consumeTokenAs(null);
-            marker.done(ENUM_DEFINITION);
+            parseBracedDefinition(ENUM_DEFINITION, KEYWORD_ENUM);
         }
 
         private void parseTypeDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
-            consumeTokenAs(KEYWORD);
-            if (!isToken(SchemaLexer.IDENTIFIER)) {
-                error(marker, TYPE_DEFINITION, Construct.BRACES, "Expected identifier after '%s'.", KEYWORD_TYPE);
-                return;
-            }
-            String name = getIdentifier();
-            consumeTokenAs(DEFINITION_NAME);
-            if (!isToken(SchemaLexer.LBRACE)) {
-                error(marker, TYPE_DEFINITION, Construct.BRACES, "Expected '{' after '%s %s'.", KEYWORD_TYPE, name);
-                return;
-            }
-            consumeTokenAs(null);
-            parseTypeContents();
-            if (!isToken(SchemaLexer.RBRACE)) {
-                error(marker, TYPE_DEFINITION, Construct.BRACES,
-                      "Invalid '%s' inside %s %s.", getTokenText(), KEYWORD_TYPE, name);
-                return;
-            }
-            consumeTokenAs(null);
-            marker.done(TYPE_DEFINITION);
+            parseBracedDefinition(TYPE_DEFINITION, KEYWORD_TYPE);
         }
 
         private void parseComponentDefinition() {
-            PsiBuilder.Marker marker = builder.mark();
+            parseBracedDefinition(COMPONENT_DEFINITION, KEYWORD_COMPONENT);
+        }
+
+        private void parseBracedDefinition(@NotNull IElementType elementType, @NotNull String keyword) {
+            int start = getCurrentOffset();
+            M marker = mark();
             consumeTokenAs(KEYWORD);
             if (!isToken(SchemaLexer.IDENTIFIER)) {
-                error(marker, COMPONENT_DEFINITION, Construct.BRACES,
-                      "Expected identifier after '%s'.", KEYWORD_COMPONENT);
+                error(marker, elementType, Construct.BRACES, "Expected identifier after '%s'.", keyword);
                 return;
             }
-            String name = getIdentifier();
+            int nameStart = getCurrentOffset();
             consumeTokenAs(DEFINITION_NAME);
             if (!isToken(SchemaLexer.LBRACE)) {
-                error(marker, COMPONENT_DEFINITION, Construct.BRACES,
-                      "Expected '{' after '%s %s'.", KEYWORD_COMPONENT, name);
+                error(marker, elementType, Construct.BRACES, "Expected '{' after '%s'.", getTextFrom(start));
                 return;
             }
             consumeTokenAs(null);
-            parseComponentContents();
+            if (elementType == ENUM_DEFINITION) {
+                parseEnumContents();
+            } else if (elementType == TYPE_DEFINITION) {
+                parseTypeContents();
+            } else {
+                parseComponentContents();
+            }
             if (!isToken(SchemaLexer.RBRACE)) {
-                error(marker, COMPONENT_DEFINITION, Construct.BRACES,
-                      "Invalid '%s' inside %s %s.", getTokenText(), KEYWORD_COMPONENT, name);
+                error(marker, elementType, Construct.BRACES,
+                      "Invalid '%s' inside %s %s.", getTokenText(), keyword, getIdentifierAt(nameStart));
                 return;
             }
             consumeTokenAs(null);
-            marker.done(COMPONENT_DEFINITION);
+            done(marker, elementType);
         }
 
         private void parseTopLevelDefinition() {
@@ -547,12 +669,12 @@ public class SchemaParser implements PsiParser {
             }
         }
 
-        public void parseSchemaFile(@NotNull IElementType root) {
-            PsiBuilder.Marker marker = builder.mark();
-            while (builder.getTokenType() != null && !builder.eof()) {
+        void parseSchemaFile(@NotNull IElementType root) {
+            M marker = mark();
+            while (getTokenType() != null && !eof()) {
                 parseTopLevelDefinition();
             }
-            marker.done(root);
+            done(marker, root);
         }
     }
 }
@@ -25,7 +25,7 @@ public class SchemaParserDefinition implements ParserDefinition {
 
     @Override
     public @NotNull Lexer createLexer(Project project) {
-        return SchemaLexer.SCHEMA_LEXER;
+        return new SchemaLexer();
     }
 
     @Override
@@ -21,7 +21,7 @@ public class SchemaSyntaxHighlighter extends SyntaxHighlighterBase {
 
     @Override
     public @NotNull Lexer getHighlightingLexer() {
-        return SchemaLexer.SCHEMA_LEXER;
+        return new SchemaLexer();
     }
 
     @Override
@@ -0,0 +1,39 @@
+package com.improbable.spatialos.schema.intellij.refactoring;
+
+import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.index.SchemaFiles;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.refactoring.SchemaTextEdits.Edit;
+import com.intellij.lang.ImportOptimizer;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public class SchemaImportOptimizer implements ImportOptimizer {
+    @Override
+    public boolean supports(PsiFile file) {
+        return file.getLanguage() == SchemaLanguage.SCHEMA_LANGUAGE;
+    }
+
+    @Override
+    public @NotNull Runnable processFile(PsiFile file) {
+        Project project = file.getProject();
+        if (DumbService.isDumb(project)) {
+            return () -> {};
+        }
+        List<Edit> edits = SchemaImports.computeEdits(new SchemaResolver(project),
+                                                      SchemaFiles.getImportRoots(project), file);
+        return () -> {
+            Document document = PsiDocumentManager.getInstance(project).getDocument(file);
+            if (document != null && !edits.isEmpty()) {
+                SchemaTextEdits.apply(document, edits);
+                PsiDocumentManager.getInstance(project).commitDocument(document);
+            }
+        };
+    }
+}
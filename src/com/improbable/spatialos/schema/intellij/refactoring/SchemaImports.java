@@ -0,0 +1,108 @@
+package com.improbable.spatialos.schema.intellij.refactoring;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaFiles;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryBuilder;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.improbable.spatialos.schema.intellij.refactoring.SchemaTextEdits.Edit;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Computes the edits that remove unused imports and add missing ones, based on which files define the types the file
+ * refers to. Imports that cannot be resolved are left alone.
+ */
+public class SchemaImports {
+    public static @NotNull List<Edit> computeEdits(@NotNull SchemaResolver resolver,
+                                                   @NotNull List<VirtualFile> importRoots, @NotNull PsiFile file) {
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        ASTNode root = SchemaLargeFileMode.getFullTree(file);
+        Set<VirtualFile> usedFiles = new LinkedHashSet<>();
+        collectUsedFiles(resolver, root, virtualFile, usedFiles);
+
+        List<Edit> edits = new ArrayList<>();
+        Set<VirtualFile> imported = new HashSet<>();
+        ASTNode insertAfter = null;
+        for (ASTNode child = root.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == SchemaParser.PACKAGE_DEFINITION && insertAfter == null) {
+                insertAfter = child;
+            }
+            if (child.getElementType() != SchemaParser.IMPORT_DEFINITION) {
+                continue;
+            }
+            insertAfter = child;
+            ASTNode filename = child.findChildByType(SchemaParser.IMPORT_FILENAME);
+            VirtualFile importedFile = filename == null ? null :
+                SchemaFiles.resolveImport(importRoots, SchemaSummaryBuilder.unquote(filename.getText()));
+            if (importedFile == null) {
+                continue;
+            }
+            if (!usedFiles.contains(importedFile) || !imported.add(importedFile)) {
+                edits.add(new Edit(getLineRange(child), ""));
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (VirtualFile usedFile : usedFiles) {
+            if (!imported.contains(usedFile)) {
+                String importPath = SchemaFiles.getImportPath(importRoots, usedFile);
+                if (importPath != null) {
+                    missing.add(importPath);
+                }
+            }
+        }
+        Collections.sort(missing);
+        if (!missing.isEmpty()) {
+            StringBuilder text = new StringBuilder();
+            for (String importPath : missing) {
+                if (insertAfter != null) {
+                    text.append('\n');
+                }
+                text.append(SchemaParser.KEYWORD_IMPORT).append(" \"").append(importPath).append("\";");
+                if (insertAfter == null) {
+                    text.append('\n');
+                }
+            }
+            int offset = insertAfter == null ? 0 : insertAfter.getTextRange().getEndOffset();
+            edits.add(new Edit(new TextRange(offset, offset), text.toString()));
+        }
+        return edits;
+    }
+
+    private static void collectUsedFiles(@NotNull SchemaResolver resolver, @NotNull ASTNode node,
+                                         VirtualFile file, @NotNull Set<VirtualFile> usedFiles) {
+        if (SchemaResolver.isTypeReference(node)) {
+            String qualifiedName = resolver.resolveReference(node);
+            if (qualifiedName != null) {
+                Collection<VirtualFile> definingFiles = resolver.getDefiningFiles(qualifiedName);
+                if (!definingFiles.isEmpty() && !definingFiles.contains(file)) {
+                    usedFiles.add(definingFiles.iterator().next());
+                }
+            }
+            return;
+        }
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            collectUsedFiles(resolver, child, file, usedFiles);
+        }
+    }
+
+    private static @NotNull TextRange getLineRange(@NotNull ASTNode node) {
+        CharSequence text = node.getTreeParent().getChars();
+        int start = node.getStartOffset() - node.getTreeParent().getStartOffset();
+        int end = start + node.getTextLength();
+        while (end < text.length() && (text.charAt(end) == ' ' || text.charAt(end) == '\t')) {
+            ++end;
+        }
+        if (end < text.length() && text.charAt(end) == '\n') {
+            ++end;
+        }
+        int base = node.getTreeParent().getStartOffset();
+        return new TextRange(base + start, base + end);
+    }
+}
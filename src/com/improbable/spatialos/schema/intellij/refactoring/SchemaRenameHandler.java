@@ -0,0 +1,228 @@
+package com.improbable.spatialos.schema.intellij.refactoring;
+
+import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.index.SchemaPackageIndex;
+import com.improbable.spatialos.schema.intellij.index.SchemaReferenceIndex;
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.parser.SchemaLargeFileMode;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.improbable.spatialos.schema.intellij.refactoring.SchemaTextEdits.Edit;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.InputValidator;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.refactoring.rename.RenameHandler;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Renames enums, types, components and packages. Files that may mention the target are found through
+ * {@link SchemaReferenceIndex}, so only those files are parsed, and all edits are applied in one command.
+ */
+public class SchemaRenameHandler implements RenameHandler {
+    private static final Pattern IDENTIFIER = Pattern.compile("[_a-zA-Z][_a-zA-Z0-9]*");
+    private static final Pattern PACKAGE = Pattern.compile("[_a-zA-Z][_a-zA-Z0-9]*(\\.[_a-zA-Z][_a-zA-Z0-9]*)*");
+
+    private static class Target {
+        final boolean isPackage;
+        final String qualifiedName;
+
+        Target(boolean isPackage, @NotNull String qualifiedName) {
+            this.isPackage = isPackage;
+            this.qualifiedName = qualifiedName;
+        }
+
+        @NotNull String getSimpleName() {
+            return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        }
+    }
+
+    @Override
+    public boolean isAvailableOnDataContext(DataContext dataContext) {
+        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
+        PsiFile file = CommonDataKeys.PSI_FILE.getData(dataContext);
+        return editor != null && file != null && file.getLanguage() == SchemaLanguage.SCHEMA_LANGUAGE &&
+            findTargetNode(file, editor.getCaretModel().getOffset()) != null;
+    }
+
+    @Override
+    public boolean isRenaming(DataContext dataContext) {
+        return isAvailableOnDataContext(dataContext);
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file, DataContext dataContext) {
+        ASTNode node = findTargetNode(file, editor.getCaretModel().getOffset());
+        Target target = node == null ? null : getTarget(new SchemaResolver(project), node);
+        if (target == null) {
+            Messages.showErrorDialog(project, "Cannot find the definition to rename.", "Rename");
+            return;
+        }
+        String oldName = target.isPackage ? target.qualifiedName : target.getSimpleName();
+        Pattern pattern = target.isPackage ? PACKAGE : IDENTIFIER;
+        String newName = Messages.showInputDialog(
+            project, "Rename '" + target.qualifiedName + "' to:", "Rename", null, oldName, new InputValidator() {
+                @Override
+                public boolean checkInput(String input) {
+                    return pattern.matcher(input).matches();
+                }
+
+                @Override
+                public boolean canClose(String input) {
+                    return checkInput(input);
+                }
+            });
+        if (newName == null || newName.equals(oldName)) {
+            return;
+        }
+        Map<VirtualFile, List<Edit>> edits = new LinkedHashMap<>();
+        boolean completed = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            () -> ApplicationManager.getApplication().runReadAction(
+                () -> collectEdits(project, target, newName, edits)),
+            "Finding usages of " + target.qualifiedName, true, project);
+        if (completed) {
+            SchemaTextEdits.apply(project, "Rename " + target.qualifiedName + " to " + newName, edits);
+        }
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiElement[] elements, DataContext dataContext) {
+        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
+        PsiFile file = CommonDataKeys.PSI_FILE.getData(dataContext);
+        if (editor != null && file != null) {
+            invoke(project, editor, file, dataContext);
+        }
+    }
+
+    private static @Nullable ASTNode findTargetNode(@NotNull PsiFile file, int offset) {
+        PsiElement element = file.findElementAt(offset);
+        if (element == null && offset > 0) {
+            element = file.findElementAt(offset - 1);
+        }
+        for (ASTNode node = element == null ? null : element.getNode(); node != null; node = node.getTreeParent()) {
+            if (node.getElementType() == SchemaParser.DEFINITION_NAME ||
+                node.getElementType() == SchemaParser.PACKAGE_NAME || SchemaResolver.isTypeReference(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable Target getTarget(@NotNull SchemaResolver resolver, @NotNull ASTNode node) {
+        if (node.getElementType() == SchemaParser.PACKAGE_NAME) {
+            return new Target(true, node.getText());
+        }
+        String qualifiedName = node.getElementType() == SchemaParser.DEFINITION_NAME ?
+            SchemaResolver.getDefinitionQualifiedName(node) : resolver.resolveReference(node);
+        return qualifiedName == null ? null : new Target(false, qualifiedName);
+    }
+
+    private static void collectEdits(@NotNull Project project, @NotNull Target target, @NotNull String newName,
+                                     @NotNull Map<VirtualFile, List<Edit>> edits) {
+        SchemaResolver resolver = new SchemaResolver(project);
+        Set<VirtualFile> files = new LinkedHashSet<>(FileBasedIndex.getInstance().getContainingFiles(
+            SchemaReferenceIndex.NAME, target.getSimpleName(), resolver.getScope()));
+        if (target.isPackage) {
+            files.addAll(FileBasedIndex.getInstance().getContainingFiles(
+                SchemaPackageIndex.NAME, target.qualifiedName, resolver.getScope()));
+        } else {
+            files.addAll(resolver.getDefiningFiles(target.qualifiedName));
+        }
+        for (VirtualFile file : files) {
+            ProgressManager.checkCanceled();
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (psiFile == null) {
+                continue;
+            }
+            List<Edit> fileEdits = new ArrayList<>();
+            collectEdits(resolver, SchemaLargeFileMode.getFullTree(psiFile), target, newName, fileEdits);
+            if (!fileEdits.isEmpty()) {
+                edits.put(file, fileEdits);
+            }
+        }
+    }
+
+    private static void collectEdits(@NotNull SchemaResolver resolver, @NotNull ASTNode node, @NotNull Target target,
+                                     @NotNull String newName, @NotNull List<Edit> edits) {
+        if (target.isPackage && node.getElementType() == SchemaParser.PACKAGE_NAME) {
+            if (node.getText().equals(target.qualifiedName)) {
+                edits.add(new Edit(node.getTextRange(), newName));
+            }
+            return;
+        }
+        if (!target.isPackage && node.getElementType() == SchemaParser.DEFINITION_NAME) {
+            if (target.qualifiedName.equals(SchemaResolver.getDefinitionQualifiedName(node))) {
+                edits.add(new Edit(node.getTextRange(), newName));
+            }
+            return;
+        }
+        if (SchemaResolver.isTypeReference(node)) {
+            Edit edit = target.isPackage ?
+                getPackageReferenceEdit(resolver, node, target, newName) :
+                getDefinitionReferenceEdit(resolver, node, target, newName);
+            if (edit != null) {
+                edits.add(edit);
+            }
+            return;
+        }
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            collectEdits(resolver, child, target, newName, edits);
+        }
+    }
+
+    private static @Nullable Edit getDefinitionReferenceEdit(@NotNull SchemaResolver resolver,
+                                                             @NotNull ASTNode reference, @NotNull Target target,
+                                                             @NotNull String newName) {
+        String text = reference.getText();
+        String simpleName = target.getSimpleName();
+        int segmentStart = text.startsWith(".") ? 1 : 0;
+        while (segmentStart < text.length()) {
+            int segmentEnd = text.indexOf('.', segmentStart);
+            if (segmentEnd < 0) {
+                segmentEnd = text.length();
+            }
+            if (text.substring(segmentStart, segmentEnd).equals(simpleName) &&
+                target.qualifiedName.equals(resolver.resolveReference(reference, text.substring(0, segmentEnd)))) {
+                int start = reference.getStartOffset();
+                return new Edit(new TextRange(start + segmentStart, start + segmentEnd), newName);
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Only references that spell out the full package name are renamed; relative references keep resolving through
+     * the enclosing package.
+     */
+    private static @Nullable Edit getPackageReferenceEdit(@NotNull SchemaResolver resolver,
+                                                          @NotNull ASTNode reference, @NotNull Target target,
+                                                          @NotNull String newName) {
+        String text = reference.getText();
+        int start = text.startsWith(".") ? 1 : 0;
+        String prefix = target.qualifiedName + ".";
+        if (!text.startsWith(prefix, start)) {
+            return null;
+        }
+        String resolved = resolver.resolveReference(reference);
+        if (resolved == null || !resolved.startsWith(prefix)) {
+            return null;
+        }
+        int offset = reference.getStartOffset() + start;
+        return new Edit(new TextRange(offset, offset + target.qualifiedName.length()), newName);
+    }
+}
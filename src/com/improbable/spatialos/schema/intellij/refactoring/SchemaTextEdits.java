@@ -0,0 +1,57 @@
+package com.improbable.spatialos.schema.intellij.refactoring;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.ReadonlyStatusHandler;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text edits computed in a read action and applied to many files in a single undoable command.
+ */
+public class SchemaTextEdits {
+    public static class Edit {
+        public final TextRange range;
+        public final String replacement;
+
+        public Edit(@NotNull TextRange range, @NotNull String replacement) {
+            this.range = range;
+            this.replacement = replacement;
+        }
+    }
+
+    public static void apply(@NotNull Project project, @NotNull String commandName,
+                             @NotNull Map<VirtualFile, List<Edit>> edits) {
+        if (edits.isEmpty() || ReadonlyStatusHandler.getInstance(project).ensureFilesWritable(
+                edits.keySet().toArray(new VirtualFile[0])).hasReadonlyFiles()) {
+            return;
+        }
+        CommandProcessor.getInstance().executeCommand(project, () -> ApplicationManager.getApplication().runWriteAction(
+            () -> {
+                for (Map.Entry<VirtualFile, List<Edit>> entry : edits.entrySet()) {
+                    Document document = FileDocumentManager.getInstance().getDocument(entry.getKey());
+                    if (document != null) {
+                        apply(document, entry.getValue());
+                    }
+                }
+                PsiDocumentManager.getInstance(project).commitAllDocuments();
+            }), commandName, null);
+    }
+
+    public static void apply(@NotNull Document document, @NotNull List<Edit> edits) {
+        List<Edit> sorted = new ArrayList<>(edits);
+        sorted.sort((a, b) -> Integer.compare(b.range.getStartOffset(), a.range.getStartOffset()));
+        for (Edit edit : sorted) {
+            document.replaceString(edit.range.getStartOffset(), edit.range.getEndOffset(), edit.replacement);
+        }
+    }
+}
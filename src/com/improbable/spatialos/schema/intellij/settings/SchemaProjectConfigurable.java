@@ -39,21 +39,33 @@ public class SchemaProjectConfigurable implements Configurable {
 
     @Override
     public boolean isModified() {
-        return gui != null && !properties.getState().schemaPaths.equals(
-                SchemaProjectProperties.parseSchemaPaths(gui.getSchemaPaths()));
+        return gui != null && !properties.getSettings().equals(createSettings(gui));
     }
 
     @Override
     public void apply() throws ConfigurationException {
         if (gui != null) {
-            properties.setSchemaPaths(gui.getSchemaPaths());
+            properties.update(createSettings(gui));
         }
     }
 
+    private static SchemaSettings createSettings(Gui gui) {
+        return new SchemaSettings(SchemaProjectProperties.parseSchemaPaths(gui.getSchemaPaths()),
+                                  gui.getGeneratedCodePath().trim(),
+                                  SchemaProjectProperties.parsePathFilters(gui.getPathFilters()),
+                                  SchemaProjectProperties.parseLengthHints(gui.getLengthHints()),
+                                  SchemaProjectProperties.parseLargeFileThresholdKb(gui.getLargeFileThreshold()));
+    }
+
     @Override
     public void reset() {
         if (gui != null) {
-            gui.setSchemaPaths(SchemaProjectProperties.formatSchemaPaths(properties.getState().schemaPaths));
+            SchemaSettings settings = properties.getSettings();
+            gui.setSchemaPaths(SchemaProjectProperties.formatSchemaPaths(settings.schemaPaths));
+            gui.setGeneratedCodePath(settings.generatedCodePath);
+            gui.setPathFilters(SchemaProjectProperties.formatPathFilters(settings.pathFilters));
+            gui.setLengthHints(SchemaProjectProperties.formatLengthHints(settings.lengthHints));
+            gui.setLargeFileThreshold(Integer.toString(settings.largeFileThresholdKb));
         }
     }
 
@@ -63,9 +75,13 @@ public class SchemaProjectConfigurable implements Configurable {
 
     private static class Gui extends JPanel {
         private JTextArea schemaPaths = new JTextArea();
+        private JTextField generatedCodePath = new JTextField();
+        private JTextArea pathFilters = new JTextArea();
+        private JTextArea lengthHints = new JTextArea();
+        private JTextField largeFileThreshold = new JTextField();
 
         public Gui() {
-            setLayout(new GridLayoutManager(1, 2));
+            setLayout(new GridLayoutManager(5, 2));
             setRequestFocusEnabled(true);
 
             schemaPaths.setAutoscrolls(true);
@@ -82,6 +98,56 @@ public class SchemaProjectConfigurable implements Configurable {
             add(schemaPaths, new GridConstraints(
                     0, 1, 1, 1, GridConstraints.ANCHOR_NORTHEAST, GridConstraints.FILL_HORIZONTAL,
                     GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null));
+
+            JLabel generatedCodePathLabel = new JLabel();
+            generatedCodePathLabel.setText("Generated code path:");
+            generatedCodePathLabel.setLabelFor(generatedCodePath);
+
+            add(generatedCodePathLabel, new GridConstraints(
+                    1, 0, 1, 1, GridConstraints.ANCHOR_NORTHWEST, 0,
+                    GridConstraints.SIZEPOLICY_CAN_SHRINK, 0, null, null, null));
+
+            add(generatedCodePath, new GridConstraints(
+                    1, 1, 1, 1, GridConstraints.ANCHOR_NORTHEAST, GridConstraints.FILL_HORIZONTAL,
+                    GridConstraints.SIZEPOLICY_CAN_GROW, 0, null, null, null));
+
+            JLabel pathFiltersLabel = new JLabel();
+            pathFiltersLabel.setText(
+                "<html>Path filters (one per line:<br>path +include-glob -exclude-glob ...):</html>");
+            pathFiltersLabel.setLabelFor(pathFilters);
+
+            add(pathFiltersLabel, new GridConstraints(
+                    2, 0, 1, 1, GridConstraints.ANCHOR_NORTHWEST, 0,
+                    GridConstraints.SIZEPOLICY_CAN_SHRINK, 0, null, null, null));
+
+            add(pathFilters, new GridConstraints(
+                    2, 1, 1, 1, GridConstraints.ANCHOR_NORTHEAST, GridConstraints.FILL_HORIZONTAL,
+                    GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null));
+
+            JLabel lengthHintsLabel = new JLabel();
+            lengthHintsLabel.setText(
+                "<html>Wire size length hints (one per line:<br>string, bytes, list, map or field=length):</html>");
+            lengthHintsLabel.setLabelFor(lengthHints);
+
+            add(lengthHintsLabel, new GridConstraints(
+                    3, 0, 1, 1, GridConstraints.ANCHOR_NORTHWEST, 0,
+                    GridConstraints.SIZEPOLICY_CAN_SHRINK, 0, null, null, null));
+
+            add(lengthHints, new GridConstraints(
+                    3, 1, 1, 1, GridConstraints.ANCHOR_NORTHEAST, GridConstraints.FILL_HORIZONTAL,
+                    GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null));
+
+            JLabel largeFileThresholdLabel = new JLabel();
+            largeFileThresholdLabel.setText("Large-file threshold in KB (0 to turn off):");
+            largeFileThresholdLabel.setLabelFor(largeFileThreshold);
+
+            add(largeFileThresholdLabel, new GridConstraints(
+                    4, 0, 1, 1, GridConstraints.ANCHOR_NORTHWEST, 0,
+                    GridConstraints.SIZEPOLICY_CAN_SHRINK, 0, null, null, null));
+
+            add(largeFileThreshold, new GridConstraints(
+                    4, 1, 1, 1, GridConstraints.ANCHOR_NORTHEAST, GridConstraints.FILL_HORIZONTAL,
+                    GridConstraints.SIZEPOLICY_CAN_GROW, 0, null, null, null));
         }
 
         public String getSchemaPaths() {
@@ -91,5 +157,37 @@ public class SchemaProjectConfigurable implements Configurable {
         public void setSchemaPaths(String value) {
             schemaPaths.replaceRange(value, 0, schemaPaths.getText().length());
         }
+
+        public String getGeneratedCodePath() {
+            return generatedCodePath.getText();
+        }
+
+        public void setGeneratedCodePath(String value) {
+            generatedCodePath.setText(value);
+        }
+
+        public String getPathFilters() {
+            return pathFilters.getText();
+        }
+
+        public void setPathFilters(String value) {
+            pathFilters.replaceRange(value, 0, pathFilters.getText().length());
+        }
+
+        public String getLengthHints() {
+            return lengthHints.getText();
+        }
+
+        public void setLengthHints(String value) {
+            lengthHints.replaceRange(value, 0, lengthHints.getText().length());
+        }
+
+        public String getLargeFileThreshold() {
+            return largeFileThreshold.getText();
+        }
+
+        public void setLargeFileThreshold(String value) {
+            largeFileThreshold.setText(value);
+        }
     }
 }
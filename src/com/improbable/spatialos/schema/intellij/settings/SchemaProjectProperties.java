@@ -1,43 +1,97 @@
 package com.improbable.spatialos.schema.intellij.settings;
 
 import com.improbable.spatialos.schema.intellij.SchemaLanguage;
+import com.improbable.spatialos.schema.intellij.index.SchemaSettingsChangeHandler;
 import com.intellij.openapi.components.*;
+import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @State(name=SchemaLanguage.LANGUAGE_ID, storages={
         @Storage(id="dir", file=StoragePathMacros.PROJECT_CONFIG_DIR + "/spatial.xml",
                  scheme=StorageScheme.DIRECTORY_BASED)
 })
 public class SchemaProjectProperties implements PersistentStateComponent<SchemaProjectProperties.State> {
-    private State state = new State();
+    private final Project project;
+    private volatile SchemaSettings settings = new SchemaSettings();
+    private boolean loaded = false;
 
-    public static class State {
-        public List<String> schemaPaths;
+    /**
+     * The serialized form of {@link SchemaSettings.PathFilter}. The class name is the XML tag name.
+     */
+    public static class PathFilter {
+        public String path;
+        public List<String> includes;
+        public List<String> excludes;
 
-        public State() {
-            this.schemaPaths = new ArrayList<>();
+        public PathFilter() {
+            this("", new ArrayList<>(), new ArrayList<>());
         }
 
-        public State(List<String> schemaPaths) {
-            this.schemaPaths = schemaPaths;
+        public PathFilter(String path, List<String> includes, List<String> excludes) {
+            this.path = path;
+            this.includes = includes;
+            this.excludes = excludes;
         }
+    }
 
-        @Override
-        public boolean equals(Object other) {
-            return other instanceof State && schemaPaths.equals(((State) other).schemaPaths);
-        }
+    /**
+     * The serialized form of {@link SchemaSettings}. It is only used to read and write the settings file; everything
+     * else reads the immutable snapshot.
+     */
+    public static class State {
+        public List<String> schemaPaths = new ArrayList<>();
+        public String generatedCodePath = SchemaSettings.DEFAULT_GENERATED_CODE_PATH;
+        public List<PathFilter> pathFilters = new ArrayList<>();
+        public Map<String, Integer> lengthHints = new LinkedHashMap<>();
+        public int largeFileThresholdKb = SchemaSettings.DEFAULT_LARGE_FILE_THRESHOLD_KB;
+    }
 
-        @Override
-        public int hashCode() {
-            return schemaPaths.hashCode();
+    public SchemaProjectProperties(@NotNull Project project) {
+        this.project = project;
+        // Connected here so that the caches are invalidated before anything can read changed settings.
+        project.getMessageBus().connect(project).subscribe(SchemaSettingsListener.TOPIC,
+                                                           new SchemaSettingsChangeHandler(project));
+    }
+
+    public static @NotNull SchemaSettings getSettings(@NotNull Project project) {
+        return ServiceManager.getService(project, SchemaProjectProperties.class).getSettings();
+    }
+
+    public @NotNull SchemaSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Replaces the settings and, if they differ, tells {@link SchemaSettingsListener#TOPIC} subscribers.
+     */
+    public void update(@NotNull SchemaSettings newSettings) {
+        SchemaSettings oldSettings;
+        synchronized (this) {
+            oldSettings = settings;
+            if (oldSettings.equals(newSettings)) {
+                return;
+            }
+            settings = newSettings;
         }
+        project.getMessageBus().syncPublisher(SchemaSettingsListener.TOPIC).settingsChanged(oldSettings, newSettings);
     }
 
-    public void setSchemaPaths(String rawSchemaPaths) {
-        state = new State(parseSchemaPaths(rawSchemaPaths));
+    /**
+     * Parses a threshold in KB. Anything that is not a non-negative number falls back to the default.
+     */
+    public static int parseLargeFileThresholdKb(String rawThreshold) {
+        try {
+            int threshold = Integer.parseInt(rawThreshold.trim());
+            return threshold >= 0 ? threshold : SchemaSettings.DEFAULT_LARGE_FILE_THRESHOLD_KB;
+        } catch (NumberFormatException e) {
+            return SchemaSettings.DEFAULT_LARGE_FILE_THRESHOLD_KB;
+        }
     }
 
     public static List<String> parseSchemaPaths(String rawSchemaPaths) {
@@ -54,13 +108,122 @@ public class SchemaProjectProperties implements PersistentStateComponent<SchemaP
         return String.join("\n", schemaPaths);
     }
 
+    /**
+     * Parses one filter per line: a schema path followed by globs, each prefixed with '+' to include or '-' to
+     * exclude, e.g. {@code schema -vendor/** -generated/**}.
+     */
+    public static List<SchemaSettings.PathFilter> parsePathFilters(String rawPathFilters) {
+        List<SchemaSettings.PathFilter> pathFilters = new ArrayList<>();
+        for (String line : rawPathFilters.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 2 || parts[0].isEmpty()) {
+                continue;
+            }
+            List<String> includes = new ArrayList<>();
+            List<String> excludes = new ArrayList<>();
+            for (int i = 1; i < parts.length; ++i) {
+                if (parts[i].length() > 1 && parts[i].charAt(0) == '+') {
+                    includes.add(parts[i].substring(1));
+                } else if (parts[i].length() > 1 && parts[i].charAt(0) == '-') {
+                    excludes.add(parts[i].substring(1));
+                }
+            }
+            pathFilters.add(new SchemaSettings.PathFilter(parts[0], includes, excludes));
+        }
+        return pathFilters;
+    }
+
+    public static String formatPathFilters(List<SchemaSettings.PathFilter> pathFilters) {
+        StringBuilder text = new StringBuilder();
+        for (SchemaSettings.PathFilter filter : pathFilters) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(filter.path);
+            for (String include : filter.includes) {
+                text.append(" +").append(include);
+            }
+            for (String exclude : filter.excludes) {
+                text.append(" -").append(exclude);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parses one hint per line, e.g. {@code list=8} or {@code improbable.Metadata.entity_type=24}. Lines that are not
+     * a name followed by a non-negative number are ignored.
+     */
+    public static Map<String, Integer> parseLengthHints(String rawLengthHints) {
+        Map<String, Integer> lengthHints = new LinkedHashMap<>();
+        for (String line : rawLengthHints.split("\n")) {
+            int equals = line.indexOf('=');
+            if (equals <= 0) {
+                continue;
+            }
+            try {
+                int hint = Integer.parseInt(line.substring(equals + 1).trim());
+                if (hint >= 0) {
+                    lengthHints.put(line.substring(0, equals).trim(), hint);
+                }
+            } catch (NumberFormatException e) {
+                // Skip the line, like any other malformed hint.
+            }
+        }
+        return lengthHints;
+    }
+
+    public static String formatLengthHints(Map<String, Integer> lengthHints) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Integer> hint : lengthHints.entrySet()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(hint.getKey()).append('=').append(hint.getValue());
+        }
+        return text.toString();
+    }
+
     @Override
     public @NotNull SchemaProjectProperties.State getState() {
+        SchemaSettings settings = this.settings;
+        State state = new State();
+        state.schemaPaths = new ArrayList<>(settings.schemaPaths);
+        state.generatedCodePath = settings.generatedCodePath;
+        for (SchemaSettings.PathFilter filter : settings.pathFilters) {
+            state.pathFilters.add(new PathFilter(filter.path, new ArrayList<>(filter.includes),
+                                                 new ArrayList<>(filter.excludes)));
+        }
+        state.lengthHints = new LinkedHashMap<>(settings.lengthHints);
+        state.largeFileThresholdKb = settings.largeFileThresholdKb;
         return state;
     }
 
+    /**
+     * Takes a snapshot of the loaded state. The first load happens before anything has read the settings, so only
+     * later loads, e.g. after the settings file changed on disk, are published.
+     */
     @Override
     public void loadState(SchemaProjectProperties.State state) {
-        this.state = state;
+        List<SchemaSettings.PathFilter> pathFilters = new ArrayList<>();
+        if (state.pathFilters != null) {
+            for (PathFilter filter : state.pathFilters) {
+                pathFilters.add(new SchemaSettings.PathFilter(
+                    filter.path == null ? "" : filter.path,
+                    filter.includes == null ? Collections.emptyList() : filter.includes,
+                    filter.excludes == null ? Collections.emptyList() : filter.excludes));
+            }
+        }
+        SchemaSettings loadedSettings = new SchemaSettings(
+            state.schemaPaths == null ? Collections.emptyList() : state.schemaPaths,
+            state.generatedCodePath == null ? SchemaSettings.DEFAULT_GENERATED_CODE_PATH : state.generatedCodePath,
+            pathFilters, state.lengthHints == null ? Collections.emptyMap() : state.lengthHints,
+            state.largeFileThresholdKb);
+        if (loaded) {
+            update(loadedSettings);
+        } else {
+            loaded = true;
+            settings = loadedSettings;
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.improbable.spatialos.schema.intellij.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable snapshot of a project's schema settings. Every snapshot gets a new modification stamp, so a cache can
+ * record the stamp it was built from; {@link #equals} compares the settings themselves and ignores the stamp.
+ */
+public final class SchemaSettings {
+    public static final String DEFAULT_GENERATED_CODE_PATH = "build/generated/schema";
+    public static final int DEFAULT_LARGE_FILE_THRESHOLD_KB = 1024;
+
+    private static final AtomicLong STAMPS = new AtomicLong();
+
+    /**
+     * Include and exclude globs for the files under one schema path, matched against paths relative to it.
+     */
+    public static final class PathFilter {
+        public final String path;
+        public final List<String> includes;
+        public final List<String> excludes;
+
+        public PathFilter(@NotNull String path, @NotNull List<String> includes, @NotNull List<String> excludes) {
+            this.path = path;
+            this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+            this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PathFilter && path.equals(((PathFilter) other).path) &&
+                includes.equals(((PathFilter) other).includes) && excludes.equals(((PathFilter) other).excludes);
+        }
+
+        @Override
+        public int hashCode() {
+            return (path.hashCode() * 31 + includes.hashCode()) * 31 + excludes.hashCode();
+        }
+    }
+
+    public final long modificationStamp;
+    public final List<String> schemaPaths;
+    public final String generatedCodePath;
+    public final List<PathFilter> pathFilters;
+    public final Map<String, Integer> lengthHints;
+    /** Files larger than this get lexer-only highlighting; zero turns large-file mode off. */
+    public final int largeFileThresholdKb;
+
+    public SchemaSettings() {
+        this(Collections.emptyList(), DEFAULT_GENERATED_CODE_PATH, Collections.emptyList(), Collections.emptyMap(),
+             DEFAULT_LARGE_FILE_THRESHOLD_KB);
+    }
+
+    public SchemaSettings(@NotNull List<String> schemaPaths, @NotNull String generatedCodePath,
+                          @NotNull List<PathFilter> pathFilters, @NotNull Map<String, Integer> lengthHints,
+                          int largeFileThresholdKb) {
+        this.modificationStamp = STAMPS.incrementAndGet();
+        this.schemaPaths = Collections.unmodifiableList(new ArrayList<>(schemaPaths));
+        this.generatedCodePath = generatedCodePath;
+        this.pathFilters = Collections.unmodifiableList(new ArrayList<>(pathFilters));
+        this.lengthHints = Collections.unmodifiableMap(new LinkedHashMap<>(lengthHints));
+        this.largeFileThresholdKb = largeFileThresholdKb;
+    }
+
+    /**
+     * Returns whether the set of schema files differs, i.e. whether the schema paths or their filters changed.
+     */
+    public boolean hasDifferentFiles(@NotNull SchemaSettings other) {
+        return !schemaPaths.equals(other.schemaPaths) || !pathFilters.equals(other.pathFilters);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SchemaSettings && !hasDifferentFiles((SchemaSettings) other) &&
+            generatedCodePath.equals(((SchemaSettings) other).generatedCodePath) &&
+            lengthHints.equals(((SchemaSettings) other).lengthHints) &&
+            largeFileThresholdKb == ((SchemaSettings) other).largeFileThresholdKb;
+    }
+
+    @Override
+    public int hashCode() {
+        return (((schemaPaths.hashCode() * 31 + generatedCodePath.hashCode()) * 31 + pathFilters.hashCode()) * 31 +
+            lengthHints.hashCode()) * 31 + largeFileThresholdKb;
+    }
+}
@@ -0,0 +1,13 @@
+package com.improbable.spatialos.schema.intellij.settings;
+
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Told on the project message bus whenever the schema settings are replaced with different ones.
+ */
+public interface SchemaSettingsListener {
+    Topic<SchemaSettingsListener> TOPIC = Topic.create("SpatialOS schema settings", SchemaSettingsListener.class);
+
+    void settingsChanged(@NotNull SchemaSettings oldSettings, @NotNull SchemaSettings newSettings);
+}
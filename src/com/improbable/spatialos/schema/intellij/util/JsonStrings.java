@@ -0,0 +1,20 @@
+package com.improbable.spatialos.schema.intellij.util;
+
+import org.jetbrains.annotations.NotNull;
+
+public class JsonStrings {
+    public static @NotNull StringBuilder append(@NotNull StringBuilder json, @NotNull String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
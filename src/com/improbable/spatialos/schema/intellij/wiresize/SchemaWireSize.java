@@ -0,0 +1,93 @@
+package com.improbable.spatialos.schema.intellij.wiresize;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Minimum, typical and maximum encoded size in bytes. The maximum is {@link #UNBOUNDED} for anything that contains a
+ * string, bytes or a collection.
+ */
+public class SchemaWireSize {
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+    public static final SchemaWireSize ZERO = new SchemaWireSize(0, 0, 0);
+
+    public final long min;
+    public final long typical;
+    public final long max;
+
+    public SchemaWireSize(long min, long typical, long max) {
+        this.min = min;
+        this.typical = typical;
+        this.max = max;
+    }
+
+    public static @NotNull SchemaWireSize exactly(long size) {
+        return new SchemaWireSize(size, size, size);
+    }
+
+    public @NotNull SchemaWireSize plus(@NotNull SchemaWireSize other) {
+        return new SchemaWireSize(add(min, other.min), add(typical, other.typical), add(max, other.max));
+    }
+
+    public @NotNull SchemaWireSize plus(long size) {
+        return new SchemaWireSize(add(min, size), add(typical, size), add(max, size));
+    }
+
+    /**
+     * Returns the size of a value that may be left out entirely, such as an option or a collection.
+     */
+    public @NotNull SchemaWireSize optional() {
+        return new SchemaWireSize(0, typical, max);
+    }
+
+    /**
+     * Returns the size of {@code typicalCount} repetitions of this value, with no upper bound on the count.
+     */
+    public @NotNull SchemaWireSize repeated(long typicalCount) {
+        return new SchemaWireSize(0, multiply(typical, typicalCount), UNBOUNDED);
+    }
+
+    /**
+     * Returns the size of this value with a varint length prefix, as for strings, bytes and embedded messages.
+     */
+    public @NotNull SchemaWireSize lengthDelimited() {
+        return new SchemaWireSize(add(min, varintSize(min)), add(typical, varintSize(typical)),
+                                  max == UNBOUNDED ? UNBOUNDED : add(max, varintSize(max)));
+    }
+
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            ++size;
+        }
+        return size;
+    }
+
+    public static @NotNull String format(long size) {
+        return size == UNBOUNDED ? "unbounded" : Long.toString(size);
+    }
+
+    private static long add(long a, long b) {
+        return a == UNBOUNDED || b == UNBOUNDED || a > UNBOUNDED - b ? UNBOUNDED : a + b;
+    }
+
+    private static long multiply(long a, long b) {
+        return a == UNBOUNDED || b == UNBOUNDED || (b != 0 && a > UNBOUNDED / b) ? UNBOUNDED : a * b;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SchemaWireSize && min == ((SchemaWireSize) other).min &&
+            typical == ((SchemaWireSize) other).typical && max == ((SchemaWireSize) other).max;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(min) * 31 + Long.hashCode(typical)) * 31 + Long.hashCode(max);
+    }
+
+    @Override
+    public String toString() {
+        return min + " / " + typical + " / " + format(max);
+    }
+}
@@ -0,0 +1,71 @@
+package com.improbable.spatialos.schema.intellij.wiresize;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaResolver;
+import com.improbable.spatialos.schema.intellij.parser.SchemaParser;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.documentation.AbstractDocumentationProvider;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shows the estimated encoded size of a component, type or event in quick documentation, on its definition or on any
+ * reference to it. The last estimate is shown while a newer one is computed in the background.
+ */
+public class SchemaWireSizeDocumentationProvider extends AbstractDocumentationProvider {
+    @Override
+    public @Nullable PsiElement getCustomDocumentationElement(@NotNull Editor editor, @NotNull PsiFile file,
+                                                              @Nullable PsiElement contextElement) {
+        ASTNode node = findNamedNode(contextElement);
+        return node == null ? null : node.getPsi();
+    }
+
+    @Override
+    public @Nullable String generateDoc(PsiElement element, @Nullable PsiElement originalElement) {
+        ASTNode node = findNamedNode(element);
+        String name = node == null ? null : getEstimatedName(new SchemaResolver(element.getProject()), node);
+        if (name == null) {
+            return null;
+        }
+        SchemaWireSizeEstimator.Result result =
+            SchemaWireSizeService.getInstance(element.getProject()).getLastEstimate();
+        if (result == null) {
+            return "<b>" + StringUtil.escapeXml(name) + "</b><br>Estimating encoded size...";
+        }
+        SchemaWireSizeEstimator.Row row = result.get(name);
+        if (row == null) {
+            return null;
+        }
+        return "<b>" + StringUtil.escapeXml(row.name) + "</b> (" + row.kind.name().toLowerCase() + ")<br>" +
+            "Encoded size: " + row.size.min + " B minimum, " + row.size.typical + " B typical, " +
+            (row.size.max == SchemaWireSize.UNBOUNDED ? "unbounded maximum" : row.size.max + " B maximum");
+    }
+
+    private static @Nullable ASTNode findNamedNode(@Nullable PsiElement element) {
+        for (ASTNode node = element == null ? null : element.getNode(); node != null; node = node.getTreeParent()) {
+            if (node.getElementType() == SchemaParser.DEFINITION_NAME || SchemaResolver.isTypeReference(node) ||
+                (node.getElementType() == SchemaParser.FIELD_NAME && node.getTreeParent() != null &&
+                 node.getTreeParent().getElementType() == SchemaParser.EVENT_DEFINITION)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable String getEstimatedName(@NotNull SchemaResolver resolver, @NotNull ASTNode node) {
+        if (node.getElementType() == SchemaParser.DEFINITION_NAME) {
+            return SchemaResolver.getDefinitionQualifiedName(node);
+        }
+        if (node.getElementType() == SchemaParser.FIELD_NAME) {
+            ASTNode component = node.getTreeParent().getTreeParent();
+            ASTNode componentName = component == null ? null : component.findChildByType(SchemaParser.DEFINITION_NAME);
+            String qualifiedName = componentName == null ? null :
+                SchemaResolver.getDefinitionQualifiedName(componentName);
+            return qualifiedName == null ? null : qualifiedName + "." + node.getText();
+        }
+        return resolver.resolveReference(node);
+    }
+}
@@ -0,0 +1,344 @@
+package com.improbable.spatialos.schema.intellij.wiresize;
+
+import com.improbable.spatialos.schema.intellij.model.SchemaDefinition;
+import com.improbable.spatialos.schema.intellij.model.SchemaField;
+import com.improbable.spatialos.schema.intellij.model.SchemaFileSummary;
+import com.improbable.spatialos.schema.intellij.model.SchemaTypeResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Estimates the encoded size of component data, types and events from schema summaries. Fields are encoded as a
+ * varint tag followed by the value; lists and maps are unpacked, so every element carries its own tag. Integers are
+ * assumed to typically fit in two varint bytes.
+ *
+ * <p>Sizes are kept between runs together with every definition they were computed from, so a run only recomputes
+ * the types that changed and the types that contain them.
+ */
+public class SchemaWireSizeEstimator {
+    public static final String HINT_STRING = "string";
+    public static final String HINT_BYTES = "bytes";
+    public static final String HINT_LIST = "list";
+    public static final String HINT_MAP = "map";
+
+    private static final Map<String, Integer> DEFAULT_HINTS = new HashMap<>();
+
+    static {
+        DEFAULT_HINTS.put(HINT_STRING, 16);
+        DEFAULT_HINTS.put(HINT_BYTES, 32);
+        DEFAULT_HINTS.put(HINT_LIST, 4);
+        DEFAULT_HINTS.put(HINT_MAP, 4);
+    }
+
+    private static final int TYPICAL_VARINT = 2;
+    private static final SchemaWireSize UNKNOWN = new SchemaWireSize(0, 0, SchemaWireSize.UNBOUNDED);
+
+    public static class Row {
+        public enum Kind {
+            COMPONENT,
+            TYPE,
+            EVENT,
+        }
+
+        public final String name;
+        public final Kind kind;
+        public final SchemaWireSize size;
+
+        private Row(@NotNull String name, @NotNull Kind kind, @NotNull SchemaWireSize size) {
+            this.name = name;
+            this.kind = kind;
+            this.size = size;
+        }
+    }
+
+    public static class Result {
+        /** Component and event rows, then type rows, each sorted by name. */
+        public final List<Row> rows;
+        public final int recomputed;
+        public final int reused;
+        private final Map<String, Row> rowsByName = new HashMap<>();
+
+        private Result(@NotNull List<Row> rows, int recomputed, int reused) {
+            this.rows = Collections.unmodifiableList(rows);
+            this.recomputed = recomputed;
+            this.reused = reused;
+            for (Row row : rows) {
+                rowsByName.put(row.name, row);
+            }
+        }
+
+        /**
+         * Returns the row for a component or type, or for an event named "Component.event".
+         */
+        public @Nullable Row get(@NotNull String name) {
+            return rowsByName.get(name);
+        }
+    }
+
+    private static class Cached {
+        final SchemaWireSize size;
+        /** Every definition the size was computed from, including the definition itself. */
+        final Map<String, SchemaDefinition> inputs;
+
+        Cached(@NotNull SchemaWireSize size, @NotNull Map<String, SchemaDefinition> inputs) {
+            this.size = size;
+            this.inputs = inputs;
+        }
+    }
+
+    private static class Pass {
+        final SchemaTypeResolver resolver;
+        final Map<String, Integer> hints;
+        final Map<String, Cached> done = new HashMap<>();
+        final Set<String> inProgress = new HashSet<>();
+        final Deque<Map<String, SchemaDefinition>> inputs = new ArrayDeque<>();
+        int recomputed = 0;
+        int reused = 0;
+
+        Pass(@NotNull SchemaTypeResolver resolver, @NotNull Map<String, Integer> hints) {
+            this.resolver = resolver;
+            this.hints = hints;
+        }
+    }
+
+    private Map<String, Cached> cache = new HashMap<>();
+    private Map<String, Integer> lastHints = Collections.emptyMap();
+    private Set<String> lastNames = Collections.emptySet();
+
+    /**
+     * Estimates every component, type and event. Hints map "string", "bytes", "list" and "map" to the typical
+     * string length, bytes length, list length and map size, and a qualified field name such as
+     * "improbable.Position.coords" to the typical length of that field in particular.
+     */
+    public synchronized @NotNull Result estimate(@NotNull Collection<SchemaFileSummary> files,
+                                                 @NotNull Map<String, Integer> hints) {
+        SchemaTypeResolver resolver = new SchemaTypeResolver(files);
+        Set<String> names = new HashSet<>(resolver.getQualifiedNames());
+        if (!hints.equals(lastHints) || !names.equals(lastNames)) {
+            // Hints apply everywhere, and a new or removed name can change what relative names resolve to.
+            cache = new HashMap<>();
+            lastHints = new HashMap<>(hints);
+            lastNames = names;
+        }
+        Pass pass = new Pass(resolver, hints);
+        List<Row> componentRows = new ArrayList<>();
+        List<Row> typeRows = new ArrayList<>();
+        for (String qualifiedName : new TreeSet<>(names)) {
+            SchemaTypeResolver.Entry entry = resolver.get(qualifiedName);
+            if (entry.definition.kind == SchemaDefinition.Kind.COMPONENT) {
+                componentRows.add(new Row(qualifiedName, Row.Kind.COMPONENT, getBody(qualifiedName, pass)));
+                for (SchemaField field : entry.definition.fields) {
+                    if (field.kind == SchemaField.Kind.EVENT) {
+                        componentRows.add(new Row(qualifiedName + "." + field.name, Row.Kind.EVENT,
+                                                  getInlinedSize(entry.file, entry.definition, field, pass)));
+                    }
+                }
+            } else if (entry.definition.kind == SchemaDefinition.Kind.TYPE) {
+                typeRows.add(new Row(qualifiedName, Row.Kind.TYPE, getBody(qualifiedName, pass)));
+            }
+        }
+        cache = pass.done;
+        List<Row> rows = new ArrayList<>(componentRows);
+        rows.addAll(typeRows);
+        return new Result(rows, pass.recomputed, pass.reused);
+    }
+
+    public synchronized void reset() {
+        cache = new HashMap<>();
+        lastHints = Collections.emptyMap();
+        lastNames = Collections.emptySet();
+    }
+
+    /**
+     * Returns the size of the fields of a type or component, without a tag or length prefix. Where a type contains
+     * itself, the nested occurrence is typically empty and has no upper bound.
+     */
+    private @NotNull SchemaWireSize getBody(@NotNull String qualifiedName, @NotNull Pass pass) {
+        SchemaTypeResolver.Entry entry = pass.resolver.get(qualifiedName);
+        Cached cached = pass.done.get(qualifiedName);
+        if (cached == null && isValid(cache.get(qualifiedName), pass.resolver)) {
+            cached = cache.get(qualifiedName);
+            pass.done.put(qualifiedName, cached);
+            ++pass.reused;
+        }
+        if (cached != null) {
+            addInputs(pass, cached.inputs);
+            return cached.size;
+        }
+        if (!pass.inProgress.add(qualifiedName)) {
+            addInputs(pass, Collections.singletonMap(qualifiedName, entry.definition));
+            return UNKNOWN;
+        }
+        Map<String, SchemaDefinition> inputs = new HashMap<>();
+        inputs.put(qualifiedName, entry.definition);
+        pass.inputs.push(inputs);
+        SchemaWireSize size = SchemaWireSize.ZERO;
+        for (SchemaField field : entry.definition.fields) {
+            if (field.kind == SchemaField.Kind.FIELD) {
+                size = size.plus(getFieldSize(entry.file, entry.definition, field, pass));
+            } else if (field.kind == SchemaField.Kind.DATA) {
+                size = size.plus(getInlinedSize(entry.file, entry.definition, field, pass));
+            }
+        }
+        pass.inputs.pop();
+        pass.inProgress.remove(qualifiedName);
+        pass.done.put(qualifiedName, new Cached(size, inputs));
+        ++pass.recomputed;
+        addInputs(pass, inputs);
+        return size;
+    }
+
+    private static boolean isValid(@Nullable Cached cached, @NotNull SchemaTypeResolver resolver) {
+        if (cached == null) {
+            return false;
+        }
+        for (Map.Entry<String, SchemaDefinition> input : cached.inputs.entrySet()) {
+            SchemaTypeResolver.Entry entry = resolver.get(input.getKey());
+            if (entry == null || entry.definition != input.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addInputs(@NotNull Pass pass, @NotNull Map<String, SchemaDefinition> inputs) {
+        Map<String, SchemaDefinition> current = pass.inputs.peek();
+        if (current != null) {
+            current.putAll(inputs);
+        }
+    }
+
+    /**
+     * Returns the size of the type of a data or event field, whose fields are sent directly rather than nested.
+     */
+    private @NotNull SchemaWireSize getInlinedSize(@NotNull SchemaFileSummary file,
+                                                   @NotNull SchemaDefinition definition, @NotNull SchemaField field,
+                                                   @NotNull Pass pass) {
+        if (field.typeName == null) {
+            return UNKNOWN;
+        }
+        SchemaTypeResolver.Entry entry = resolve(file, definition, field.typeName, pass);
+        if (entry == null || entry.definition.kind == SchemaDefinition.Kind.ENUM) {
+            return getValueSize(file, definition, field.typeName, getHint(pass, HINT_STRING), pass);
+        }
+        return getBody(entry.definition.getQualifiedName(entry.file.packageName), pass);
+    }
+
+    private @NotNull SchemaWireSize getFieldSize(@NotNull SchemaFileSummary file, @NotNull SchemaDefinition definition,
+                                                 @NotNull SchemaField field, @NotNull Pass pass) {
+        if (field.typeName == null) {
+            return UNKNOWN;
+        }
+        long tag = SchemaWireSize.varintSize((long) Math.max(field.number, 0) << 3);
+        Integer fieldHint = pass.hints.get(definition.getQualifiedName(file.packageName) + "." + field.name);
+        List<String> parameters = field.typeParameters;
+        switch (field.typeName) {
+            case "option":
+                if (parameters.size() != 1) {
+                    return UNKNOWN;
+                }
+                return getValueSize(file, definition, parameters.get(0), getStringHint(pass, fieldHint, parameters),
+                                    pass).plus(tag).optional();
+            case "list":
+                if (parameters.size() != 1) {
+                    return UNKNOWN;
+                }
+                return getValueSize(file, definition, parameters.get(0), getHint(pass, HINT_STRING), pass)
+                    .plus(tag).repeated(fieldHint != null ? fieldHint : getHint(pass, HINT_LIST));
+            case "map":
+                if (parameters.size() != 2) {
+                    return UNKNOWN;
+                }
+                // Each entry is an embedded message with the key as field 1 and the value as field 2.
+                long stringHint = getHint(pass, HINT_STRING);
+                SchemaWireSize key = getValueSize(file, definition, parameters.get(0), stringHint, pass);
+                SchemaWireSize value = getValueSize(file, definition, parameters.get(1), stringHint, pass);
+                return key.plus(value).plus(2).lengthDelimited().plus(tag)
+                    .repeated(fieldHint != null ? fieldHint : getHint(pass, HINT_MAP));
+            default:
+                long lengthHint = fieldHint != null ? fieldHint :
+                    getHint(pass, field.typeName.equals("bytes") ? HINT_BYTES : HINT_STRING);
+                return getValueSize(file, definition, field.typeName, lengthHint, pass).plus(tag);
+        }
+    }
+
+    private static long getStringHint(@NotNull Pass pass, @Nullable Integer fieldHint,
+                                      @NotNull List<String> parameters) {
+        if (fieldHint != null) {
+            return fieldHint;
+        }
+        return getHint(pass, parameters.get(0).equals("bytes") ? HINT_BYTES : HINT_STRING);
+    }
+
+    private static long getHint(@NotNull Pass pass, @NotNull String name) {
+        Integer hint = pass.hints.get(name);
+        return hint != null ? hint : DEFAULT_HINTS.get(name);
+    }
+
+    /**
+     * Returns the size of a single value without its tag.
+     */
+    private @NotNull SchemaWireSize getValueSize(@NotNull SchemaFileSummary file,
+                                                 @NotNull SchemaDefinition definition, @NotNull String typeName,
+                                                 long stringLength, @NotNull Pass pass) {
+        switch (typeName) {
+            case "bool":
+                return SchemaWireSize.exactly(1);
+            case "float":
+            case "fixed32":
+            case "sfixed32":
+                return SchemaWireSize.exactly(4);
+            case "double":
+            case "fixed64":
+            case "sfixed64":
+                return SchemaWireSize.exactly(8);
+            case "uint32":
+            case "sint32":
+                return new SchemaWireSize(1, TYPICAL_VARINT, 5);
+            case "int32":
+            case "int64":
+            case "uint64":
+            case "sint64":
+            case "EntityId":
+                // Negative int32 values are sign-extended to ten bytes.
+                return new SchemaWireSize(1, TYPICAL_VARINT, 10);
+            case "string":
+            case "bytes":
+                return new SchemaWireSize(0, stringLength, SchemaWireSize.UNBOUNDED).lengthDelimited();
+            case "Coordinates":
+            case "EntityPosition":
+            case "Vector3d":
+                return SchemaWireSize.exactly(3 * (1 + 8)).lengthDelimited();
+            case "Vector3f":
+                return SchemaWireSize.exactly(3 * (1 + 4)).lengthDelimited();
+        }
+        SchemaTypeResolver.Entry entry = resolve(file, definition, typeName, pass);
+        if (entry == null) {
+            return UNKNOWN;
+        }
+        String qualifiedName = entry.definition.getQualifiedName(entry.file.packageName);
+        if (entry.definition.kind != SchemaDefinition.Kind.ENUM) {
+            return getBody(qualifiedName, pass).lengthDelimited();
+        }
+        addInputs(pass, Collections.singletonMap(qualifiedName, entry.definition));
+        long min = SchemaWireSize.UNBOUNDED;
+        long max = 1;
+        for (SchemaField value : entry.definition.fields) {
+            if (value.number != SchemaField.NO_NUMBER) {
+                long size = SchemaWireSize.varintSize(value.number);
+                min = Math.min(min, size);
+                max = Math.max(max, size);
+            }
+        }
+        return new SchemaWireSize(Math.min(min, max), max, max);
+    }
+
+    private static @Nullable SchemaTypeResolver.Entry resolve(@NotNull SchemaFileSummary file,
+                                                              @NotNull SchemaDefinition definition,
+                                                              @NotNull String typeName, @NotNull Pass pass) {
+        String resolved = pass.resolver.resolve(file.packageName, definition.name, typeName);
+        return resolved == null ? null : pass.resolver.get(resolved);
+    }
+}
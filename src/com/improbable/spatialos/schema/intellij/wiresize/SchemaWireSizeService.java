@@ -0,0 +1,85 @@
+package com.improbable.spatialos.schema.intellij.wiresize;
+
+import com.improbable.spatialos.schema.intellij.index.SchemaSummaryCache;
+import com.improbable.spatialos.schema.intellij.settings.SchemaProjectProperties;
+import com.improbable.spatialos.schema.intellij.settings.SchemaSettings;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link SchemaWireSizeEstimator} alive for the project so that each estimate only recomputes the types
+ * that changed since the previous one. The last estimate is kept for callers that cannot wait for a new one, such as
+ * quick documentation.
+ */
+public class SchemaWireSizeService {
+    private static class Snapshot {
+        final SchemaWireSizeEstimator.Result result;
+        final long modificationCount;
+        final long settingsStamp;
+
+        Snapshot(SchemaWireSizeEstimator.Result result, long modificationCount, long settingsStamp) {
+            this.result = result;
+            this.modificationCount = modificationCount;
+            this.settingsStamp = settingsStamp;
+        }
+    }
+
+    private final Project project;
+    private final SchemaWireSizeEstimator estimator = new SchemaWireSizeEstimator();
+    private final AtomicBoolean estimating = new AtomicBoolean();
+    private volatile Snapshot last = null;
+
+    public SchemaWireSizeService(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static @NotNull SchemaWireSizeService getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, SchemaWireSizeService.class);
+    }
+
+    public synchronized @NotNull SchemaWireSizeEstimator.Result estimate() {
+        // Read before gathering the summaries, so that a change made meanwhile leaves the snapshot out of date.
+        long modificationCount = PsiModificationTracker.getInstance(project).getModificationCount();
+        SchemaSettings settings = SchemaProjectProperties.getSettings(project);
+        SchemaWireSizeEstimator.Result result =
+            estimator.estimate(SchemaSummaryCache.getInstance(project).getAllSummaries().values(),
+                               settings.lengthHints);
+        last = new Snapshot(result, modificationCount, settings.modificationStamp);
+        return result;
+    }
+
+    /**
+     * Returns the last estimate without waiting, or null if there is none yet, and starts a new estimate on a pooled
+     * thread if the schema files or settings may have changed since.
+     */
+    public @Nullable SchemaWireSizeEstimator.Result getLastEstimate() {
+        Snapshot snapshot = last;
+        if (snapshot == null ||
+            snapshot.modificationCount != PsiModificationTracker.getInstance(project).getModificationCount() ||
+            snapshot.settingsStamp != SchemaProjectProperties.getSettings(project).modificationStamp) {
+            estimateInBackground();
+        }
+        return snapshot == null ? null : snapshot.result;
+    }
+
+    private void estimateInBackground() {
+        if (!estimating.compareAndSet(false, true)) {
+            return;
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                if (!project.isDisposed()) {
+                    estimate();
+                }
+            } finally {
+                estimating.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.improbable.spatialos.schema.intellij.wiresize;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchemaWireSizeToolWindowFactory implements ToolWindowFactory {
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        Content content = ContentFactory.SERVICE.getInstance().createContent(new Gui(project), "", false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    private static class WireSizeTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Name", "Kind", "Min (B)", "Typical (B)", "Max (B)"};
+
+        private List<SchemaWireSizeEstimator.Row> rows = new ArrayList<>();
+
+        public void setRows(@NotNull List<SchemaWireSizeEstimator.Row> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column < 2 ? String.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int column) {
+            SchemaWireSizeEstimator.Row row = rows.get(rowIndex);
+            switch (column) {
+                case 0: return row.name;
+                case 1: return row.kind.name().toLowerCase();
+                case 2: return row.size.min;
+                case 3: return row.size.typical;
+                default: return row.size.max;
+            }
+        }
+    }
+
+    private static class Gui extends JPanel {
+        private final Project project;
+        private final WireSizeTableModel model = new WireSizeTableModel();
+        private final JLabel status = new JLabel();
+
+        public Gui(@NotNull Project project) {
+            super(new BorderLayout());
+            this.project = project;
+
+            JButton refresh = new JButton("Refresh");
+            refresh.addActionListener(e -> refresh());
+
+            JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            toolbar.add(refresh);
+            toolbar.add(status);
+
+            JBTable table = new JBTable(model);
+            table.setAutoCreateRowSorter(true);
+            table.setDefaultRenderer(Long.class, new DefaultTableCellRenderer() {
+                {
+                    setHorizontalAlignment(RIGHT);
+                }
+
+                @Override
+                protected void setValue(Object value) {
+                    setText(value instanceof Long ? SchemaWireSize.format((Long) value) : "");
+                }
+            });
+            add(toolbar, BorderLayout.NORTH);
+            add(new JBScrollPane(table), BorderLayout.CENTER);
+            refresh();
+        }
+
+        private void refresh() {
+            status.setText("Estimating...");
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                SchemaWireSizeEstimator.Result result = SchemaWireSizeService.getInstance(project).estimate();
+                SwingUtilities.invokeLater(() -> {
+                    model.setRows(result.rows);
+                    status.setText(String.format("%d rows; %d types recomputed, %d reused",
+                                                 result.rows.size(), result.recomputed, result.reused));
+                });
+            });
+        }
+    }
+}